@@ -0,0 +1,118 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rafael.rocha.spring_challenge.dto.UserPageResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode cost and size of a user list in each format the API negotiates, configured as in
+ * {@code MessageConverterConfig}: JSON with ISO dates, CBOR and Smile with epoch-millisecond dates. {@code encode}
+ * is the serializer alone; {@code encodeGzip} adds the compression the server applies above its size threshold.
+ * The bytes on the wire, plain and gzipped, are printed once per trial. Run with
+ * {@code mvn -Pjmh verify -Djmh.args="UserEncodingBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserEncodingBenchmark {
+
+    public enum Format {
+        JSON, CBOR, SMILE
+    }
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    private Format format;
+
+    private ObjectMapper objectMapper;
+    private UserPageResponseDTO page;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        objectMapper = objectMapper(format);
+
+        List<UserResponseDTO> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserResponseDTO user = new UserResponseDTO();
+            user.setId(i + 1L);
+            user.setFullName("Benchmark User " + i);
+            user.setEmail("benchmark.user" + i + "@example.com");
+            user.setPhone("+55 11 98765-" + String.format("%04d", i % 10_000));
+            user.setBirthDate(new Date(631_152_000_000L + i * 86_400_000L));
+            user.setUserType(UserType.values()[i % UserType.values().length]);
+            users.add(user);
+        }
+        page = new UserPageResponseDTO();
+        page.setContent(users);
+        page.setSize(size);
+
+        byte[] plain = encode();
+        System.out.printf("%n%s users=%d bytes=%d gzipped=%d%n", format, size, plain.length, gzip(plain).length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public byte[] encodeGzip() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(page));
+    }
+
+    private static ObjectMapper objectMapper(Format format) {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        JsonFactory binaryFactory = switch (format) {
+            case JSON -> null;
+            case CBOR -> new CBORFactory();
+            case SMILE -> new SmileFactory();
+        };
+        if (binaryFactory != null) {
+            builder.factory(binaryFactory).featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        }
+        return builder.build();
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,140 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import com.rafael.rocha.spring_challenge.mapper.UserMapperImpl;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request CPU stages of a user write/read: Bean Validation of the request, MapStruct mapping in
+ * both directions and Jackson serialization of the response, alone and chained. {@code size} is 1 for
+ * a single-user request and 10k for a batch or a large page; scores are operations over the whole
+ * list. Run with {@code mvn -Pjmh verify}; the gc profiler adds {@code gc.alloc.rate.norm} (bytes/op).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPipelineBenchmark {
+
+    @Param({"1", "10000"})
+    private int size;
+
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private UserMapper userMapper;
+    private ObjectMapper objectMapper;
+
+    private List<UserRequestDTO> requests;
+    private List<User> users;
+    private Object response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        userMapper = new UserMapperImpl();
+        // Same defaults Spring Boot applies to the application's ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        requests = new ArrayList<>(size);
+        users = new ArrayList<>(size);
+        List<UserResponseDTO> responses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            UserRequestDTO request = new UserRequestDTO();
+            request.setFullName("Benchmark User " + i);
+            request.setEmail("benchmark.user" + i + "@example.com");
+            request.setPhone("+55 11 98765-" + String.format("%04d", i % 10_000));
+            request.setBirthDate(new Date(631_152_000_000L + i * 86_400_000L));
+            request.setUserType(UserType.values()[i % UserType.values().length]);
+            requests.add(request);
+
+            User user = userMapper.toEntity(request);
+            user.setId(i + 1L);
+            users.add(user);
+            responses.add(userMapper.toDTO(user));
+        }
+        response = size == 1 ? responses.get(0) : responses;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public void validate(Blackhole blackhole) {
+        for (UserRequestDTO request : requests) {
+            blackhole.consume(validator.validate(request));
+        }
+    }
+
+    @Benchmark
+    public void toEntity(Blackhole blackhole) {
+        for (UserRequestDTO request : requests) {
+            blackhole.consume(userMapper.toEntity(request));
+        }
+    }
+
+    @Benchmark
+    public void toDTO(Blackhole blackhole) {
+        for (User user : users) {
+            blackhole.consume(userMapper.toDTO(user));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    /**
+     * Validate, map to an entity, assign the id the database would, map back and serialize.
+     */
+    @Benchmark
+    public byte[] pipeline() throws JsonProcessingException {
+        List<UserResponseDTO> responses = new ArrayList<>(requests.size());
+        long id = 1;
+        for (UserRequestDTO request : requests) {
+            if (!validator.validate(request).isEmpty()) {
+                throw new IllegalStateException("Benchmark request is invalid: " + request);
+            }
+            User user = userMapper.toEntity(request);
+            user.setId(id++);
+            responses.add(userMapper.toDTO(user));
+        }
+        return objectMapper.writeValueAsBytes(size == 1 ? responses.get(0) : responses);
+    }
+}
@@ -0,0 +1,173 @@
+package com.rafael.rocha.spring_challenge.admission;
+
+import com.rafael.rocha.spring_challenge.config.AdmissionProperties;
+import com.rafael.rocha.spring_challenge.exceptions.ServiceOverloadedException;
+import com.rafael.rocha.spring_challenge.exceptions.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of everything else on /api that does work, the idempotency store included. Each
+ * request first takes a token from its client's bucket (429 when empty), then a slot from the limiter of its
+ * endpoint class, reads or writes (503 when the line for a slot is full or the wait times out). Both answers carry
+ * {@code Retry-After} and are rendered by {@code GlobalExceptionHandler} through the exception resolver. Shed
+ * requests are counted in {@code techmanage.admission.shed}; slots in use and waiters are gauged in
+ * {@code techmanage.admission.in.flight} and {@code techmanage.admission.queued}.
+ * <p>
+ * Clients are told apart by IP address: any header a client sends could be made up to get a fresh bucket, since
+ * nothing here authenticates it. Behind a proxy, set {@code server.forward-headers-strategy} so the address is the
+ * client's.
+ * <p>
+ * Streaming responses (exports, the change feed) give their slot back as soon as they go asynchronous, since
+ * they no longer hold a request thread.
+ */
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    public enum EndpointClass {
+        READ, WRITE;
+
+        static EndpointClass of(String method) {
+            return "GET".equals(method) || "HEAD".equals(method) ? READ : WRITE;
+        }
+    }
+
+    private final HandlerExceptionResolver handlerExceptionResolver;
+    private final ClientRateLimiter rateLimiter;
+    private final Map<EndpointClass, ConcurrencyLimiter> limiters = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rateLimited = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> overloaded = new EnumMap<>(EndpointClass.class);
+    private volatile boolean enabled;
+    private volatile Duration queueTimeout;
+
+    public AdmissionControlFilter(AdmissionProperties admissionProperties, MeterRegistry meterRegistry,
+                                  HandlerExceptionResolver handlerExceptionResolver) {
+        this.handlerExceptionResolver = handlerExceptionResolver;
+        this.enabled = admissionProperties.isEnabled();
+        this.queueTimeout = admissionProperties.getQueueTimeout();
+        this.rateLimiter = new ClientRateLimiter(admissionProperties.getMaxClients(),
+                admissionProperties.getRequestsPerSecond(), admissionProperties.getBurst());
+        limiters.put(EndpointClass.READ, limiter(admissionProperties.getRead()));
+        limiters.put(EndpointClass.WRITE, limiter(admissionProperties.getWrite()));
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String endpoint = endpointClass.name().toLowerCase(Locale.ROOT);
+            ConcurrencyLimiter limiter = limiters.get(endpointClass);
+            rateLimited.put(endpointClass, shedCounter(meterRegistry, endpoint, "rate_limited"));
+            overloaded.put(endpointClass, shedCounter(meterRegistry, endpoint, "overloaded"));
+            Gauge.builder("techmanage.admission.in.flight", limiter, ConcurrencyLimiter::getInFlight)
+                    .description("Requests holding an admission slot")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+            Gauge.builder("techmanage.admission.queued", limiter, ConcurrencyLimiter::getQueued)
+                    .description("Requests waiting for an admission slot")
+                    .tag("endpoint", endpoint)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        EndpointClass endpointClass = EndpointClass.of(request.getMethod());
+
+        String client = "ip:" + request.getRemoteAddr();
+        long waitNanos = rateLimiter.tryAcquire(client);
+        if (waitNanos > 0) {
+            rateLimited.get(endpointClass).increment();
+            log.warn("doFilterInternal() - ERROR - client[{}] exceeded its rate limit", client);
+            reject(request, response,
+                    new TooManyRequestsException("Rate limit exceeded, please slow down", seconds(waitNanos)));
+            return;
+        }
+
+        ConcurrencyLimiter limiter = limiters.get(endpointClass);
+        Duration timeout = queueTimeout;
+        if (!acquire(limiter, timeout)) {
+            overloaded.get(endpointClass).increment();
+            log.warn("doFilterInternal() - ERROR - shedding {} request, in flight[{}], queued[{}]",
+                    endpointClass, limiter.getInFlight(), limiter.getQueued());
+            reject(request, response,
+                    new ServiceOverloadedException("Service is busy, please retry", seconds(timeout.toNanos())));
+            return;
+        }
+        // Released as soon as this returns, which is also when a streaming response has gone asynchronous
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            limiter.release();
+        }
+    }
+
+    public ClientRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public ConcurrencyLimiter getLimiter(EndpointClass endpointClass) {
+        return limiters.get(endpointClass);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getQueueTimeout() {
+        return queueTimeout;
+    }
+
+    public void setQueueTimeout(Duration queueTimeout) {
+        this.queueTimeout = queueTimeout;
+    }
+
+    private static boolean acquire(ConcurrencyLimiter limiter, Duration timeout) throws ServletException {
+        try {
+            return limiter.acquire(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for an admission slot", e);
+        }
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, RuntimeException e) {
+        handlerExceptionResolver.resolveException(request, response, null, e);
+    }
+
+    private static ConcurrencyLimiter limiter(AdmissionProperties.Limit limit) {
+        return new ConcurrencyLimiter(limit.getMaxConcurrent(), limit.getMaxQueued());
+    }
+
+    private static Counter shedCounter(MeterRegistry meterRegistry, String endpoint, String reason) {
+        return Counter.builder("techmanage.admission.shed")
+                .description("Requests refused by admission control")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    private static long seconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999));
+    }
+}
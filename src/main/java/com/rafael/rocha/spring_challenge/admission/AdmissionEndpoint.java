@@ -0,0 +1,85 @@
+package com.rafael.rocha.spring_challenge.admission;
+
+import com.rafael.rocha.spring_challenge.admission.AdmissionControlFilter.EndpointClass;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/admission}: GET shows the current limits and load, POST changes any of the limits without a
+ * restart. Omitted fields keep their value.
+ */
+@Slf4j
+@Endpoint(id = "admission")
+public class AdmissionEndpoint {
+
+    private final AdmissionControlFilter filter;
+
+    public AdmissionEndpoint(AdmissionControlFilter filter) {
+        this.filter = filter;
+    }
+
+    @ReadOperation
+    public Map<String, Object> admission() {
+        ClientRateLimiter rateLimiter = filter.getRateLimiter();
+        Map<String, Object> admission = new LinkedHashMap<>();
+        admission.put("enabled", filter.isEnabled());
+        admission.put("requestsPerSecond", rateLimiter.getRequestsPerSecond());
+        admission.put("burst", rateLimiter.getBurst());
+        admission.put("trackedClients", rateLimiter.getTrackedClients());
+        admission.put("queueTimeout", filter.getQueueTimeout().toString());
+        admission.put("read", limiter(filter.getLimiter(EndpointClass.READ)));
+        admission.put("write", limiter(filter.getLimiter(EndpointClass.WRITE)));
+        return admission;
+    }
+
+    @WriteOperation
+    public Map<String, Object> update(@Nullable Boolean enabled, @Nullable Double requestsPerSecond,
+                                      @Nullable Integer burst, @Nullable Long queueTimeoutMillis,
+                                      @Nullable Integer readMaxConcurrent, @Nullable Integer readMaxQueued,
+                                      @Nullable Integer writeMaxConcurrent, @Nullable Integer writeMaxQueued) {
+        log.info("update() - INIT - enabled[{}], requestsPerSecond[{}], burst[{}], read[{}/{}], write[{}/{}]",
+                enabled, requestsPerSecond, burst, readMaxConcurrent, readMaxQueued, writeMaxConcurrent,
+                writeMaxQueued);
+        ClientRateLimiter rateLimiter = filter.getRateLimiter();
+        if (requestsPerSecond != null || burst != null) {
+            rateLimiter.setRate(requestsPerSecond != null ? requestsPerSecond : rateLimiter.getRequestsPerSecond(),
+                    burst != null ? burst : rateLimiter.getBurst());
+        }
+        if (queueTimeoutMillis != null) {
+            if (queueTimeoutMillis < 0) {
+                throw new IllegalArgumentException("Queue timeout must not be negative");
+            }
+            filter.setQueueTimeout(Duration.ofMillis(queueTimeoutMillis));
+        }
+        updateLimiter(filter.getLimiter(EndpointClass.READ), readMaxConcurrent, readMaxQueued);
+        updateLimiter(filter.getLimiter(EndpointClass.WRITE), writeMaxConcurrent, writeMaxQueued);
+        if (enabled != null) {
+            filter.setEnabled(enabled);
+        }
+        log.info("update() - END - admission limits updated");
+        return admission();
+    }
+
+    private static void updateLimiter(ConcurrencyLimiter limiter, Integer maxConcurrent, Integer maxQueued) {
+        if (maxConcurrent != null || maxQueued != null) {
+            limiter.setLimits(maxConcurrent != null ? maxConcurrent : limiter.getMaxConcurrent(),
+                    maxQueued != null ? maxQueued : limiter.getMaxQueued());
+        }
+    }
+
+    private static Map<String, Object> limiter(ConcurrencyLimiter limiter) {
+        Map<String, Object> limits = new LinkedHashMap<>();
+        limits.put("maxConcurrent", limiter.getMaxConcurrent());
+        limits.put("maxQueued", limiter.getMaxQueued());
+        limits.put("inFlight", limiter.getInFlight());
+        limits.put("queued", limiter.getQueued());
+        return limits;
+    }
+}
@@ -0,0 +1,55 @@
+package com.rafael.rocha.spring_challenge.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * One {@link TokenBucket} per client, in a bounded cache. A bucket left alone for longer than it takes to
+ * refill is full anyway, so idle clients are dropped; dropping a busy one only hands it a full bucket.
+ */
+public class ClientRateLimiter {
+
+    private static final Duration IDLE_EXPIRY = Duration.ofMinutes(10);
+
+    private final Cache<String, TokenBucket> buckets;
+    private volatile long nanosPerToken;
+    private volatile int burst;
+
+    public ClientRateLimiter(long maxClients, double requestsPerSecond, int burst) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(IDLE_EXPIRY)
+                .build();
+        setRate(requestsPerSecond, burst);
+    }
+
+    /**
+     * @return {@code 0} when the client may proceed, otherwise the nanoseconds until it may
+     */
+    public long tryAcquire(String client) {
+        long now = System.nanoTime();
+        return buckets.get(client, key -> new TokenBucket(now)).tryTake(now, nanosPerToken, burst);
+    }
+
+    public void setRate(double requestsPerSecond, int burst) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be greater than zero");
+        }
+        this.nanosPerToken = Math.max(1, Math.round(1_000_000_000 / requestsPerSecond));
+        this.burst = burst;
+    }
+
+    public double getRequestsPerSecond() {
+        return 1_000_000_000.0 / nanosPerToken;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public long getTrackedClients() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,106 @@
+package com.rafael.rocha.spring_challenge.admission;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+
+/**
+ * Caps the requests of one endpoint class running at once, with a bounded line of waiters. A request that
+ * finds the line full is refused immediately instead of adding to the backlog. Unlike a {@code Semaphore},
+ * both limits can be changed while requests are running.
+ */
+public class ConcurrencyLimiter {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int maxConcurrent;
+    private int maxQueued;
+    private int inFlight;
+    private int queued;
+
+    public ConcurrencyLimiter(int maxConcurrent, int maxQueued) {
+        setLimits(maxConcurrent, maxQueued);
+    }
+
+    /**
+     * @return {@code true} when a slot was taken, which must then be given back with {@link #release()}
+     */
+    public boolean acquire(Duration timeout) throws InterruptedException {
+        lock.lock();
+        try {
+            if (inFlight < maxConcurrent) {
+                inFlight++;
+                return true;
+            }
+            if (queued >= maxQueued) {
+                return false;
+            }
+            queued++;
+            try {
+                long remaining = timeout.toNanos();
+                while (inFlight >= maxConcurrent) {
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                inFlight++;
+                return true;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void release() {
+        lock.lock();
+        try {
+            inFlight--;
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void setLimits(int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("Concurrency must be greater than zero and queue size not negative");
+        }
+        lock.lock();
+        try {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return locked(() -> maxConcurrent);
+    }
+
+    public int getMaxQueued() {
+        return locked(() -> maxQueued);
+    }
+
+    public int getInFlight() {
+        return locked(() -> inFlight);
+    }
+
+    public int getQueued() {
+        return locked(() -> queued);
+    }
+
+    private int locked(IntSupplier read) {
+        lock.lock();
+        try {
+            return read.getAsInt();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
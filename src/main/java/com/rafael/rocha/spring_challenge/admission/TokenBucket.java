@@ -0,0 +1,35 @@
+package com.rafael.rocha.spring_challenge.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket held in a single timestamp: the instant at which the bucket will be full again. Taking a
+ * token pushes that instant one refill interval further; the take is refused when it would land more than a
+ * full bucket ahead of now. Updated with compare-and-set, so clients never block one another.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long nowNanos) {
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return {@code 0} when a token was taken, otherwise the nanoseconds until one will be available
+     */
+    long tryTake(long nowNanos, long nanosPerToken, int capacity) {
+        long capacityNanos = nanosPerToken * capacity;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, nowNanos) + nanosPerToken;
+            long ahead = next - nowNanos;
+            if (ahead > capacityNanos) {
+                return ahead - capacityNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
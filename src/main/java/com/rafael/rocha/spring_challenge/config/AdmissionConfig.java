@@ -0,0 +1,43 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import com.rafael.rocha.spring_challenge.admission.AdmissionControlFilter;
+import com.rafael.rocha.spring_challenge.admission.AdmissionEndpoint;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+@Configuration
+public class AdmissionConfig {
+
+    /**
+     * Shed requests are handed to the MVC exception resolver, so they are answered by the exception handler.
+     */
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(
+            AdmissionProperties admissionProperties, MeterRegistry meterRegistry,
+            @Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver) {
+        return new AdmissionControlFilter(admissionProperties, meterRegistry, handlerExceptionResolver);
+    }
+
+    /**
+     * Ahead of the idempotency filter, so a shed request never reserves a key or touches the store.
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+            AdmissionControlFilter admissionControlFilter) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(admissionControlFilter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 18);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    public AdmissionEndpoint admissionEndpoint(AdmissionControlFilter admissionControlFilter) {
+        return new AdmissionEndpoint(admissionControlFilter);
+    }
+}
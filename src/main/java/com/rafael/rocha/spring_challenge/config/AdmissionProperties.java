@@ -0,0 +1,71 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Startup values of the admission limits; they can be changed while running through {@code /actuator/admission}.
+ */
+@Data
+@ConfigurationProperties(prefix = "techmanage.admission")
+public class AdmissionProperties {
+
+    /**
+     * Whether requests to /api are rate limited and concurrency limited at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Sustained requests per second allowed to each client.
+     */
+    private double requestsPerSecond = 50;
+
+    /**
+     * Requests a client may send at once above its sustained rate, after having been idle.
+     */
+    private int burst = 100;
+
+    /**
+     * Clients whose buckets are tracked; the least recently seen are forgotten beyond it.
+     */
+    private long maxClients = 100000;
+
+    /**
+     * GET requests, which only take a read-only connection briefly.
+     */
+    private Limit read = new Limit(50, 100);
+
+    /**
+     * POST, PUT, PATCH and DELETE requests, which hold a connection for a whole transaction.
+     */
+    private Limit write = new Limit(10, 50);
+
+    /**
+     * How long a request may wait in line for a free slot before it is shed.
+     */
+    private Duration queueTimeout = Duration.ofSeconds(1);
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Requests of this class running at once.
+         */
+        private int maxConcurrent;
+
+        /**
+         * Requests of this class waiting for a slot; any further request is shed right away.
+         */
+        private int maxQueued;
+
+        public Limit() {
+        }
+
+        public Limit(int maxConcurrent, int maxQueued) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxQueued = maxQueued;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "techmanage.batch")
+public class BatchProperties {
+
+    /**
+     * Maximum number of users accepted by a single POST /api/users/batch call.
+     */
+    private int maxSize = 1000;
+}
@@ -0,0 +1,37 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "techmanage.change-feed")
+public class ChangeFeedProperties {
+
+    /**
+     * Number of most recent changes kept for replay; clients further behind must resync.
+     */
+    private int capacity = 10000;
+
+    /**
+     * How often idle streams get a comment line, so proxies keep them open and dead clients are noticed.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * How long a single write to a stream may block before the subscriber is dropped as too slow.
+     */
+    private Duration sendTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Threads writing to streams at once; a stalled client holds one until it is dropped for the send timeout.
+     */
+    private int senderThreads = 16;
+
+    /**
+     * Streams waiting for a free sender thread; a stream due while this is full is dropped and its client has
+     * to reconnect.
+     */
+    private int senderQueueCapacity = 10000;
+}
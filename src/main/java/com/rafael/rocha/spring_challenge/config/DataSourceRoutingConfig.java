@@ -0,0 +1,91 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import com.rafael.rocha.spring_challenge.datasource.ReadWriteRoutingDataSource;
+import com.rafael.rocha.spring_challenge.datasource.ReadYourWritesFilter;
+import com.rafael.rocha.spring_challenge.datasource.ReplicaPool;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Only with {@code techmanage.datasource.replicas} set; otherwise Spring Boot's single datasource is used as is.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "techmanage.datasource.replicas[0]", name = "url")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaPool replicaPool(DataSourceRoutingProperties dataSourceRoutingProperties,
+                                   MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<DataSourceRoutingProperties.Replica> configured = dataSourceRoutingProperties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            DataSourceRoutingProperties.Replica replica = configured.get(i);
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .driverClassName(replica.getDriverClassName())
+                    .build();
+            String name = "replica-" + (i + 1);
+            dataSource.setPoolName(name);
+            dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            replicas.put(name, dataSource);
+        }
+
+        ReplicaPool replicaPool = new ReplicaPool(replicas);
+        Gauge.builder("techmanage.datasource.replicas.healthy", replicaPool, ReplicaPool::getHealthyCount)
+                .description("Read replicas currently in rotation")
+                .register(meterRegistry);
+        replicaPool.start(dataSourceRoutingProperties.getHealthCheckInterval());
+        return replicaPool;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(primaryDataSource, replicaPool));
+    }
+
+    /**
+     * Outside the idempotency filter, so a replayed write still counts as the client's write.
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            DataSourceRoutingProperties dataSourceRoutingProperties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(dataSourceRoutingProperties.getClientHeader(),
+                        dataSourceRoutingProperties.getReadYourWrites(), dataSourceRoutingProperties.getMaxClients()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 15);
+        registration.addUrlPatterns("/api/*");
+        registration.setEnabled(!dataSourceRoutingProperties.getReadYourWrites().isZero());
+        return registration;
+    }
+}
@@ -0,0 +1,61 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas next to {@code spring.datasource}, which stays the primary. With none listed there is no routing.
+ */
+@Data
+@ConfigurationProperties(prefix = "techmanage.datasource")
+public class DataSourceRoutingProperties {
+
+    /**
+     * Databases that read-only transactions are spread over.
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * How often each replica's connection is validated.
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * How long a client reads from the primary after its own write; zero turns read-your-writes off.
+     */
+    private Duration readYourWrites = Duration.ofSeconds(5);
+
+    /**
+     * Request header identifying a client for read-your-writes; clients without it are told apart by IP address.
+     */
+    private String clientHeader = "X-API-Key";
+
+    /**
+     * Recent writers remembered for read-your-writes.
+     */
+    private long maxClients = 100000;
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        /**
+         * Derived from the url when not set.
+         */
+        private String driverClassName;
+
+        /**
+         * Connections kept open to this replica.
+         */
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,43 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.rocha.spring_challenge.idempotency.DatabaseIdempotencyStore;
+import com.rafael.rocha.spring_challenge.idempotency.IdempotencyFilter;
+import com.rafael.rocha.spring_challenge.idempotency.IdempotencyStore;
+import com.rafael.rocha.spring_challenge.idempotency.InMemoryIdempotencyStore;
+import com.rafael.rocha.spring_challenge.repository.IdempotencyKeyRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class IdempotencyConfig {
+
+    @Bean
+    public IdempotencyStore idempotencyStore(IdempotencyProperties idempotencyProperties,
+                                             ObjectProvider<IdempotencyKeyRepository> idempotencyKeyRepository) {
+        return switch (idempotencyProperties.getStore()) {
+            case MEMORY -> new InMemoryIdempotencyStore(idempotencyProperties.getMaximumSize(),
+                    idempotencyProperties.getTtl());
+            case DATABASE -> new DatabaseIdempotencyStore(idempotencyKeyRepository.getObject(),
+                    idempotencyProperties.getTtl(), idempotencyProperties.getLease(),
+                    idempotencyProperties.getPurgeInterval());
+        };
+    }
+
+    /**
+     * Runs after the Hibernate metrics filter, so a replayed response is recorded as a request without statements.
+     */
+    @Bean
+    public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore idempotencyStore,
+                                                                       ObjectMapper objectMapper,
+                                                                       IdempotencyProperties idempotencyProperties) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(idempotencyStore, objectMapper, idempotencyProperties.getWaitTimeout()));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
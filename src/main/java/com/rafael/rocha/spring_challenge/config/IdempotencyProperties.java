@@ -0,0 +1,47 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "techmanage.idempotency")
+public class IdempotencyProperties {
+
+    /**
+     * Where keys and responses are kept: MEMORY is per instance, DATABASE is shared by every instance.
+     */
+    private Store store = Store.MEMORY;
+
+    /**
+     * How long a key is remembered; a retry after that runs the request again.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * How long the DATABASE store holds a key for a request still running; a retry takes the key over after
+     * that, e.g. when the instance running the request died. Keep it above the slowest write.
+     */
+    private Duration lease = Duration.ofMinutes(1);
+
+    /**
+     * Stored responses kept by the MEMORY store; the least recently used are evicted beyond it. Keys of requests
+     * still running are kept regardless.
+     */
+    private long maximumSize = 100000;
+
+    /**
+     * How long a retry waits for the original request with the same key to finish before getting a 409.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    /**
+     * How often the DATABASE store deletes expired keys.
+     */
+    private Duration purgeInterval = Duration.ofMinutes(10);
+
+    public enum Store {
+        MEMORY, DATABASE
+    }
+}
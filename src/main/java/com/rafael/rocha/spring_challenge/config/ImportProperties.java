@@ -0,0 +1,36 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+
+@Data
+@ConfigurationProperties(prefix = "techmanage.import")
+public class ImportProperties {
+
+    /**
+     * Where uploaded files and error files are kept until a job completes.
+     */
+    private Path workDir = Path.of(System.getProperty("java.io.tmpdir"), "techmanage-imports");
+
+    /**
+     * Rows committed per transaction when the upload does not ask for a chunk size.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Largest chunk size a client may ask for.
+     */
+    private int maxChunkSize = 10000;
+
+    /**
+     * Threads used to validate the rows of a chunk in parallel.
+     */
+    private int validationThreads = 4;
+
+    /**
+     * Import jobs processed at the same time; further jobs wait in line.
+     */
+    private int concurrentJobs = 1;
+}
@@ -0,0 +1,50 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import com.rafael.rocha.spring_challenge.metrics.HibernateRequestMetricsFilter;
+import com.rafael.rocha.spring_challenge.metrics.HibernateRequestStatistics;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Backs {@code @Timed} on service classes; every public method gets its own timer tagged with class and method.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernateRequestStatistics hibernateRequestStatistics() {
+        return new HibernateRequestStatistics();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateRequestStatisticsCustomizer(HibernateRequestStatistics statistics) {
+        return properties -> {
+            properties.put(AvailableSettings.INTERCEPTOR, statistics);
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, statistics);
+        };
+    }
+
+    /**
+     * Runs outside the open-in-view interceptor, so statements issued while rendering the response still count.
+     */
+    @Bean
+    public FilterRegistrationBean<HibernateRequestMetricsFilter> hibernateRequestMetricsFilter(
+            HibernateRequestStatistics statistics, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<HibernateRequestMetricsFilter> registration =
+                new FilterRegistrationBean<>(new HibernateRequestMetricsFilter(statistics, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
@@ -0,0 +1,36 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import com.rafael.rocha.spring_challenge.migration.PreMigrationSchemaUpgrade;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Slf4j
+@Configuration
+public class MigrationConfig {
+
+    /**
+     * Decided when the application starts rather than by a condition on the bean, which an AOT build would fix
+     * at build time.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(MigrationProperties migrationProperties) {
+        return flyway -> {
+            if (!migrationProperties.isRunOnStartup()) {
+                log.info("migrate() - END - skipped, techmanage.migrations.run-on-startup is false");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+
+    /**
+     * Picked up by the Flyway auto-configuration along with the SQL migrations in db/migration.
+     */
+    @Bean
+    public JavaMigration preMigrationSchemaUpgrade() {
+        return new PreMigrationSchemaUpgrade();
+    }
+}
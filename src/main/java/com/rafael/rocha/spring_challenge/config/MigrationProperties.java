@@ -0,0 +1,16 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "techmanage.migrations")
+public class MigrationProperties {
+
+    /**
+     * Whether this instance applies pending migrations as it starts. Turned off where the database is known to be
+     * migrated already, e.g. instances started after a deploy step has run them, or the class-data-sharing
+     * training run, which has no database.
+     */
+    private boolean runOnStartup = true;
+}
@@ -0,0 +1,19 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "techmanage.pagination")
+public class PaginationProperties {
+
+    /**
+     * Page size used when the client does not send a limit.
+     */
+    private int defaultSize = 20;
+
+    /**
+     * Upper bound enforced by the server, whatever limit the client asks for.
+     */
+    private int maxSize = 100;
+}
@@ -0,0 +1,22 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "techmanage.cache.responses")
+public class ResponseCacheProperties {
+
+    /**
+     * Encoded bytes kept per format; least recently used users are evicted beyond it.
+     */
+    private DataSize maximumSize = DataSize.ofMegabytes(32);
+
+    /**
+     * Bounds how long bytes encoded from a lagging replica can be served; writes drop entries before then.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+}
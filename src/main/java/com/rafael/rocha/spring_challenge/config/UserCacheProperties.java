@@ -0,0 +1,21 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "techmanage.cache.users")
+public class UserCacheProperties {
+
+    /**
+     * Maximum number of users kept; least recently used entries are evicted beyond it.
+     */
+    private long maximumSize = 10000;
+
+    /**
+     * How long an entry is served after it was loaded or refreshed.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(5);
+}
@@ -0,0 +1,37 @@
+package com.rafael.rocha.spring_challenge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "techmanage.write-coalescing")
+public class WriteCoalescingProperties {
+
+    /**
+     * Whether concurrent POST /api/users calls are written together in one transaction.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Creates written in one transaction at most.
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * How long the first create of a batch waits for others to join it.
+     */
+    private Duration maxWait = Duration.ofMillis(5);
+
+    /**
+     * Creates waiting to be written; beyond it callers get a 503.
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * How long a caller waits for its create to be written before it gets a 503. Creates that time out while
+     * still queued are dropped; one already being written may still be.
+     */
+    private Duration timeout = Duration.ofSeconds(10);
+}
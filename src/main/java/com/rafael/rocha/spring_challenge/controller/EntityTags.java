@@ -0,0 +1,37 @@
+package com.rafael.rocha.spring_challenge.controller;
+
+import com.rafael.rocha.spring_challenge.exceptions.PreconditionFailedException;
+
+/**
+ * The user version as an HTTP entity tag, shared by the servlet and reactive controllers.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * @return the ETag for the version, or {@code null} (no header) when the version is not known
+     */
+    public static String of(Long version) {
+        return version != null ? String.valueOf(version) : null;
+    }
+
+    /**
+     * @return the version an If-Match header asks for, or {@code null} when it is absent or {@code *}
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 1 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            tag = tag.substring(1, tag.length() - 1);
+        }
+        try {
+            return Long.parseLong(tag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version: " + ifMatch);
+        }
+    }
+}
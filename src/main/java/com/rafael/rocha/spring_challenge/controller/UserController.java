@@ -1,15 +1,29 @@
 package com.rafael.rocha.spring_challenge.controller;
 
+import com.rafael.rocha.spring_challenge.dto.ExportFormat;
+import com.rafael.rocha.spring_challenge.dto.UserBatchResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
 import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
 import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.service.UserChangeStreamService;
+import com.rafael.rocha.spring_challenge.service.UserExportService;
+import com.rafael.rocha.spring_challenge.service.UserResponseCache;
+import com.rafael.rocha.spring_challenge.service.UserResponseCache.Format;
 import com.rafael.rocha.spring_challenge.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/users")
@@ -18,25 +32,128 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserExportService userExportService;
+
+    @Autowired
+    private UserChangeStreamService userChangeStreamService;
+
+    @Autowired
+    private UserResponseCache userResponseCache;
+
+    /**
+     * Full JSON pages are assembled from the users' stored bytes; sparse fieldsets and binary formats are
+     * serialized as usual.
+     */
     @GetMapping
-    public ResponseEntity<List<UserResponseDTO>> findAllUsers() {
-        return ResponseEntity.ok(userService.findAllUsers());
+    public ResponseEntity<?> findAllUsers(UserFilterDTO filter,
+                                          @RequestParam(required = false) String cursor,
+                                          @RequestParam(required = false) Integer limit,
+                                          @RequestParam(required = false) String fields,
+                                          @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if ((fields == null || fields.isBlank()) && Format.negotiate(accept) == Format.JSON) {
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON)
+                    .body(userResponseCache.encodePage(() -> userService.findAllUsers(filter, cursor, limit, fields)));
+        }
+        return ResponseEntity.ok(userService.findAllUsers(filter, cursor, limit, fields));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        StreamingResponseBody body = out -> userExportService.exportUsers(exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=users." + exportFormat.name().toLowerCase(Locale.ROOT))
+                .body(body);
+    }
+
+    /**
+     * Server-Sent Events of every create, update and delete once committed, as {@code user-change} events whose
+     * id is the change sequence. Resumes after {@code Last-Event-ID} (sent by reconnecting clients) or
+     * {@code after}; with neither, only new changes are sent. A client that is too far behind gets a
+     * {@code resync} event and should re-read the users before subscribing again from its latestSequence.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(required = false) Long after,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return userChangeStreamService.subscribe(lastEventId != null ? lastEventId : after);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<UserSearchResultDTO>> searchUsers(@RequestParam String q,
+                                                                 @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(userService.searchUsers(q, limit));
+    }
+
+    @GetMapping("/by-email")
+    public ResponseEntity<UserResponseDTO> getUserByEmail(@RequestParam String email) {
+        UserResponseDTO user = userService.getUserByEmail(email);
+        return ResponseEntity.ok().eTag(EntityTags.of(user.getVersion())).body(user);
     }
 
+    /**
+     * Full representations carry the version as ETag; a matching If-None-Match gets 304 with no body, answered
+     * from the cache when the user is cached. They are written from the user's stored bytes in the negotiated
+     * format. Sparse fieldsets are not versioned.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable Long id) {
-        return ResponseEntity.ok(userService.getUserById(id));
+    public ResponseEntity<?> getUserById(@PathVariable Long id,
+                                         @RequestParam(required = false) String fields,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (fields == null || fields.isBlank()) {
+            Format format = Format.negotiate(accept);
+            if (format == null) {
+                UserResponseDTO user = userService.getUserById(id);
+                return ResponseEntity.ok().eTag(EntityTags.of(user.getVersion())).body(user);
+            }
+            UserResponseCache.EncodedUser user = userResponseCache.get(id, format);
+            return ResponseEntity.ok()
+                    .eTag(EntityTags.of(user.version()))
+                    .contentType(format.getMediaType())
+                    .body(user.bytes());
+        }
+        return ResponseEntity.ok(userService.getUserById(id, fields));
     }
 
     @PostMapping
     public ResponseEntity<UserResponseDTO> createUser(@Valid @RequestBody UserRequestDTO userRequestDTO) {
-        return ResponseEntity.status(HttpStatus.CREATED).body(userService.createUser(userRequestDTO));
+        UserResponseDTO user = userService.createUser(userRequestDTO);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(EntityTags.of(user.getVersion())).body(user);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<UserBatchResponseDTO> createUsers(@RequestBody List<UserRequestDTO> userRequestDTOs) {
+        UserBatchResponseDTO response = userService.createUsers(userRequestDTOs);
+        HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    /**
+     * With If-Match the update only applies if the user is still at that version (412 otherwise), and the
+     * response carries the new ETag; without it the new version is not known and no ETag is sent.
+     */
     @PutMapping("/{id}")
     public ResponseEntity<UserResponseDTO> updateUserById(@PathVariable Long id,
-                                                      @Valid @RequestBody UserRequestDTO userUpdateDTO) {
-        return ResponseEntity.ok(userService.updateUserById(id, userUpdateDTO));
+                                                      @Valid @RequestBody UserRequestDTO userUpdateDTO,
+                                                      @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                      String ifMatch) {
+        UserResponseDTO user = userService.updateUserById(id, userUpdateDTO, EntityTags.expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(user.getVersion())).body(user);
+    }
+
+    /**
+     * Partial update (JSON merge patch without nulls): only the fields present are written. Answers 204,
+     * with the new ETag when the request carried If-Match.
+     */
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public ResponseEntity<Void> patchUserById(@PathVariable Long id,
+                                              @Valid @RequestBody UserPatchDTO userPatchDTO,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                              String ifMatch) {
+        Long version = userService.patchUserById(id, userPatchDTO, EntityTags.expectedVersion(ifMatch));
+        return ResponseEntity.noContent().eTag(EntityTags.of(version)).build();
     }
 
     @DeleteMapping("/{id}")
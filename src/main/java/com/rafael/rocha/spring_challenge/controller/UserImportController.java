@@ -0,0 +1,50 @@
+package com.rafael.rocha.spring_challenge.controller;
+
+import com.rafael.rocha.spring_challenge.dto.ImportJobResponseDTO;
+import com.rafael.rocha.spring_challenge.service.UserImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.net.URI;
+
+@RestController
+@RequestMapping("/api/users/import")
+public class UserImportController {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<ImportJobResponseDTO> startImport(@RequestParam("file") MultipartFile file,
+                                                            @RequestParam(required = false) Integer chunkSize) {
+        ImportJobResponseDTO job = userImportService.startImport(file, chunkSize);
+        URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                .path("/{id}").buildAndExpand(job.getId()).toUri();
+        return ResponseEntity.accepted().location(location).body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ImportJobResponseDTO> getImportJob(@PathVariable String id) {
+        return ResponseEntity.ok(userImportService.getImportJob(id));
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<ImportJobResponseDTO> resumeImport(@PathVariable String id) {
+        return ResponseEntity.accepted().body(userImportService.resumeImport(id));
+    }
+
+    @GetMapping("/{id}/errors")
+    public ResponseEntity<Resource> getImportErrors(@PathVariable String id) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + id + ".errors.csv")
+                .body(new FileSystemResource(userImportService.getErrorFile(id)));
+    }
+}
@@ -0,0 +1,54 @@
+package com.rafael.rocha.spring_challenge.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Sends the current thread's read-only transactions to the primary instead of a replica, for reads that must
+ * see every committed write: rebuilding the in-memory indexes, filling caches shared by every client, or a client
+ * reading right after its own write.
+ * Without replicas configured everything is on the primary already and this has no effect.
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUIRED = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        boolean previous = requirePrimary();
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        boolean previous = requirePrimary();
+        try {
+            action.run();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    static boolean isPrimaryRequired() {
+        return PRIMARY_REQUIRED.get() != null;
+    }
+
+    /**
+     * @return whether the primary was already required, to be handed back to {@link #restore(boolean)}
+     */
+    static boolean requirePrimary() {
+        boolean previous = isPrimaryRequired();
+        PRIMARY_REQUIRED.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(boolean previous) {
+        if (!previous) {
+            PRIMARY_REQUIRED.remove();
+        }
+    }
+}
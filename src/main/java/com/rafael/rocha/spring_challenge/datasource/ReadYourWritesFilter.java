@@ -0,0 +1,58 @@
+package com.rafael.rocha.spring_challenge.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Read-your-writes on top of replica routing: a client that has just written is served from the primary for a
+ * while, long enough for the replicas to catch up, so it never reads back older data than it wrote. Clients are
+ * told apart by a header (an API key) or else by IP address; the last writes are kept per instance, so this
+ * relies on a client's requests reaching the same instance.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private final String clientHeader;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWritesFilter(String clientHeader, Duration window, long maxClients) {
+        this.clientHeader = clientHeader;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterWrite(window)
+                .build();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = clientOf(request);
+        boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+        if (!write && recentWriters.getIfPresent(client) == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean previous = DataSourceRouting.requirePrimary();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRouting.restore(previous);
+        }
+        if (write && response.getStatus() < HttpServletResponse.SC_BAD_REQUEST) {
+            recentWriters.put(client, Boolean.TRUE);
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        String apiKey = request.getHeader(clientHeader);
+        return apiKey != null && !apiKey.isBlank() ? "key:" + apiKey : "ip:" + request.getRemoteAddr();
+    }
+}
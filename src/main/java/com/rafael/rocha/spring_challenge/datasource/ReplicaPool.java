@@ -0,0 +1,113 @@
+package com.rafael.rocha.spring_challenge.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas, handed out round-robin. A replica whose connection fails validation is skipped until a
+ * later check finds it valid again; with none healthy, reads fall back to the primary.
+ */
+@Slf4j
+public class ReplicaPool implements AutoCloseable {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final Map<String, DataSource> replicas;
+    private final List<String> names;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private volatile List<String> healthy;
+    private ScheduledExecutorService healthChecker;
+
+    public ReplicaPool(Map<String, DataSource> replicas) {
+        this.replicas = Collections.unmodifiableMap(new LinkedHashMap<>(replicas));
+        this.names = List.copyOf(replicas.keySet());
+        this.healthy = names;
+    }
+
+    /**
+     * @return the replica to read from, or {@code null} when none is healthy
+     */
+    public String next() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(nextIndex.getAndIncrement(), candidates.size()));
+    }
+
+    public void checkHealth() {
+        List<String> valid = new ArrayList<>(names.size());
+        for (String name : names) {
+            boolean up = isValid(replicas.get(name));
+            if (up) {
+                valid.add(name);
+            }
+            boolean wasUp = healthy.contains(name);
+            if (wasUp && !up) {
+                log.warn("checkHealth() - ERROR - replica[{}] failed validation, reads go elsewhere", name);
+            } else if (!wasUp && up) {
+                log.info("checkHealth() - END - replica[{}] is back in rotation", name);
+            }
+        }
+        healthy = List.copyOf(valid);
+    }
+
+    public synchronized void start(Duration interval) {
+        if (healthChecker != null) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long millis = interval.toMillis();
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, millis, TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public int getHealthyCount() {
+        return healthy.size();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("close() - ERROR - could not close replica pool: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static boolean isValid(DataSource replica) {
+        try (Connection connection = replica.getConnection()) {
+            return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            log.debug("isValid() - replica connection failed: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.rafael.rocha.spring_challenge.dto;
+
+import com.rafael.rocha.spring_challenge.model.enums.ImportJobStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ImportJobResponseDTO {
+    private String id;
+    private String fileName;
+    private ImportJobStatus status;
+    private int chunkSize;
+    private long processedRows;
+    private long importedRows;
+    private long rejectedRows;
+    private String message;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
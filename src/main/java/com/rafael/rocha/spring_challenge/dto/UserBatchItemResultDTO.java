@@ -0,0 +1,24 @@
+package com.rafael.rocha.spring_challenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserBatchItemResultDTO {
+    private int index;
+    private Status status;
+    private UserResponseDTO user;
+    private String message;
+    private Map<String, String> errors;
+
+    public enum Status {
+        CREATED, INVALID, DUPLICATE_EMAIL
+    }
+}
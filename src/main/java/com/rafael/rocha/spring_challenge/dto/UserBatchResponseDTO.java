@@ -0,0 +1,16 @@
+package com.rafael.rocha.spring_challenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserBatchResponseDTO {
+    private int created;
+    private int failed;
+    private List<UserBatchItemResultDTO> results;
+}
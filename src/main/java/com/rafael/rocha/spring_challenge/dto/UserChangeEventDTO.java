@@ -0,0 +1,27 @@
+package com.rafael.rocha.spring_challenge.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserChangeEventDTO {
+    private long sequence;
+    private Type type;
+    private Long userId;
+    // Null when the write did not know the resulting version (no If-Match)
+    private Long version;
+    // The full user when created or replaced, only the written fields when patched, absent when deleted
+    private UserResponseDTO user;
+    private Date committedAt;
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+}
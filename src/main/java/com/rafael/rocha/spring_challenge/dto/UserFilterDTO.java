@@ -0,0 +1,29 @@
+package com.rafael.rocha.spring_challenge.dto;
+
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.util.Date;
+
+/**
+ * Optional filters for the user listing, bound from query parameters. All set criteria are combined with AND.
+ */
+@Data
+public class UserFilterDTO {
+
+    private UserType userType;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date bornFrom;
+
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private Date bornTo;
+
+    private String namePrefix;
+
+    public boolean isEmpty() {
+        return userType == null && bornFrom == null && bornTo == null
+                && (namePrefix == null || namePrefix.isBlank());
+    }
+}
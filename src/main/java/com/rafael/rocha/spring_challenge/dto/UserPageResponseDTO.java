@@ -0,0 +1,16 @@
+package com.rafael.rocha.spring_challenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageResponseDTO {
+    private List<UserResponseDTO> content;
+    private int size;
+    private String nextCursor;
+}
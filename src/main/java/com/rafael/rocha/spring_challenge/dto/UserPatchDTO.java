@@ -0,0 +1,31 @@
+package com.rafael.rocha.spring_challenge.dto;
+
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * Partial update: absent (or {@code null}) fields are left unchanged, present ones follow the same rules as
+ * {@link UserRequestDTO}.
+ */
+@Data
+public class UserPatchDTO {
+
+    @Pattern(regexp = ".*\\S.*", message = "Full name must not be blank")
+    private String fullName;
+
+    @Email(message = "Invalid email format")
+    @Pattern(regexp = ".*\\S.*", message = "Email must not be blank")
+    private String email;
+
+    @Pattern(regexp = "^\\+[0-9][0-9 -]{8,}$",
+            message = "Phone number must match the international pattern (e.g: +55 11 98765-4321)")
+    private String phone;
+
+    @Past(message = "Birth date must be in the past")
+    private Date birthDate;
+
+    private UserType userType;
+}
@@ -1,11 +1,14 @@
 package com.rafael.rocha.spring_challenge.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.rafael.rocha.spring_challenge.model.enums.UserType;
 import lombok.Data;
 
 import java.util.Date;
 
 @Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class UserResponseDTO {
     private Long id;
     private String fullName;
@@ -13,4 +16,8 @@ public class UserResponseDTO {
     private String phone;
     private Date birthDate;
     private UserType userType;
+
+    // Sent as the ETag header rather than in the body
+    @JsonIgnore
+    private Long version;
 }
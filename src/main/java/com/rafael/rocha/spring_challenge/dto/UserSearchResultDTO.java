@@ -0,0 +1,15 @@
+package com.rafael.rocha.spring_challenge.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSearchResultDTO {
+
+    private Long id;
+    private String fullName;
+    private String email;
+}
@@ -0,0 +1,8 @@
+package com.rafael.rocha.spring_challenge.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -2,8 +2,11 @@ package com.rafael.rocha.spring_challenge.exceptions;
 
 public class ResourceNotFoundException extends RuntimeException {
 
+    /**
+     * Not-found is an expected outcome, not a bug, so no stack trace is captured.
+     */
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public ResourceNotFoundException(String message, Throwable cause) {
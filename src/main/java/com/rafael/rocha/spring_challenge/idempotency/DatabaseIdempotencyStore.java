@@ -0,0 +1,98 @@
+package com.rafael.rocha.spring_challenge.idempotency;
+
+import com.rafael.rocha.spring_challenge.model.entity.IdempotencyKey;
+import com.rafael.rocha.spring_challenge.repository.IdempotencyKeyRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keys in the {@code idempotency_keys} table, shared by every instance. A key is reserved by inserting its
+ * row, so the primary key decides which of two concurrent requests runs. The reservation only lasts the
+ * {@code lease}, so a retry can take over a request whose instance died before completing it; the {@code ttl}
+ * applies from completion. Expired rows are purged periodically and ignored until then.
+ */
+@Slf4j
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+    private static final int RESERVE_ATTEMPTS = 3;
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Duration ttl;
+    private final Duration lease;
+    private final ScheduledExecutorService purger =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("idempotency-purge-"));
+
+    public DatabaseIdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository, Duration ttl, Duration lease,
+                                    Duration purgeInterval) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttl = ttl;
+        this.lease = lease;
+        long purgeMillis = purgeInterval.toMillis();
+        purger.scheduleWithFixedDelay(this::purgeExpired, purgeMillis, purgeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public IdempotencyRecord reserve(String key, String fingerprint) {
+        for (int attempt = 0; attempt < RESERVE_ATTEMPTS; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+            // Read first: replays are the common case, and a failed INSERT is logged as an error by Hibernate
+            Optional<IdempotencyKey> existing = idempotencyKeyRepository.findById(key);
+            if (existing.isPresent()) {
+                if (!existing.get().getExpiresAt().isBefore(now)) {
+                    return toRecord(existing.get());
+                }
+                idempotencyKeyRepository.deleteIfExpired(key, now);
+            }
+            try {
+                idempotencyKeyRepository.insert(key, fingerprint, now.plus(lease));
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                log.debug("reserve() - key[{}] taken by a concurrent request", key);
+            }
+        }
+        // Released and taken again in between every attempt: treat it as running and let the caller wait
+        return new IdempotencyRecord(fingerprint, null);
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        IdempotencyRecord.StoredResponse response = record.response();
+        idempotencyKeyRepository.complete(key, response.status(), response.contentType(), response.eTag(),
+                response.body(), LocalDateTime.now().plus(ttl));
+    }
+
+    @Override
+    public void release(String key) {
+        idempotencyKeyRepository.deleteById(key);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        purger.shutdownNow();
+    }
+
+    private void purgeExpired() {
+        try {
+            int purged = idempotencyKeyRepository.deleteAllExpired(LocalDateTime.now());
+            log.debug("purgeExpired() - END - purged idempotency keys[{}]", purged);
+        } catch (RuntimeException e) {
+            log.warn("purgeExpired() - ERROR - could not purge expired idempotency keys: {}", e.getMessage());
+        }
+    }
+
+    private static IdempotencyRecord toRecord(IdempotencyKey idempotencyKey) {
+        IdempotencyRecord.StoredResponse response = idempotencyKey.getStatus() == null ? null
+                : new IdempotencyRecord.StoredResponse(idempotencyKey.getStatus(), idempotencyKey.getContentType(),
+                idempotencyKey.getEntityTag(), idempotencyKey.getBody());
+        return new IdempotencyRecord(idempotencyKey.getFingerprint(), response);
+    }
+}
@@ -0,0 +1,296 @@
+package com.rafael.rocha.spring_challenge.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.rocha.spring_challenge.exceptions.ErrorResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Makes writes sent with an {@code Idempotency-Key} header safe to retry. The first request with a key runs and
+ * its response is stored; a retry with the same key and the same request gets that response back, marked with
+ * {@code Idempotent-Replayed: true}, without reaching the controller. A retry that arrives while the first
+ * request is still running waits for it, up to the configured timeout (then 409). Reusing a key for a different
+ * request (method, path, If-Match or body) is answered with 422.
+ * <p>
+ * Server errors (5xx) are not stored, so the retry runs again. Multipart uploads are not covered: their body is
+ * not kept in memory.
+ */
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 50;
+    private static final Set<String> WRITE_METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final Duration waitTimeout;
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore idempotencyStore, ObjectMapper objectMapper, Duration waitTimeout) {
+        this.idempotencyStore = idempotencyStore;
+        this.objectMapper = objectMapper;
+        this.waitTimeout = waitTimeout;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return request.getHeader(IDEMPOTENCY_KEY) == null
+                || !WRITE_METHODS.contains(request.getMethod())
+                || (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(IDEMPOTENCY_KEY).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(cachedRequest);
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+        while (true) {
+            IdempotencyRecord existing = idempotencyStore.reserve(key, fingerprint);
+            if (existing == null) {
+                execute(key, fingerprint, cachedRequest, response, filterChain);
+                return;
+            }
+            if (!existing.fingerprint().equals(fingerprint)) {
+                log.warn("doFilter() - ERROR - idempotency key[{}] reused for a different request", key);
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY + " was already used for a different request");
+                return;
+            }
+            if (existing.response() != null) {
+                log.info("doFilter() - END - replaying stored response for idempotency key[{}]", key);
+                replay(existing.response(), response);
+                return;
+            }
+            if (!awaitInFlight(key, deadline)) {
+                log.warn("doFilter() - ERROR - request with idempotency key[{}] is still in progress", key);
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                writeError(response, HttpStatus.CONFLICT,
+                        "A request with this " + IDEMPOTENCY_KEY + " is still in progress");
+                return;
+            }
+        }
+    }
+
+    private void execute(String key, String fingerprint, HttpServletRequest request, HttpServletResponse response,
+                         FilterChain filterChain) throws ServletException, IOException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        inFlight.put(key, done);
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            int status = responseWrapper.getStatus();
+            // A request shed by admission control never ran, so the key stays free for the retry
+            if (status < 500 && status != HttpStatus.TOO_MANY_REQUESTS.value() && !request.isAsyncStarted()) {
+                idempotencyStore.complete(key, new IdempotencyRecord(fingerprint, new IdempotencyRecord.StoredResponse(
+                        status, responseWrapper.getContentType(), responseWrapper.getHeader(HttpHeaders.ETAG),
+                        responseWrapper.getContentAsByteArray())));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyStore.release(key);
+            }
+            inFlight.remove(key, done);
+            done.complete(null);
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Waits for the request holding the key: on its completion when it runs on this instance, by polling the
+     * store otherwise.
+     *
+     * @return {@code false} once the deadline has passed
+     */
+    private boolean awaitInFlight(String key, long deadline) throws ServletException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+            return false;
+        }
+        CompletableFuture<Void> running = inFlight.get(key);
+        try {
+            if (running != null) {
+                running.get(remaining, TimeUnit.NANOSECONDS);
+            } else {
+                Thread.sleep(Math.min(POLL_INTERVAL_MILLIS, TimeUnit.NANOSECONDS.toMillis(remaining) + 1));
+            }
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for idempotency key " + key, e);
+        }
+        return true;
+    }
+
+    private static void replay(IdempotencyRecord.StoredResponse stored, HttpServletResponse response)
+            throws IOException {
+        response.setStatus(stored.status());
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.eTag() != null) {
+            response.setHeader(HttpHeaders.ETAG, stored.eTag());
+        }
+        response.setHeader(IDEMPOTENT_REPLAYED, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(),
+                new ErrorResponse(LocalDateTime.now(), status.value(), message, null));
+    }
+
+    private static String fingerprint(CachedBodyRequest request) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        String ifMatch = request.getHeader(HttpHeaders.IF_MATCH);
+        String line = request.getMethod() + ' ' + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "")
+                + '\n' + (ifMatch != null ? ifMatch : "") + '\n';
+        digest.update(line.getBytes(StandardCharsets.UTF_8));
+        digest.update(request.body);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Reads the body up front, for the fingerprint, and serves it again to the controller.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request) throws IOException {
+            super(request);
+            this.body = StreamUtils.copyToByteArray(request.getInputStream());
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                private ReadListener readListener;
+                private boolean inCallback;
+                private boolean allDataReadNotified;
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * The body is already in memory, so the listener is told right away that data is available,
+                 * and that all of it was read once it has drained the buffer, in that callback or later.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    if (this.readListener != null) {
+                        throw new IllegalStateException("Read listener already set");
+                    }
+                    this.readListener = readListener;
+                    try {
+                        if (!isFinished()) {
+                            inCallback = true;
+                            try {
+                                readListener.onDataAvailable();
+                            } finally {
+                                inCallback = false;
+                            }
+                        }
+                        notifyIfDrained();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() throws IOException {
+                    int read = in.read();
+                    notifyIfDrained();
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = in.read(b, off, len);
+                    notifyIfDrained();
+                    return read;
+                }
+
+                private void notifyIfDrained() throws IOException {
+                    if (readListener != null && !inCallback && !allDataReadNotified && isFinished()) {
+                        allDataReadNotified = true;
+                        readListener.onAllDataRead();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.rafael.rocha.spring_challenge.idempotency;
+
+/**
+ * @param fingerprint hash of the request first sent with the key
+ * @param response    what that request answered, or {@code null} while it is still running
+ */
+public record IdempotencyRecord(String fingerprint, StoredResponse response) {
+
+    /**
+     * The parts of a response replayed to retries.
+     */
+    public record StoredResponse(int status, String contentType, String eTag, byte[] body) {
+    }
+}
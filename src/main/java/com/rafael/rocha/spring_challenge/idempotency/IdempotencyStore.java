@@ -0,0 +1,26 @@
+package com.rafael.rocha.spring_challenge.idempotency;
+
+/**
+ * Remembers, per {@code Idempotency-Key}, which request it was first used with and the response that request
+ * got. Entries expire after the configured TTL.
+ */
+public interface IdempotencyStore {
+
+    /**
+     * Reserves {@code key} for a request with this fingerprint, unless it is already taken.
+     *
+     * @return {@code null} when the caller now holds the key and must run the request, otherwise what is
+     * stored for it (its response is {@code null} while the first request is still running)
+     */
+    IdempotencyRecord reserve(String key, String fingerprint);
+
+    /**
+     * Stores the response for a key reserved by the caller; retries with the key get it from now on.
+     */
+    void complete(String key, IdempotencyRecord record);
+
+    /**
+     * Frees a key reserved by the caller without a response, so the next retry runs the request again.
+     */
+    void release(String key);
+}
@@ -0,0 +1,48 @@
+package com.rafael.rocha.spring_challenge.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Keys of this instance only, in a bounded cache. Enough behind a load balancer with sticky clients;
+ * otherwise use {@link DatabaseIdempotencyStore}.
+ * <p>
+ * Only stored responses count towards {@code maximumSize}: a reservation weighs nothing, so it is never evicted
+ * while its request runs, which would let a retry run the request a second time.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private final Cache<String, IdempotencyRecord> records;
+
+    public InMemoryIdempotencyStore(long maximumSize, Duration ttl) {
+        this(maximumSize, ttl, ForkJoinPool.commonPool());
+    }
+
+    InMemoryIdempotencyStore(long maximumSize, Duration ttl, Executor executor) {
+        this.records = Caffeine.newBuilder()
+                .maximumWeight(maximumSize)
+                .weigher((String key, IdempotencyRecord record) -> record.response() == null ? 0 : 1)
+                .expireAfterWrite(ttl)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public IdempotencyRecord reserve(String key, String fingerprint) {
+        return records.asMap().putIfAbsent(key, new IdempotencyRecord(fingerprint, null));
+    }
+
+    @Override
+    public void complete(String key, IdempotencyRecord record) {
+        records.put(key, record);
+    }
+
+    @Override
+    public void release(String key) {
+        records.invalidate(key);
+    }
+}
@@ -0,0 +1,10 @@
+package com.rafael.rocha.spring_challenge.mapper;
+
+import com.rafael.rocha.spring_challenge.dto.ImportJobResponseDTO;
+import com.rafael.rocha.spring_challenge.model.entity.ImportJob;
+import org.mapstruct.Mapper;
+
+@Mapper(componentModel = "spring")
+public interface ImportJobMapper {
+    ImportJobResponseDTO toDTO(ImportJob importJob);
+}
@@ -12,5 +12,6 @@ import org.mapstruct.NullValuePropertyMappingStrategy;
 public interface UserMapper {
     User toEntity(UserRequestDTO userCreateDTO);
     UserResponseDTO toDTO(User user);
+    UserResponseDTO toDTO(UserRequestDTO userRequestDTO);
     void updateUserFromDTO(UserRequestDTO userRequestDTO, @MappingTarget User user);
 }
@@ -0,0 +1,50 @@
+package com.rafael.rocha.spring_challenge.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records per-request Hibernate work as distribution summaries tagged like {@code http.server.requests}:
+ * {@code hibernate.request.statements}, {@code hibernate.request.entity.loads} and {@code hibernate.request.flushes}.
+ * Work done after the response is handed off to another thread (streamed exports) is not attributed.
+ */
+@RequiredArgsConstructor
+public class HibernateRequestMetricsFilter extends OncePerRequestFilter {
+
+    private final HibernateRequestStatistics statistics;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        statistics.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            HibernateRequestStatistics.Counters counters = statistics.reset();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            Tags tags = Tags.of("method", request.getMethod(), "uri", pattern != null ? pattern.toString() : "UNKNOWN");
+            record("hibernate.request.statements", "SQL statements prepared per request", tags, counters.getStatements());
+            record("hibernate.request.entity.loads", "Entities loaded per request", tags, counters.getEntityLoads());
+            record("hibernate.request.flushes", "Session flushes per request", tags, counters.getFlushes());
+        }
+    }
+
+    private void record(String name, String description, Tags tags, long value) {
+        DistributionSummary.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry)
+                .record(value);
+    }
+}
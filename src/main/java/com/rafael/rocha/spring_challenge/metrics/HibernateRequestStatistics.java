@@ -0,0 +1,63 @@
+package com.rafael.rocha.spring_challenge.metrics;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+import java.util.Iterator;
+
+/**
+ * Counts the SQL statements, entity loads and flushes Hibernate performs on the current thread.
+ * Registered as the session factory's interceptor and statement inspector, so it sees every session;
+ * {@link HibernateRequestMetricsFilter} resets the counters when a request starts and records them when it ends.
+ * Hibernate's own statistics are global and cannot be attributed to a single request.
+ */
+public class HibernateRequestStatistics implements Interceptor, StatementInspector {
+
+    private static final ThreadLocal<Counters> COUNTERS = ThreadLocal.withInitial(Counters::new);
+
+    @Override
+    public String inspect(String sql) {
+        COUNTERS.get().statements++;
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        COUNTERS.get().entityLoads++;
+        return false;
+    }
+
+    @Override
+    public void postFlush(Iterator<Object> entities) {
+        COUNTERS.get().flushes++;
+    }
+
+    /**
+     * Returns the counts accumulated on this thread since the last call and starts again from zero.
+     */
+    public Counters reset() {
+        Counters counters = COUNTERS.get();
+        COUNTERS.set(new Counters());
+        return counters;
+    }
+
+    public static final class Counters {
+
+        private long statements;
+        private long entityLoads;
+        private long flushes;
+
+        public long getStatements() {
+            return statements;
+        }
+
+        public long getEntityLoads() {
+            return entityLoads;
+        }
+
+        public long getFlushes() {
+            return flushes;
+        }
+    }
+}
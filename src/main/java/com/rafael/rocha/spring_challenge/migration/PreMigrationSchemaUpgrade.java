@@ -0,0 +1,90 @@
+package com.rafael.rocha.spring_challenge.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * V4: brings a users table created before the migrations up to the one V1 creates. On such a database V1 leaves
+ * the existing table alone (CREATE TABLE IF NOT EXISTS), so it is still the one the original schema.sql made,
+ * without the version column and the filter indexes. MySQL cannot add a column or an index only when missing,
+ * hence the metadata lookups; on a table V1 created this finds everything in place and changes nothing.
+ */
+@Slf4j
+public class PreMigrationSchemaUpgrade implements JavaMigration {
+
+    private static final Map<String, String> INDEXES = new LinkedHashMap<>();
+
+    static {
+        INDEXES.put("idx_users_user_type_birth_date", "user_type, birth_date");
+        INDEXES.put("idx_users_birth_date", "birth_date");
+        INDEXES.put("idx_users_full_name", "full_name");
+    }
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("4");
+    }
+
+    @Override
+    public String getDescription() {
+        return "upgrade pre migration users";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        DatabaseMetaData metaData = connection.getMetaData();
+        String table = metaData.storesUpperCaseIdentifiers() ? "USERS" : "users";
+
+        try (Statement statement = connection.createStatement()) {
+            if (!names(metaData.getColumns(connection.getCatalog(), connection.getSchema(), table, null),
+                    "COLUMN_NAME").contains("version")) {
+                log.info("migrate() - adding the version column to users");
+                statement.execute("ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0");
+            }
+            Set<String> indexes = names(metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(), table,
+                    false, false), "INDEX_NAME");
+            for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+                if (!indexes.contains(index.getKey())) {
+                    log.info("migrate() - creating index[{}] on users", index.getKey());
+                    statement.execute("CREATE INDEX " + index.getKey() + " ON users (" + index.getValue() + ")");
+                }
+            }
+        }
+    }
+
+    private static Set<String> names(ResultSet resultSet, String column) throws SQLException {
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        try (resultSet) {
+            while (resultSet.next()) {
+                String name = resultSet.getString(column);
+                if (name != null) {
+                    names.add(name);
+                }
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rafael.rocha.spring_challenge.model.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyKey {
+
+    @Id
+    @Column(length = 255)
+    private String idempotencyKey;
+
+    /**
+     * SHA-256 of the request first sent with this key, hex encoded.
+     */
+    @Column(length = 64, nullable = false)
+    private String fingerprint;
+
+    /**
+     * The response is stored once the first request finishes; until then these are null.
+     */
+    private Integer status;
+
+    private String contentType;
+
+    private String entityTag;
+
+    @Column(length = 16777215)
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
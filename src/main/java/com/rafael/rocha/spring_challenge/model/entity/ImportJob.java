@@ -0,0 +1,54 @@
+package com.rafael.rocha.spring_challenge.model.entity;
+
+import com.rafael.rocha.spring_challenge.model.enums.ImportJobStatus;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "import_jobs")
+public class ImportJob {
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(nullable = false)
+    private String fileName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ImportJobStatus status;
+
+    @Column(nullable = false)
+    private int chunkSize;
+
+    /**
+     * Data rows covered by committed chunks; a resumed job skips this many rows.
+     */
+    @Column(nullable = false)
+    private long processedRows;
+
+    @Column(nullable = false)
+    private long importedRows;
+
+    @Column(nullable = false)
+    private long rejectedRows;
+
+    /**
+     * Length of the error file as of the last committed chunk, so a resume can drop anything written after it.
+     */
+    @Column(nullable = false)
+    private long errorFileBytes;
+
+    @Column(length = 1000)
+    private String message;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
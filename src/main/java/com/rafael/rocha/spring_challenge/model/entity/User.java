@@ -3,18 +3,27 @@ package com.rafael.rocha.spring_challenge.model.entity;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import lombok.Data;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.Date;
 
 import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.service.UserIndexListener;
 
 @Data
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_user_type_id", columnList = "user_type, id"),
+        @Index(name = "idx_users_user_type_birth_date", columnList = "user_type, birth_date"),
+        @Index(name = "idx_users_birth_date", columnList = "birth_date"),
+        @Index(name = "idx_users_full_name", columnList = "full_name")
+})
+@EntityListeners(UserIndexListener.class)
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -32,4 +41,13 @@ public class User {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private UserType userType;
+
+    /**
+     * Bumped on every update and checked in its WHERE clause, so a write based on a stale read fails
+     * instead of overwriting a newer one. Exposed to clients as the ETag.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
 }
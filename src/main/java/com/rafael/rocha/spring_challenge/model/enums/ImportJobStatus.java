@@ -0,0 +1,5 @@
+package com.rafael.rocha.spring_challenge.model.enums;
+
+public enum ImportJobStatus {
+    PENDING, RUNNING, COMPLETED, FAILED
+}
@@ -0,0 +1,37 @@
+package com.rafael.rocha.spring_challenge.reactive;
+
+import com.rafael.rocha.spring_challenge.config.BatchProperties;
+import com.rafael.rocha.spring_challenge.config.PaginationProperties;
+import com.rafael.rocha.spring_challenge.exceptions.handler.GlobalExceptionHandler;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Reactive variant of the user API: the same /api/users endpoints, DTOs, validation and error format, served by
+ * WebFlux on Netty over R2DBC. A request waiting on the database holds neither a thread nor a connection, so
+ * thousands of in-flight calls share the event loop and a small connection pool.
+ * <p>
+ * Selected with the {@code reactive} profile, which the {@code reactive} Maven profile sets up:
+ * {@code mvn spring-boot:run -Preactive}. Only the reactive packages, the mapper and the exception handler
+ * are scanned; the JPA side, its caches and in-memory indexes are not part of this application.
+ */
+@Profile("reactive")
+@SpringBootApplication(
+        scanBasePackageClasses = {ReactiveUserApplication.class, UserMapper.class, GlobalExceptionHandler.class},
+        exclude = {DataSourceAutoConfiguration.class, DataSourceTransactionManagerAutoConfiguration.class,
+                HibernateJpaAutoConfiguration.class})
+@EnableConfigurationProperties({PaginationProperties.class, BatchProperties.class})
+public class ReactiveUserApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveUserApplication.class)
+                .profiles("reactive")
+                .run(args);
+    }
+}
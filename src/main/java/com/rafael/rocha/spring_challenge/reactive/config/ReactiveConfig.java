@@ -0,0 +1,27 @@
+package com.rafael.rocha.spring_challenge.reactive.config;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.reactive.server.ReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+@Profile("reactive")
+@Configuration
+public class ReactiveConfig {
+
+    // Tomcat is on the classpath for the servlet application and Boot would prefer it; requests should be
+    // served by Netty's event loops instead of a worker pool
+    @Bean
+    public ReactiveWebServerFactory reactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // Boot only declares a DatabaseClient together with Spring Data R2DBC, which this variant does not use
+    @Bean
+    public DatabaseClient databaseClient(ConnectionFactory connectionFactory) {
+        return DatabaseClient.create(connectionFactory);
+    }
+}
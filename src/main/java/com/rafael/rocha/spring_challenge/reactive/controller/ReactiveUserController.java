@@ -0,0 +1,127 @@
+package com.rafael.rocha.spring_challenge.reactive.controller;
+
+import com.rafael.rocha.spring_challenge.controller.EntityTags;
+import com.rafael.rocha.spring_challenge.dto.ExportFormat;
+import com.rafael.rocha.spring_challenge.dto.UserBatchResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPageResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.reactive.service.ReactiveUserService;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The endpoints of {@code UserController} on WebFlux, with the same status codes, ETags and If-Match handling.
+ * A matching If-None-Match on a GET is answered with 304 by WebFlux from the ETag.
+ */
+@Profile("reactive")
+@RestController
+@RequestMapping("/api/users")
+public class ReactiveUserController {
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @GetMapping
+    public Mono<ResponseEntity<UserPageResponseDTO>> findAllUsers(UserFilterDTO filter,
+                                                                  @RequestParam(required = false) String cursor,
+                                                                  @RequestParam(required = false) Integer limit,
+                                                                  @RequestParam(required = false) String fields) {
+        return userService.findAllUsers(filter, cursor, limit, fields).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<Flux<byte[]>> exportUsers(@RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=users." + exportFormat.name().toLowerCase(Locale.ROOT))
+                .body(userService.exportUsers(exportFormat));
+    }
+
+    @GetMapping("/search")
+    public Mono<ResponseEntity<List<UserSearchResultDTO>>> searchUsers(@RequestParam String q,
+                                                                       @RequestParam(required = false) Integer limit) {
+        return userService.searchUsers(q, limit).map(ResponseEntity::ok);
+    }
+
+    @GetMapping("/by-email")
+    public Mono<ResponseEntity<UserResponseDTO>> getUserByEmail(@RequestParam String email) {
+        return userService.getUserByEmail(email)
+                .map(user -> ResponseEntity.ok().eTag(EntityTags.of(user.getVersion())).body(user));
+    }
+
+    /**
+     * Full representations carry the version as ETag; sparse fieldsets are not versioned.
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<UserResponseDTO>> getUserById(@PathVariable Long id,
+                                                             @RequestParam(required = false) String fields) {
+        return userService.getUserById(id, fields)
+                .map(user -> ResponseEntity.ok().eTag(EntityTags.of(user.getVersion())).body(user));
+    }
+
+    @PostMapping
+    public Mono<ResponseEntity<UserResponseDTO>> createUser(@Valid @RequestBody UserRequestDTO userRequestDTO) {
+        return userService.createUser(userRequestDTO)
+                .map(user -> ResponseEntity.status(HttpStatus.CREATED).eTag(EntityTags.of(user.getVersion())).body(user));
+    }
+
+    @PostMapping("/batch")
+    public Mono<ResponseEntity<UserBatchResponseDTO>> createUsers(@RequestBody List<UserRequestDTO> userRequestDTOs) {
+        return userService.createUsers(userRequestDTOs).map(response -> {
+            HttpStatus status = response.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+            return ResponseEntity.status(status).body(response);
+        });
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<UserResponseDTO>> updateUserById(@PathVariable Long id,
+                                                                @Valid @RequestBody UserRequestDTO userUpdateDTO,
+                                                                @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                                String ifMatch) {
+        return userService.updateUserById(id, userUpdateDTO, EntityTags.expectedVersion(ifMatch))
+                .map(user -> ResponseEntity.ok().eTag(EntityTags.of(user.getVersion())).body(user));
+    }
+
+    @PatchMapping(value = "/{id}", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/merge-patch+json"})
+    public Mono<ResponseEntity<Void>> patchUserById(@PathVariable Long id,
+                                                    @Valid @RequestBody UserPatchDTO userPatchDTO,
+                                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                    String ifMatch) {
+        return userService.patchUserById(id, userPatchDTO, EntityTags.expectedVersion(ifMatch))
+                .map(version -> ResponseEntity.noContent().eTag(EntityTags.of(version)).<Void>build())
+                .defaultIfEmpty(ResponseEntity.noContent().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> deleteUser(@PathVariable Long id) {
+        return userService.deleteUserById(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().body("Successfuly deleted user with ID: " + id)));
+    }
+}
@@ -0,0 +1,270 @@
+package com.rafael.rocha.spring_challenge.reactive.repository;
+
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserField;
+import com.rafael.rocha.spring_challenge.repository.UserWriteState;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * R2DBC access to the users table as plain SQL on {@link DatabaseClient}. The statements are the ones the JPA
+ * side issues: keyset pages served by the indexes of the migrations, projections that read only the requested
+ * columns, and single-statement updates and deletes guarded by id and version.
+ */
+@Profile("reactive")
+@Repository
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+
+    private static final Set<UserField> ALL_FIELDS = EnumSet.allOf(UserField.class);
+
+    // '!' rather than a backslash: a backslash literal is read differently by MySQL and H2
+    private static final char LIKE_ESCAPE = '!';
+
+    private final DatabaseClient databaseClient;
+
+    /**
+     * @param fields the columns to read, or {@code null} for the full row including the version
+     */
+    public Flux<UserResponseDTO> findPage(long afterId, UserFilterDTO filter, Set<UserField> fields, int limit) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder("SELECT ").append(columns(fields))
+                .append(" FROM users WHERE id > :afterId");
+        params.put("afterId", afterId);
+        if (filter != null) {
+            if (filter.getUserType() != null) {
+                sql.append(" AND user_type = :userType");
+                params.put("userType", filter.getUserType());
+            }
+            if (filter.getBornFrom() != null) {
+                sql.append(" AND birth_date >= :bornFrom");
+                params.put("bornFrom", filter.getBornFrom());
+            }
+            if (filter.getBornTo() != null) {
+                sql.append(" AND birth_date <= :bornTo");
+                params.put("bornTo", filter.getBornTo());
+            }
+            if (filter.getNamePrefix() != null && !filter.getNamePrefix().isBlank()) {
+                // Left-anchored and without lower(), so idx_users_full_name can serve it
+                sql.append(" AND full_name LIKE :namePrefix ESCAPE '").append(LIKE_ESCAPE).append('\'');
+                params.put("namePrefix", escapeLike(filter.getNamePrefix().trim()) + "%");
+            }
+        }
+        sql.append(" ORDER BY id LIMIT :limit");
+        params.put("limit", limit);
+
+        return bind(databaseClient.sql(sql.toString()), params)
+                .map(row -> toDTO(row, fields))
+                .all();
+    }
+
+    /**
+     * @param fields the columns to read, or {@code null} for the full row including the version
+     */
+    public Mono<UserResponseDTO> findById(long id, Set<UserField> fields) {
+        return databaseClient.sql("SELECT " + columns(fields) + " FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(row -> toDTO(row, fields))
+                .one();
+    }
+
+    public Mono<UserResponseDTO> findByEmail(String email) {
+        return databaseClient.sql("SELECT " + columns(null) + " FROM users WHERE email = :email")
+                .bind("email", email)
+                .map(row -> toDTO(row, null))
+                .one();
+    }
+
+    /**
+     * Full rows ordered by id, pulled from the driver as the subscriber asks for them.
+     */
+    public Flux<UserResponseDTO> findAllOrderById() {
+        return databaseClient.sql("SELECT " + columns(null) + " FROM users ORDER BY id")
+                .map(row -> toDTO(row, null))
+                .all();
+    }
+
+    /**
+     * Unranked substring match on name or email, ordered by id.
+     */
+    public Flux<UserSearchResultDTO> searchByFullNameOrEmail(String query, int limit) {
+        String escape = " ESCAPE '" + LIKE_ESCAPE + "'";
+        return databaseClient.sql("SELECT id, full_name, email FROM users WHERE full_name LIKE :pattern" + escape
+                        + " OR email LIKE :pattern" + escape + " ORDER BY id LIMIT :limit")
+                .bind("pattern", "%" + escapeLike(query) + "%")
+                .bind("limit", limit)
+                .map(row -> new UserSearchResultDTO(row.get("id", Long.class),
+                        row.get("full_name", String.class), row.get("email", String.class)))
+                .all();
+    }
+
+    public Flux<String> findExistingEmails(Collection<String> emails) {
+        return databaseClient.sql("SELECT email FROM users WHERE email IN (:emails)")
+                .bind("emails", emails)
+                .map(row -> row.get("email", String.class))
+                .all();
+    }
+
+    public Mono<UserWriteState> findWriteStateById(long id) {
+        return databaseClient.sql("SELECT email, version FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(row -> new UserWriteState(row.get("email", String.class), row.get("version", Long.class)))
+                .one();
+    }
+
+    /**
+     * Inserts the users, ids already assigned, with one multi-row {@code INSERT}.
+     */
+    public Mono<Long> insertAll(List<UserResponseDTO> users) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO users (id, full_name, email, phone, birth_date, user_type, version) VALUES ");
+        for (int i = 0; i < users.size(); i++) {
+            UserResponseDTO user = users.get(i);
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("(:id").append(i).append(", :fullName").append(i).append(", :email").append(i)
+                    .append(", :phone").append(i).append(", :birthDate").append(i).append(", :userType").append(i)
+                    .append(", 0)");
+            params.put("id" + i, user.getId());
+            params.put("fullName" + i, user.getFullName());
+            params.put("email" + i, user.getEmail());
+            params.put("phone" + i, user.getPhone());
+            params.put("birthDate" + i, user.getBirthDate());
+            params.put("userType" + i, user.getUserType());
+        }
+        return bind(databaseClient.sql(sql.toString()), params)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Sets the given columns and bumps the version in one {@code UPDATE}; with an {@code expectedVersion}
+     * only a row still at that version is updated.
+     *
+     * @return the number of rows updated, 0 when the user is missing or at another version
+     */
+    public Mono<Long> updateById(long id, Map<UserField, Object> changes, Long expectedVersion) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String assignments = changes.entrySet().stream()
+                .map(change -> {
+                    params.put(change.getKey().getAttribute(), change.getValue());
+                    return column(change.getKey()) + " = :" + change.getKey().getAttribute();
+                })
+                .collect(Collectors.joining(", "));
+        StringBuilder sql = new StringBuilder("UPDATE users SET ").append(assignments)
+                .append(", version = version + 1 WHERE id = :id");
+        params.put("id", id);
+        if (expectedVersion != null) {
+            sql.append(" AND version = :version");
+            params.put("version", expectedVersion);
+        }
+        return bind(databaseClient.sql(sql.toString()), params)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    public Mono<Long> deleteById(long id) {
+        return databaseClient.sql("DELETE FROM users WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec,
+                                                          Map<String, Object> params) {
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), toColumnValue(param.getValue()));
+        }
+        return spec;
+    }
+
+    private static Object toColumnValue(Object value) {
+        if (value instanceof Date date) {
+            // Same day the JDBC driver would store for this Date on the JPA side
+            return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        if (value instanceof UserType userType) {
+            return userType.name();
+        }
+        return value;
+    }
+
+    private static String columns(Set<UserField> fields) {
+        if (fields == null) {
+            return ALL_FIELDS.stream().map(ReactiveUserRepository::column).collect(Collectors.joining(", "))
+                    + ", version";
+        }
+        return fields.stream().map(ReactiveUserRepository::column).collect(Collectors.joining(", "));
+    }
+
+    private static String column(UserField field) {
+        return switch (field) {
+            case ID -> "id";
+            case FULL_NAME -> "full_name";
+            case EMAIL -> "email";
+            case PHONE -> "phone";
+            case BIRTH_DATE -> "birth_date";
+            case USER_TYPE -> "user_type";
+        };
+    }
+
+    private static UserResponseDTO toDTO(Readable row, Set<UserField> fields) {
+        UserResponseDTO dto = new UserResponseDTO();
+        for (UserField field : fields != null ? fields : ALL_FIELDS) {
+            switch (field) {
+                case ID -> dto.setId(row.get(column(field), Long.class));
+                case FULL_NAME -> dto.setFullName(row.get(column(field), String.class));
+                case EMAIL -> dto.setEmail(row.get(column(field), String.class));
+                case PHONE -> dto.setPhone(row.get(column(field), String.class));
+                case BIRTH_DATE -> {
+                    // Local midnight, the instant the JPA side reads for a DATE column
+                    LocalDate birthDate = row.get(column(field), LocalDate.class);
+                    dto.setBirthDate(birthDate != null
+                            ? Date.from(birthDate.atStartOfDay(ZoneId.systemDefault()).toInstant())
+                            : null);
+                }
+                case USER_TYPE -> {
+                    String userType = row.get(column(field), String.class);
+                    dto.setUserType(userType != null ? UserType.valueOf(userType) : null);
+                }
+            }
+        }
+        if (fields == null) {
+            dto.setVersion(row.get("version", Long.class));
+        }
+        return dto;
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.rafael.rocha.spring_challenge.reactive.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hands out user ids from the users_seq table the way Hibernate's pooled-lo optimizer does on the JPA side:
+ * read next_val, advance it by {@value #BLOCK_SIZE} and use the values in between. Both variants can therefore
+ * write to the same table, and only one id in {@value #BLOCK_SIZE} costs a round trip. The row is advanced with
+ * a compare-and-set {@code UPDATE} rather than {@code SELECT ... FOR UPDATE}, so no transaction is needed.
+ */
+@Profile("reactive")
+@Component
+@RequiredArgsConstructor
+public class UserIdAllocator {
+
+    static final int BLOCK_SIZE = 50;
+    private static final int MAX_RESERVE_ATTEMPTS = 10;
+
+    private final DatabaseClient databaseClient;
+    private final AtomicReference<Block> block = new AtomicReference<>(new Block(0, 0));
+
+    public Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            long id = block.get().take();
+            if (id >= 0) {
+                return Mono.just(id);
+            }
+            // Concurrent refills each reserve their own block; ids left in a replaced block are skipped
+            return reserveBlock().flatMap(reserved -> {
+                block.set(reserved);
+                return nextId();
+            });
+        });
+    }
+
+    public Flux<Long> nextIds(int count) {
+        return Flux.range(0, count).concatMap(i -> nextId());
+    }
+
+    private Mono<Block> reserveBlock() {
+        return Mono.defer(() -> databaseClient.sql("SELECT next_val FROM users_seq")
+                        .map(row -> row.get("next_val", Long.class))
+                        .one()
+                        .switchIfEmpty(Mono.error(() -> new IllegalStateException("users_seq has no row")))
+                        .flatMap(low -> databaseClient.sql("UPDATE users_seq SET next_val = :high WHERE next_val = :low")
+                                .bind("high", low + BLOCK_SIZE)
+                                .bind("low", low)
+                                .fetch()
+                                .rowsUpdated()
+                                .filter(updated -> updated == 1)
+                                .map(updated -> new Block(low, low + BLOCK_SIZE))))
+                .repeatWhenEmpty(MAX_RESERVE_ATTEMPTS, attempts -> attempts)
+                .switchIfEmpty(Mono.error(() -> new IllegalStateException("Could not reserve a block of user ids")));
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long limit;
+
+        private Block(long next, long limit) {
+            this.next = new AtomicLong(next);
+            this.limit = limit;
+        }
+
+        /**
+         * @return the next id of this block, or -1 when it is used up
+         */
+        long take() {
+            long id = next.getAndIncrement();
+            return id < limit ? id : -1;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.rafael.rocha.spring_challenge.reactive.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.rafael.rocha.spring_challenge.config.BatchProperties;
+import com.rafael.rocha.spring_challenge.config.PaginationProperties;
+import com.rafael.rocha.spring_challenge.dto.ExportFormat;
+import com.rafael.rocha.spring_challenge.dto.UserBatchItemResultDTO;
+import com.rafael.rocha.spring_challenge.dto.UserBatchResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPageResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.exceptions.BusinessException;
+import com.rafael.rocha.spring_challenge.exceptions.ConflictException;
+import com.rafael.rocha.spring_challenge.exceptions.PreconditionFailedException;
+import com.rafael.rocha.spring_challenge.exceptions.ResourceNotFoundException;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import com.rafael.rocha.spring_challenge.reactive.repository.ReactiveUserRepository;
+import com.rafael.rocha.spring_challenge.reactive.repository.UserIdAllocator;
+import com.rafael.rocha.spring_challenge.repository.UserField;
+import com.rafael.rocha.spring_challenge.service.CursorCodec;
+import com.rafael.rocha.spring_challenge.service.UserEmailIndex;
+import com.rafael.rocha.spring_challenge.service.UserExportService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The rules of {@code UserService} on R2DBC. There are no in-memory id filter, email index or cache here:
+ * lookups go to the database, and a taken email is caught by the unique index and reported as a conflict.
+ * Searches always use the unranked LIKE scan.
+ */
+@Slf4j
+@Profile("reactive")
+@Service
+@RequiredArgsConstructor
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final UserIdAllocator userIdAllocator;
+    private final UserMapper userMapper;
+    private final PaginationProperties paginationProperties;
+    private final BatchProperties batchProperties;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+
+    public Mono<UserPageResponseDTO> findAllUsers(UserFilterDTO filter, String cursor, Integer limit, String fields) {
+        return Mono.defer(() -> {
+            log.info("getAllUsers() - INIT - fetching users page after cursor[{}], limit[{}], filter[{}], fields[{}]",
+                    cursor, limit, filter, fields);
+
+            long afterId = CursorCodec.decode(cursor);
+            int pageSize = resolvePageSize(limit);
+            Set<UserField> selectedFields = UserField.parse(fields);
+            validateFilter(filter);
+
+            // Read one extra row so we know whether a next page exists without a second query
+            return userRepository.findPage(afterId, filter, selectedFields, pageSize + 1)
+                    .collectList()
+                    .map(userDTOs -> {
+                        boolean hasNext = userDTOs.size() > pageSize;
+                        List<UserResponseDTO> page = hasNext ? userDTOs.subList(0, pageSize) : userDTOs;
+                        String nextCursor = hasNext ? CursorCodec.encode(page.get(page.size() - 1).getId()) : null;
+
+                        log.info("getAllUsers() - END - retrieved users[{}], hasNext[{}]", page.size(), hasNext);
+                        return new UserPageResponseDTO(page, page.size(), nextCursor);
+                    });
+        });
+    }
+
+    public Mono<UserResponseDTO> getUserByEmail(String email) {
+        return Mono.defer(() -> {
+            log.info("getUserByEmail() - INIT - fetching user with email[{}]", email);
+
+            return userRepository.findByEmail(email.trim())
+                    .switchIfEmpty(Mono.error(() -> new ResourceNotFoundException("User not found with email: " + email)))
+                    .doOnNext(user -> log.info("getUserByEmail() - END - successfully retrieved user with id[{}]",
+                            user.getId()));
+        });
+    }
+
+    public Mono<List<UserSearchResultDTO>> searchUsers(String query, Integer limit) {
+        return Mono.defer(() -> {
+            log.info("searchUsers() - INIT - searching users for query[{}], limit[{}]", query, limit);
+
+            if (query == null || query.isBlank()) {
+                throw new BusinessException("Search query must not be blank");
+            }
+            return userRepository.searchByFullNameOrEmail(query.trim(), resolvePageSize(limit))
+                    .collectList()
+                    .doOnNext(results -> log.info("searchUsers() - END - found users[{}]", results.size()));
+        });
+    }
+
+    public Mono<UserResponseDTO> getUserById(Long id, String fields) {
+        return Mono.defer(() -> {
+            Set<UserField> selectedFields = UserField.parse(fields);
+            log.info("getUserById() - INIT - fetching fields[{}] of user with id[{}]", fields, id);
+
+            return userRepository.findById(id, selectedFields)
+                    .switchIfEmpty(Mono.error(() -> {
+                        log.error("getUserById() - ERROR - user not found with id[{}]", id);
+                        return notFound(id);
+                    }))
+                    .doOnNext(user -> log.info("getUserById() - END - successfully retrieved user with id[{}]", id));
+        });
+    }
+
+    /**
+     * Ids come from {@link UserIdAllocator}, so the insert is a single statement with no read-back.
+     */
+    public Mono<UserResponseDTO> createUser(UserRequestDTO userRequestDTO) {
+        return Mono.defer(() -> {
+            log.info("createUser() - INIT - creating user with email[{}]", userRequestDTO.getEmail());
+
+            return userIdAllocator.nextId()
+                    .map(id -> newUser(id, userRequestDTO))
+                    .flatMap(user -> userRepository.insertAll(List.of(user))
+                            .onErrorMap(DuplicateKeyException.class, e -> emailTaken(userRequestDTO.getEmail()))
+                            .thenReturn(user))
+                    .doOnNext(user -> log.info("createUser() - END - successfully created user with id[{}], email[{}]",
+                            user.getId(), user.getEmail()));
+        });
+    }
+
+    @Transactional
+    public Mono<UserBatchResponseDTO> createUsers(List<UserRequestDTO> userRequestDTOs) {
+        return Mono.defer(() -> {
+            log.info("createUsers() - INIT - creating batch of users[{}]", userRequestDTOs.size());
+
+            if (userRequestDTOs.isEmpty()) {
+                throw new BusinessException("Batch must contain at least one user");
+            }
+            if (userRequestDTOs.size() > batchProperties.getMaxSize()) {
+                throw new BusinessException("Batch size exceeds the maximum of " + batchProperties.getMaxSize()
+                        + " users");
+            }
+
+            UserBatchItemResultDTO[] results = new UserBatchItemResultDTO[userRequestDTOs.size()];
+            Map<String, Integer> candidates = new LinkedHashMap<>();
+
+            for (int i = 0; i < userRequestDTOs.size(); i++) {
+                UserRequestDTO userRequestDTO = userRequestDTOs.get(i);
+                Map<String, String> errors = validate(userRequestDTO);
+                if (!errors.isEmpty()) {
+                    results[i] = new UserBatchItemResultDTO(i, UserBatchItemResultDTO.Status.INVALID,
+                            null, "Validation error", errors);
+                } else if (candidates.putIfAbsent(UserEmailIndex.normalize(userRequestDTO.getEmail()), i) != null) {
+                    results[i] = new UserBatchItemResultDTO(i, UserBatchItemResultDTO.Status.DUPLICATE_EMAIL,
+                            null, "Email is repeated in this batch: " + userRequestDTO.getEmail(), null);
+                }
+            }
+
+            Mono<Set<String>> existingEmails = candidates.isEmpty()
+                    ? Mono.just(Set.of())
+                    : userRepository.findExistingEmails(candidates.values().stream()
+                                    .map(i -> userRequestDTOs.get(i).getEmail())
+                                    .collect(Collectors.toList()))
+                            .map(UserEmailIndex::normalize)
+                            .collect(Collectors.toSet());
+
+            return existingEmails.flatMap(existing -> {
+                List<Integer> savedIndexes = new ArrayList<>(candidates.size());
+                candidates.forEach((email, i) -> {
+                    if (existing.contains(email)) {
+                        results[i] = new UserBatchItemResultDTO(i, UserBatchItemResultDTO.Status.DUPLICATE_EMAIL,
+                                null, "Email already registered: " + userRequestDTOs.get(i).getEmail(), null);
+                    } else {
+                        savedIndexes.add(i);
+                    }
+                });
+                if (savedIndexes.isEmpty()) {
+                    return Mono.just(savedIndexes);
+                }
+                return userIdAllocator.nextIds(savedIndexes.size())
+                        .index()
+                        .map(id -> {
+                            int i = savedIndexes.get(id.getT1().intValue());
+                            UserResponseDTO user = newUser(id.getT2(), userRequestDTOs.get(i));
+                            results[i] = new UserBatchItemResultDTO(i, UserBatchItemResultDTO.Status.CREATED,
+                                    user, null, null);
+                            return user;
+                        })
+                        .collectList()
+                        .flatMap(userRepository::insertAll)
+                        .thenReturn(savedIndexes);
+            }).map(savedIndexes -> {
+                int created = savedIndexes.size();
+                int failed = results.length - created;
+                log.info("createUsers() - END - created users[{}], failed[{}]", created, failed);
+                return new UserBatchResponseDTO(created, failed, Arrays.asList(results));
+            });
+        });
+    }
+
+    /**
+     * Replaces the user's fields with a single {@code UPDATE}, guarded by {@code expectedVersion} (the
+     * client's If-Match) when given. The response carries the new version only when it is known without
+     * reading the row back.
+     */
+    public Mono<UserResponseDTO> updateUserById(Long id, UserRequestDTO userRequestDTO, Long expectedVersion) {
+        return Mono.defer(() -> {
+            log.info("updateUser() - INIT - updating user with id[{}]", id);
+
+            Map<UserField, Object> changes = new EnumMap<>(UserField.class);
+            changes.put(UserField.FULL_NAME, userRequestDTO.getFullName());
+            changes.put(UserField.EMAIL, userRequestDTO.getEmail());
+            changes.put(UserField.PHONE, userRequestDTO.getPhone());
+            changes.put(UserField.BIRTH_DATE, userRequestDTO.getBirthDate());
+            changes.put(UserField.USER_TYPE, userRequestDTO.getUserType());
+
+            return applyChanges(id, changes, expectedVersion).then(Mono.fromSupplier(() -> {
+                UserResponseDTO responseDTO = userMapper.toDTO(userRequestDTO);
+                responseDTO.setId(id);
+                responseDTO.setVersion(expectedVersion != null ? expectedVersion + 1 : null);
+
+                log.info("updateUser() - END - successfully updated user with id[{}], version[{}]",
+                        id, responseDTO.getVersion());
+                return responseDTO;
+            }));
+        });
+    }
+
+    /**
+     * Writes only the fields present in the patch, in a single {@code UPDATE}.
+     *
+     * @return the new version, or empty when it is not known without reading the row back
+     */
+    public Mono<Long> patchUserById(Long id, UserPatchDTO userPatchDTO, Long expectedVersion) {
+        return Mono.defer(() -> {
+            log.info("patchUser() - INIT - patching user with id[{}]", id);
+
+            Map<UserField, Object> changes = new EnumMap<>(UserField.class);
+            putIfPresent(changes, UserField.FULL_NAME, userPatchDTO.getFullName());
+            putIfPresent(changes, UserField.EMAIL, userPatchDTO.getEmail());
+            putIfPresent(changes, UserField.PHONE, userPatchDTO.getPhone());
+            putIfPresent(changes, UserField.BIRTH_DATE, userPatchDTO.getBirthDate());
+            putIfPresent(changes, UserField.USER_TYPE, userPatchDTO.getUserType());
+            if (changes.isEmpty()) {
+                throw new BusinessException("Patch must contain at least one field");
+            }
+
+            return applyChanges(id, changes, expectedVersion).then(Mono.fromSupplier(() -> {
+                log.info("patchUser() - END - successfully patched fields{} of user with id[{}]", changes.keySet(), id);
+                return expectedVersion != null ? expectedVersion + 1 : null;
+            }));
+        });
+    }
+
+    public Mono<Void> deleteUserById(Long id) {
+        return Mono.defer(() -> {
+            log.info("Attempting to delete user with id: {}", id);
+
+            return userRepository.deleteById(id)
+                    .flatMap(deleted -> deleted == 0 ? Mono.<Void>error(notFound(id)) : Mono.<Void>empty())
+                    .doOnSuccess(done -> log.info("Successfully deleted user with id: {}", id));
+        });
+    }
+
+    /**
+     * The whole table, one encoded row per element, in the formats of {@code UserExportService}. Rows are read
+     * as the response is written, so the export never sits in memory.
+     */
+    public Flux<byte[]> exportUsers(ExportFormat format) {
+        return Flux.defer(() -> {
+            log.info("exportUsers() - INIT - exporting users as [{}]", format);
+
+            Flux<byte[]> rows = switch (format) {
+                case NDJSON -> ndjsonRows();
+                case CSV -> csvRows();
+            };
+            return rows.doOnComplete(() -> log.info("exportUsers() - END - exported users as [{}]", format));
+        });
+    }
+
+    private Flux<byte[]> ndjsonRows() {
+        ObjectWriter rowWriter = objectMapper.writerFor(UserResponseDTO.class);
+        return userRepository.findAllOrderById().map(user -> {
+            try {
+                return (rowWriter.writeValueAsString(user) + '\n').getBytes(StandardCharsets.UTF_8);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not write user " + user.getId(), e);
+            }
+        });
+    }
+
+    private Flux<byte[]> csvRows() {
+        DateFormat dateFormat = (DateFormat) objectMapper.getSerializationConfig().getDateFormat().clone();
+        Flux<byte[]> rows = userRepository.findAllOrderById().map(user -> (user.getId()
+                + "," + UserExportService.csv(user.getFullName())
+                + "," + UserExportService.csv(user.getEmail())
+                + "," + UserExportService.csv(user.getPhone())
+                + "," + (user.getBirthDate() == null ? "" : dateFormat.format(user.getBirthDate()))
+                + "," + (user.getUserType() == null ? "" : user.getUserType().name())
+                + '\n').getBytes(StandardCharsets.UTF_8));
+        return Flux.just((UserExportService.CSV_HEADER + '\n').getBytes(StandardCharsets.UTF_8)).concatWith(rows);
+    }
+
+    /**
+     * One statement in the common case; the row is read only when nothing was updated, to tell a missing user
+     * (404) from a stale If-Match (412) or a concurrent write (409).
+     */
+    private Mono<Void> applyChanges(Long id, Map<UserField, Object> changes, Long expectedVersion) {
+        return userRepository.updateById(id, changes, expectedVersion)
+                .onErrorMap(DuplicateKeyException.class, e -> emailTaken((String) changes.get(UserField.EMAIL)))
+                .flatMap(updated -> updated > 0 ? Mono.<Void>empty() : userRepository.findWriteStateById(id)
+                        .switchIfEmpty(Mono.error(() -> {
+                            log.error("updateUser() - ERROR - user not found with id[{}]", id);
+                            return notFound(id);
+                        }))
+                        .flatMap(state -> {
+                            if (expectedVersion != null && expectedVersion != state.version()) {
+                                log.warn("updateUser() - ERROR - user with id[{}] is at version[{}], expected[{}]",
+                                        id, state.version(), expectedVersion);
+                                return Mono.error(new PreconditionFailedException("User with id " + id
+                                        + " has been modified"));
+                            }
+                            return Mono.error(new OptimisticLockingFailureException("User with id " + id
+                                    + " was modified concurrently"));
+                        }));
+    }
+
+    private UserResponseDTO newUser(Long id, UserRequestDTO userRequestDTO) {
+        UserResponseDTO user = userMapper.toDTO(userRequestDTO);
+        user.setId(id);
+        user.setVersion(0L);
+        return user;
+    }
+
+    private static ConflictException emailTaken(String email) {
+        log.warn("emailTaken() - ERROR - email[{}] already registered", email);
+        return new ConflictException("Email already registered: " + email);
+    }
+
+    private static void putIfPresent(Map<UserField, Object> changes, UserField field, Object value) {
+        if (value != null) {
+            changes.put(field, value);
+        }
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("User not found with id: " + id);
+    }
+
+    private Map<String, String> validate(UserRequestDTO userRequestDTO) {
+        if (userRequestDTO == null) {
+            return Map.of("user", "User is required");
+        }
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<UserRequestDTO> violation : validator.validate(userRequestDTO)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private static void validateFilter(UserFilterDTO filter) {
+        if (filter != null && filter.getBornFrom() != null && filter.getBornTo() != null
+                && filter.getBornFrom().after(filter.getBornTo())) {
+            throw new BusinessException("bornFrom must not be after bornTo");
+        }
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return paginationProperties.getDefaultSize();
+        }
+        if (limit < 1) {
+            throw new BusinessException("Page limit must be greater than zero");
+        }
+        return Math.min(limit, paginationProperties.getMaxSize());
+    }
+}
@@ -0,0 +1,43 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.model.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    /**
+     * A plain {@code INSERT}, so a key that is already taken fails on the primary key instead of being merged.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, fingerprint, expires_at) "
+            + "VALUES (:key, :fingerprint, :expiresAt)", nativeQuery = true)
+    int insert(@Param("key") String key, @Param("fingerprint") String fingerprint,
+               @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.status = :status, k.contentType = :contentType, k.entityTag = :entityTag, "
+            + "k.body = :body, k.expiresAt = :expiresAt WHERE k.idempotencyKey = :key")
+    int complete(@Param("key") String key, @Param("status") int status, @Param("contentType") String contentType,
+                 @Param("entityTag") String entityTag, @Param("body") byte[] body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.idempotencyKey = :key AND k.expiresAt < :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.expiresAt < :now")
+    int deleteAllExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,15 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.model.entity.ImportJob;
+import com.rafael.rocha.spring_challenge.model.enums.ImportJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+
+    List<ImportJob> findByStatusIn(Collection<ImportJobStatus> statuses);
+}
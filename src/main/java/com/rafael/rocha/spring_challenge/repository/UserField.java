@@ -0,0 +1,49 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.exceptions.BusinessException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Columns a client can ask for through {@code ?fields=}. Names match the {@code User} attributes
+ * and the JSON properties of {@code UserResponseDTO}.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum UserField {
+    ID("id"),
+    FULL_NAME("fullName"),
+    EMAIL("email"),
+    PHONE("phone"),
+    BIRTH_DATE("birthDate"),
+    USER_TYPE("userType");
+
+    private final String attribute;
+
+    /**
+     * Parses a comma separated field list. The id is always selected.
+     *
+     * @return the requested fields, or {@code null} when every field is wanted
+     */
+    public static Set<UserField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<UserField> selected = EnumSet.of(ID);
+        for (String name : fields.split(",")) {
+            String attribute = name.trim();
+            if (attribute.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(values())
+                    .filter(field -> field.attribute.equals(attribute))
+                    .findFirst()
+                    .orElseThrow(() -> new BusinessException("Unknown field: " + attribute)));
+        }
+        return selected;
+    }
+}
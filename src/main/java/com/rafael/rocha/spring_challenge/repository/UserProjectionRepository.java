@@ -0,0 +1,22 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads only the requested columns straight into DTOs; no entity is loaded into the persistence context.
+ */
+public interface UserProjectionRepository {
+
+    /**
+     * First {@code limit} rows matching {@code spec}, ordered by id.
+     */
+    List<UserResponseDTO> findProjected(Specification<User> spec, int limit, Set<UserField> fields);
+
+    Optional<UserResponseDTO> findProjectedById(long id, Set<UserField> fields);
+}
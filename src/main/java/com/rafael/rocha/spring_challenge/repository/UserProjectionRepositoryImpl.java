@@ -0,0 +1,83 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+class UserProjectionRepositoryImpl implements UserProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<UserResponseDTO> findProjected(Specification<User> spec, int limit, Set<UserField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = select(query, fields);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(root.get(UserField.ID.getAttribute())));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList()
+                .stream()
+                .map(tuple -> toDTO(tuple, fields))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<UserResponseDTO> findProjectedById(long id, Set<UserField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = select(query, fields);
+        query.where(cb.equal(root.get(UserField.ID.getAttribute()), id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(1)
+                .getResultList()
+                .stream()
+                .findFirst()
+                .map(tuple -> toDTO(tuple, fields));
+    }
+
+    private static Root<User> select(CriteriaQuery<Tuple> query, Set<UserField> fields) {
+        Root<User> root = query.from(User.class);
+        query.multiselect(fields.stream()
+                .map(field -> root.get(field.getAttribute()).alias(field.getAttribute()))
+                .collect(Collectors.toList()));
+        return root;
+    }
+
+    private static UserResponseDTO toDTO(Tuple tuple, Set<UserField> fields) {
+        UserResponseDTO dto = new UserResponseDTO();
+        for (UserField field : fields) {
+            Object value = tuple.get(field.getAttribute());
+            switch (field) {
+                case ID -> dto.setId((Long) value);
+                case FULL_NAME -> dto.setFullName((String) value);
+                case EMAIL -> dto.setEmail((String) value);
+                case PHONE -> dto.setPhone((String) value);
+                case BIRTH_DATE -> dto.setBirthDate((Date) value);
+                case USER_TYPE -> dto.setUserType((UserType) value);
+            }
+        }
+        return dto;
+    }
+}
@@ -1,9 +1,68 @@
 package com.rafael.rocha.spring_challenge.repository;
 
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
 import com.rafael.rocha.spring_challenge.model.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserProjectionRepository, UserWriteRepository {
+
+    int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * Keyset page: {@code WHERE id > :id ORDER BY id LIMIT :limit}, served by the primary key index.
+     */
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    Optional<User> findByEmail(String email);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    /**
+     * Forward-only scan of the whole table for exports. Rows are pulled from the driver
+     * {@value #EXPORT_FETCH_SIZE} at a time and loaded read-only, so Hibernate keeps no snapshots.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT u FROM User u ORDER BY u.id")
+    Stream<User> streamAllOrderById();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT u.id FROM User u")
+    Stream<Long> streamAllIds();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT u.email FROM User u")
+    Stream<String> streamAllEmails();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE))
+    @Query("SELECT new com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO(u.id, u.fullName, u.email) FROM User u")
+    Stream<UserSearchResultDTO> streamAllSearchFields();
+
+    /**
+     * Unranked substring scan used only while the in-memory search index is still loading.
+     */
+    @Query("SELECT new com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO(u.id, u.fullName, u.email) FROM User u "
+            + "WHERE u.fullName LIKE %?#{escape([0])}% ESCAPE ?#{escapeCharacter()} "
+            + "OR u.email LIKE %?#{escape([0])}% ESCAPE ?#{escapeCharacter()} ORDER BY u.id")
+    List<UserSearchResultDTO> searchByFullNameOrEmail(String query, Limit limit);
 }
@@ -0,0 +1,60 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Predicates for filtered keyset listing. Each one is written so it can be served by an index from
+ * the migrations: equality on user_type (in id order, like the pages), ranges on birth_date and a
+ * left-anchored LIKE on full_name.
+ */
+public final class UserSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> idGreaterThan(long id) {
+        return (root, query, cb) -> cb.greaterThan(root.get(UserField.ID.getAttribute()), id);
+    }
+
+    public static Specification<User> matching(UserFilterDTO filter) {
+        Specification<User> spec = Specification.where(null);
+        if (filter == null) {
+            return spec;
+        }
+        if (filter.getUserType() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.equal(root.get(UserField.USER_TYPE.getAttribute()), filter.getUserType()));
+        }
+        if (filter.getBornFrom() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.greaterThanOrEqualTo(root.get(UserField.BIRTH_DATE.getAttribute()), filter.getBornFrom()));
+        }
+        if (filter.getBornTo() != null) {
+            spec = spec.and((root, query, cb) ->
+                    cb.lessThanOrEqualTo(root.get(UserField.BIRTH_DATE.getAttribute()), filter.getBornTo()));
+        }
+        if (filter.getNamePrefix() != null && !filter.getNamePrefix().isBlank()) {
+            // No lower() on the column: that would rule out the index. Case-insensitivity comes from the collation.
+            String pattern = escapeLike(filter.getNamePrefix().trim()) + "%";
+            spec = spec.and((root, query, cb) ->
+                    cb.like(root.get(UserField.FULL_NAME.getAttribute()), pattern, LIKE_ESCAPE));
+        }
+        return spec;
+    }
+
+    private static String escapeLike(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
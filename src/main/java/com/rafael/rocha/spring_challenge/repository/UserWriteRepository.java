@@ -0,0 +1,31 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Writes issued as one targeted statement, without loading the entity first. They bypass the persistence
+ * context and JPA callbacks, so callers keep the in-memory indexes in sync themselves.
+ */
+public interface UserWriteRepository {
+
+    /**
+     * {@code UPDATE users SET <changed columns>, version = version + 1 WHERE id = ?}, optionally also
+     * requiring the given version and/or email so a stale caller updates nothing.
+     *
+     * @return the number of rows updated, 0 or 1
+     */
+    int updateById(long id, Map<UserField, Object> changes, Long expectedVersion, String expectedEmail);
+
+    /**
+     * {@code DELETE FROM users WHERE id = ? AND email = ?}.
+     *
+     * @return the number of rows deleted, 0 or 1
+     */
+    int deleteByIdAndEmail(long id, String email);
+
+    /**
+     * The two columns a single-statement write may need to guard on, read by primary key.
+     */
+    Optional<UserWriteState> findWriteStateById(long id);
+}
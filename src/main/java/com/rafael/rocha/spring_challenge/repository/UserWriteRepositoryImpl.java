@@ -0,0 +1,74 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class UserWriteRepositoryImpl implements UserWriteRepository {
+
+    private static final String VERSION = "version";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int updateById(long id, Map<UserField, Object> changes, Long expectedVersion, String expectedEmail) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<User> update = cb.createCriteriaUpdate(User.class);
+        Root<User> root = update.from(User.class);
+        changes.forEach((field, value) -> update.set(field.getAttribute(), value));
+        Path<Long> version = root.get(VERSION);
+        update.set(version, cb.sum(version, 1L));
+
+        List<Predicate> predicates = new ArrayList<>(3);
+        predicates.add(cb.equal(root.get(UserField.ID.getAttribute()), id));
+        if (expectedVersion != null) {
+            predicates.add(cb.equal(version, expectedVersion));
+        }
+        if (expectedEmail != null) {
+            predicates.add(cb.equal(root.get(UserField.EMAIL.getAttribute()), expectedEmail));
+        }
+        update.where(predicates.toArray(Predicate[]::new));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public int deleteByIdAndEmail(long id, String email) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<User> delete = cb.createCriteriaDelete(User.class);
+        Root<User> root = delete.from(User.class);
+        delete.where(cb.equal(root.get(UserField.ID.getAttribute()), id),
+                cb.equal(root.get(UserField.EMAIL.getAttribute()), email));
+
+        return entityManager.createQuery(delete).executeUpdate();
+    }
+
+    @Override
+    public Optional<UserWriteState> findWriteStateById(long id) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserWriteState> query = cb.createQuery(UserWriteState.class);
+        Root<User> root = query.from(User.class);
+        query.select(cb.construct(UserWriteState.class,
+                        root.get(UserField.EMAIL.getAttribute()), root.get(VERSION)))
+                .where(cb.equal(root.get(UserField.ID.getAttribute()), id));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(1)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+}
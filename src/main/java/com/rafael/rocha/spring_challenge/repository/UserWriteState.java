@@ -0,0 +1,4 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+public record UserWriteState(String email, long version) {
+}
@@ -0,0 +1,122 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.config.ChangeFeedProperties;
+import com.rafael.rocha.spring_challenge.dto.UserChangeEventDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserField;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The most recent user changes, in commit order, in a fixed-size ring. Each change is captured when it is
+ * written and numbered when its transaction commits, so a rolled back write is never seen and sequence
+ * numbers follow commit order. Once the ring is full the oldest change is overwritten, and a reader whose
+ * position has been overwritten has to resync from a full read.
+ * <p>
+ * Numbering starts from the boot time in milliseconds times 1000, so positions from before a restart are
+ * always older than the ring and get a resync instead of a wrong replay.
+ */
+@Component
+public class UserChangeFeed {
+
+    private final UserMapper userMapper;
+    private final UserChangeEventDTO[] ring;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private final long firstSequence;
+    private long lastSequence;
+
+    public UserChangeFeed(UserMapper userMapper, ChangeFeedProperties changeFeedProperties) {
+        this.userMapper = userMapper;
+        this.ring = new UserChangeEventDTO[changeFeedProperties.getCapacity()];
+        this.firstSequence = System.currentTimeMillis() * 1000 + 1;
+        this.lastSequence = firstSequence - 1;
+    }
+
+    /**
+     * Changes read from this feed, or a signal that the requested position is no longer held.
+     */
+    public record Slice(boolean resyncRequired, List<UserChangeEventDTO> events) {
+    }
+
+    public synchronized long latestSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * @return up to {@code limit} changes numbered after {@code after}, oldest first; a resync when changes
+     * after it have already been overwritten or {@code after} was not handed out by this feed
+     */
+    public synchronized Slice readAfter(long after, int limit) {
+        long oldest = Math.max(firstSequence, lastSequence - ring.length + 1);
+        if (after < oldest - 1 || after > lastSequence) {
+            return new Slice(true, List.of());
+        }
+        int count = (int) Math.min(limit, lastSequence - after);
+        List<UserChangeEventDTO> events = new ArrayList<>(count);
+        for (long sequence = after + 1; sequence <= after + count; sequence++) {
+            events.add(ring[slot(sequence)]);
+        }
+        return new Slice(false, events);
+    }
+
+    /**
+     * Runs after every change is appended, on the committing thread; it should only hand off work.
+     */
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    void created(User user) {
+        publish(UserChangeEventDTO.Type.CREATED, user.getId(), user.getVersion(), userMapper.toDTO(user));
+    }
+
+    void updated(User user) {
+        publish(UserChangeEventDTO.Type.UPDATED, user.getId(), user.getVersion(), userMapper.toDTO(user));
+    }
+
+    void updated(long id, Map<UserField, Object> changes, Long version) {
+        UserResponseDTO user = new UserResponseDTO();
+        user.setId(id);
+        changes.forEach((field, value) -> {
+            switch (field) {
+                case ID -> { }
+                case FULL_NAME -> user.setFullName((String) value);
+                case EMAIL -> user.setEmail((String) value);
+                case PHONE -> user.setPhone((String) value);
+                case BIRTH_DATE -> user.setBirthDate((Date) value);
+                case USER_TYPE -> user.setUserType((UserType) value);
+            }
+        });
+        publish(UserChangeEventDTO.Type.UPDATED, id, version, user);
+    }
+
+    void deleted(long id) {
+        publish(UserChangeEventDTO.Type.DELETED, id, null, null);
+    }
+
+    private void publish(UserChangeEventDTO.Type type, long id, Long version, UserResponseDTO user) {
+        UserChangeEventDTO event = new UserChangeEventDTO(0, type, id, version, user, null);
+        UserIndexListener.afterCommit(() -> append(event));
+    }
+
+    private void append(UserChangeEventDTO event) {
+        synchronized (this) {
+            event.setSequence(++lastSequence);
+            event.setCommittedAt(new Date());
+            ring[slot(lastSequence)] = event;
+        }
+        listeners.forEach(Runnable::run);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % ring.length);
+    }
+}
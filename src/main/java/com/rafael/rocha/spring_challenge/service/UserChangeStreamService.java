@@ -0,0 +1,211 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.config.ChangeFeedProperties;
+import com.rafael.rocha.spring_challenge.dto.UserChangeEventDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Streams {@link UserChangeFeed} to subscribers as Server-Sent Events. Every event carries its sequence as
+ * the SSE id, so a reconnecting client resumes through {@code Last-Event-ID}. A subscriber whose position is
+ * no longer in the feed gets a single {@code resync} event with the current sequence, and the stream ends.
+ * <p>
+ * Each subscriber is written to by at most one of {@code sender-threads} threads at a time, so a client that
+ * stops reading only holds up its own stream and one thread. Subscribers due while every thread is busy wait in
+ * line, and once the line is full they are dropped rather than given more threads. Its backlog is bounded by the feed itself: once its position falls out of the ring
+ * it is told to resync. A write blocked for longer than {@code send-timeout} drops the subscriber at the next
+ * heartbeat. Committing threads only mark subscribers as due, and marks made while a sender is busy with the
+ * subscriber are merged, so a burst of writes costs one pass per subscriber.
+ */
+@Slf4j
+@Service
+public class UserChangeStreamService {
+
+    private static final String CHANGE_EVENT = "user-change";
+    private static final String RESYNC_EVENT = "resync";
+    private static final int DISPATCH_BATCH_SIZE = 500;
+
+    private final UserChangeFeed userChangeFeed;
+    private final long sendTimeoutNanos;
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService heartbeats =
+            Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("user-change-heartbeat-"));
+    private final ExecutorService senders;
+
+    public UserChangeStreamService(UserChangeFeed userChangeFeed, ChangeFeedProperties changeFeedProperties) {
+        this.userChangeFeed = userChangeFeed;
+        this.sendTimeoutNanos = changeFeedProperties.getSendTimeout().toNanos();
+        ThreadPoolExecutor senderPool = new ThreadPoolExecutor(changeFeedProperties.getSenderThreads(),
+                changeFeedProperties.getSenderThreads(), 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(changeFeedProperties.getSenderQueueCapacity()),
+                new CustomizableThreadFactory("user-change-stream-"));
+        senderPool.allowCoreThreadTimeOut(true);
+        this.senders = senderPool;
+        long heartbeatMillis = changeFeedProperties.getHeartbeatInterval().toMillis();
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        userChangeFeed.addListener(() -> subscriptions.forEach(this::schedule));
+    }
+
+    /**
+     * @param after the last sequence the client has seen, or {@code null} to receive only new changes
+     */
+    public SseEmitter subscribe(Long after) {
+        long position = after != null ? after : userChangeFeed.latestSequence();
+        log.info("subscribe() - INIT - streaming user changes after sequence[{}]", position);
+
+        Subscription subscription = new Subscription(newEmitter(), position);
+        subscription.emitter.onCompletion(() -> subscriptions.remove(subscription));
+        subscription.emitter.onTimeout(() -> subscriptions.remove(subscription));
+        subscription.emitter.onError(error -> subscriptions.remove(subscription));
+        subscriptions.add(subscription);
+        schedule(subscription);
+
+        log.info("subscribe() - END - subscribers[{}]", subscriptions.size());
+        return subscription.emitter;
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    private void schedule(Subscription subscription) {
+        subscription.due.set(true);
+        if (subscription.sending.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> send(subscription));
+            } catch (RejectedExecutionException e) {
+                log.warn("schedule() - ERROR - no sender free, dropping subscriber at sequence[{}]",
+                        subscription.position);
+                subscription.dropped = true;
+                close(subscription);
+            }
+        }
+    }
+
+    /**
+     * Runs until the subscriber has nothing due; a mark made after the last check starts another round.
+     */
+    private void send(Subscription subscription) {
+        do {
+            while (subscription.due.getAndSet(false) && !subscription.dropped) {
+                drain(subscription);
+            }
+            subscription.sending.set(false);
+        } while (subscription.due.get() && !subscription.dropped && subscription.sending.compareAndSet(false, true));
+        if (subscription.dropped) {
+            subscription.emitter.complete();
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        try {
+            if (subscription.heartbeatDue) {
+                subscription.heartbeatDue = false;
+                write(subscription, SseEmitter.event().comment("keep-alive"));
+            }
+            while (!subscription.dropped) {
+                UserChangeFeed.Slice slice = userChangeFeed.readAfter(subscription.position, DISPATCH_BATCH_SIZE);
+                if (slice.resyncRequired()) {
+                    log.warn("drain() - subscriber at sequence[{}] is behind the change feed, resync required",
+                            subscription.position);
+                    write(subscription, SseEmitter.event()
+                            .name(RESYNC_EVENT)
+                            .data(Map.of("latestSequence", userChangeFeed.latestSequence()),
+                                    MediaType.APPLICATION_JSON));
+                    close(subscription);
+                    return;
+                }
+                if (slice.events().isEmpty()) {
+                    return;
+                }
+                for (UserChangeEventDTO event : slice.events()) {
+                    write(subscription, SseEmitter.event()
+                            .id(Long.toString(event.getSequence()))
+                            .name(CHANGE_EVENT)
+                            .data(event, MediaType.APPLICATION_JSON));
+                    subscription.position = event.getSequence();
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; the container reports it through onError/onCompletion as well
+            log.debug("drain() - dropping subscriber at sequence[{}]: {}", subscription.position, e.getMessage());
+            subscriptions.remove(subscription);
+        }
+    }
+
+    private static void write(Subscription subscription, SseEmitter.SseEventBuilder event) throws IOException {
+        subscription.sendStartedAt = System.nanoTime();
+        try {
+            subscription.emitter.send(event);
+        } finally {
+            subscription.sendStartedAt = 0;
+        }
+    }
+
+    /**
+     * Runs on its own thread, so it never waits on a client: busy subscribers are only checked for a write
+     * that has been blocked too long, idle ones get a keep-alive through their sender.
+     */
+    private void heartbeat() {
+        long now = System.nanoTime();
+        for (Subscription subscription : subscriptions) {
+            long sendStartedAt = subscription.sendStartedAt;
+            if (sendStartedAt != 0 && now - sendStartedAt > sendTimeoutNanos) {
+                log.warn("heartbeat() - dropping subscriber at sequence[{}], write blocked for over [{}]ms",
+                        subscription.position, TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+                // The blocked sender completes the emitter once the container gives up on the write
+                subscription.dropped = true;
+                subscriptions.remove(subscription);
+                continue;
+            }
+            subscription.heartbeatDue = true;
+            schedule(subscription);
+        }
+    }
+
+    private void close(Subscription subscription) {
+        subscriptions.remove(subscription);
+        subscription.emitter.complete();
+    }
+
+    private static final class Subscription {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean due = new AtomicBoolean();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        // Only written by the sender that holds the subscription
+        private volatile long position;
+        private volatile long sendStartedAt;
+        private volatile boolean heartbeatDue;
+        private volatile boolean dropped;
+
+        private Subscription(SseEmitter emitter, long position) {
+            this.emitter = emitter;
+            this.position = position;
+        }
+    }
+}
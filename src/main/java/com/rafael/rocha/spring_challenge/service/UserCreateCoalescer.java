@@ -0,0 +1,212 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.config.WriteCoalescingProperties;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.exceptions.ConflictException;
+import com.rafael.rocha.spring_challenge.exceptions.ServiceOverloadedException;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Group commit for single-user creates: concurrent calls are queued and a single writer inserts whatever has
+ * gathered, up to {@code max-batch-size} or for at most {@code max-wait}, as one JDBC-batched transaction. Each
+ * caller blocks until its own user is written, or for at most {@code timeout}, and gets its own result or error.
+ * <p>
+ * Emails repeated within a batch, or already in the email index, are rejected before writing. If the transaction
+ * still fails, e.g. on an email registered meanwhile by another instance, the batch is written again one user per
+ * transaction, so only the offending users fail.
+ */
+@Slf4j
+@Component
+public class UserCreateCoalescer {
+
+    private record PendingCreate(UserRequestDTO request, CompletableFuture<UserResponseDTO> result) {
+    }
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final UserEmailIndex userEmailIndex;
+    private final TransactionTemplate transactionTemplate;
+    private final WriteCoalescingProperties writeCoalescingProperties;
+    private final BlockingQueue<PendingCreate> queue;
+    private final DistributionSummary batchSizes;
+    private volatile boolean enabled;
+    private ExecutorService writer;
+
+    public UserCreateCoalescer(UserRepository userRepository, UserMapper userMapper, UserEmailIndex userEmailIndex,
+                               TransactionTemplate transactionTemplate,
+                               WriteCoalescingProperties writeCoalescingProperties,
+                               ObjectProvider<MeterRegistry> meterRegistry) {
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.userEmailIndex = userEmailIndex;
+        this.transactionTemplate = transactionTemplate;
+        this.writeCoalescingProperties = writeCoalescingProperties;
+        this.queue = new ArrayBlockingQueue<>(writeCoalescingProperties.getQueueCapacity());
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        this.batchSizes = registry == null ? null : DistributionSummary.builder("techmanage.user.create.batch")
+                .description("Users written per coalesced create transaction")
+                .publishPercentileHistogram()
+                .register(registry);
+        setEnabled(writeCoalescingProperties.isEnabled());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts the writer the first time; creates already queued are still written after disabling.
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        if (enabled && writer == null) {
+            writer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("user-create-coalescer-"));
+            writer.execute(this::writeLoop);
+        }
+        this.enabled = enabled;
+    }
+
+    /**
+     * Queues the create and waits for the batch it joins to be written.
+     */
+    public UserResponseDTO create(UserRequestDTO userRequestDTO) {
+        PendingCreate pending = new PendingCreate(userRequestDTO, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            log.warn("create() - ERROR - create queue full, rejecting email[{}]", userRequestDTO.getEmail());
+            throw new ServiceOverloadedException("Too many users being created, retry shortly", 1);
+        }
+        try {
+            return pending.result()
+                    .orTimeout(writeCoalescingProperties.getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                    .join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) {
+                log.warn("create() - ERROR - create of email[{}] not written in time", userRequestDTO.getEmail());
+                throw new ServiceOverloadedException("Timed out waiting for the user to be written, retry shortly", 1);
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        enabled = false;
+        if (writer != null) {
+            writer.shutdownNow();
+        }
+        List<PendingCreate> abandoned = new ArrayList<>();
+        queue.drainTo(abandoned);
+        abandoned.forEach(pending -> pending.result().completeExceptionally(
+                new ServiceOverloadedException("Shutting down, retry on another instance", 1)));
+    }
+
+    private void writeLoop() {
+        int maxBatchSize = writeCoalescingProperties.getMaxBatchSize();
+        long maxWaitNanos = writeCoalescingProperties.getMaxWait().toNanos();
+        List<PendingCreate> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + maxWaitNanos;
+                queue.drainTo(batch, maxBatchSize - batch.size());
+                while (batch.size() < maxBatchSize) {
+                    PendingCreate next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                }
+                // Anything thrown fails this batch only; the writer goes on with the next one
+                try {
+                    write(batch);
+                } catch (Throwable e) {
+                    log.error("writeLoop() - ERROR - batch of users[{}] not written", batch.size(), e);
+                    batch.forEach(pending -> pending.result().completeExceptionally(e));
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            batch.forEach(pending -> pending.result().completeExceptionally(
+                    new ServiceOverloadedException("Shutting down, retry on another instance", 1)));
+        }
+    }
+
+    private void write(List<PendingCreate> batch) {
+        log.debug("write() - INIT - writing batch of users[{}]", batch.size());
+        if (batchSizes != null) {
+            batchSizes.record(batch.size());
+        }
+
+        Map<String, PendingCreate> accepted = new LinkedHashMap<>();
+        for (PendingCreate pending : batch) {
+            if (pending.result().isDone()) {
+                // Timed out while queued; its caller already got a 503
+                continue;
+            }
+            String email = pending.request().getEmail();
+            boolean registered = userEmailIndex.contains(email);
+            if (registered || accepted.putIfAbsent(UserEmailIndex.normalize(email), pending) != null) {
+                pending.result().completeExceptionally(new ConflictException("Email already registered: " + email));
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<PendingCreate> writes = new ArrayList<>(accepted.values());
+        try {
+            List<UserResponseDTO> created = transactionTemplate.execute(status -> {
+                List<User> users = new ArrayList<>(writes.size());
+                writes.forEach(pending -> users.add(userMapper.toEntity(pending.request())));
+                return userRepository.saveAll(users).stream()
+                        .map(userMapper::toDTO)
+                        .toList();
+            });
+            for (int i = 0; i < writes.size(); i++) {
+                writes.get(i).result().complete(created.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.warn("write() - ERROR - batch of users[{}] failed, writing one by one: {}", writes.size(),
+                    e.getMessage());
+            writes.forEach(this::writeAlone);
+        }
+    }
+
+    private void writeAlone(PendingCreate pending) {
+        try {
+            pending.result().complete(transactionTemplate.execute(status ->
+                    userMapper.toDTO(userRepository.save(userMapper.toEntity(pending.request())))));
+        } catch (RuntimeException e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.datasource.DataSourceRouting;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory set of registered emails, normalized the way the unique index compares them
+ * (trimmed, case-insensitive). Each email carries a reference count so that a losing concurrent
+ * insert rolling back cannot erase the email of the one that committed.
+ * <p>
+ * Until the startup scan finishes the index knows nothing and callers fall back to the database. The scan
+ * runs while requests are already being served, so it builds a map of its own; emails written meanwhile
+ * keep the count of the changes seen since startup rather than the snapshot's, which may or may not
+ * include them. A create or delete that commits during the scan is therefore counted exactly once; at
+ * worst an email is missed, and the unique index still rejects it.
+ * <p>
+ * Only this JVM's writes reach the index, so it is a hint for rejecting duplicates early; lookups still
+ * go to the database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserEmailIndex {
+
+    private final UserRepository userRepository;
+    private volatile ConcurrentHashMap<String, Integer> emails = new ConcurrentHashMap<>();
+    private final Set<String> changedDuringScan = ConcurrentHashMap.newKeySet();
+    private volatile boolean ready;
+
+    public static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return {@code true} only when the email is known to be registered
+     */
+    public boolean contains(String email) {
+        return ready && emails.containsKey(normalize(email));
+    }
+
+    public void add(String email) {
+        change(normalize(email), 1);
+    }
+
+    public void remove(String email) {
+        change(normalize(email), -1);
+    }
+
+    private void change(String email, int delta) {
+        if (!ready) {
+            synchronized (this) {
+                if (!ready) {
+                    changedDuringScan.add(email);
+                    apply(emails, email, delta);
+                    return;
+                }
+            }
+        }
+        apply(emails, email, delta);
+    }
+
+    private static void apply(ConcurrentHashMap<String, Integer> counts, String email, int delta) {
+        if (delta > 0) {
+            counts.merge(email, delta, Integer::sum);
+        } else {
+            counts.computeIfPresent(email, (key, count) -> count > -delta ? count + delta : null);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        log.info("rebuild() - INIT - loading user emails");
+
+        ConcurrentHashMap<String, Integer> scanned = new ConcurrentHashMap<>();
+        DataSourceRouting.onPrimary(() -> {
+            try (Stream<String> registered = userRepository.streamAllEmails()) {
+                registered.forEach(email -> apply(scanned, normalize(email), 1));
+            }
+        });
+        synchronized (this) {
+            for (String email : changedDuringScan) {
+                Integer count = emails.get(email);
+                if (count == null) {
+                    scanned.remove(email);
+                } else {
+                    scanned.put(email, count);
+                }
+            }
+            changedDuringScan.clear();
+            emails = scanned;
+            ready = true;
+        }
+
+        log.info("rebuild() - END - loaded user emails[{}]", scanned.size());
+    }
+}
@@ -0,0 +1,135 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rafael.rocha.spring_challenge.dto.ExportFormat;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.DateFormat;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the whole users table to an output stream row by row. Nothing is collected in memory:
+ * each entity is mapped, written and detached before the next one is read.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UserExportService {
+
+    public static final String CSV_HEADER = "id,fullName,email,phone,birthDate,userType";
+
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportUsers(ExportFormat format, OutputStream out) {
+        log.info("exportUsers() - INIT - exporting users as [{}]", format);
+
+        long rows;
+        try (Stream<User> users = userRepository.streamAllOrderById()) {
+            rows = switch (format) {
+                case NDJSON -> writeNdjson(users.iterator(), out);
+                case CSV -> writeCsv(users.iterator(), out);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("exportUsers() - END - exported users[{}]", rows);
+        return rows;
+    }
+
+    private long writeNdjson(Iterator<User> users, OutputStream out) throws IOException {
+        ObjectWriter rowWriter = objectMapper.writerFor(UserResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long rows = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            generator.setRootValueSeparator(null);
+            while (users.hasNext()) {
+                rowWriter.writeValue(generator, next(users));
+                generator.writeRaw('\n');
+                rows = afterRow(rows, generator);
+            }
+        }
+        return rows;
+    }
+
+    private long writeCsv(Iterator<User> users, OutputStream out) throws IOException {
+        DateFormat dateFormat = (DateFormat) objectMapper.getSerializationConfig().getDateFormat().clone();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        long rows = 0;
+        while (users.hasNext()) {
+            UserResponseDTO dto = next(users);
+            writer.write(String.valueOf(dto.getId()));
+            writer.write(',');
+            writer.write(csv(dto.getFullName()));
+            writer.write(',');
+            writer.write(csv(dto.getEmail()));
+            writer.write(',');
+            writer.write(csv(dto.getPhone()));
+            writer.write(',');
+            writer.write(dto.getBirthDate() == null ? "" : dateFormat.format(dto.getBirthDate()));
+            writer.write(',');
+            writer.write(dto.getUserType() == null ? "" : dto.getUserType().name());
+            writer.write('\n');
+            rows = afterRow(rows, writer);
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private UserResponseDTO next(Iterator<User> users) {
+        User user = users.next();
+        UserResponseDTO dto = userMapper.toDTO(user);
+        entityManager.detach(user);
+        return dto;
+    }
+
+    /**
+     * Pushes the first row out immediately, then once per driver fetch so the client sees
+     * steady progress without flushing the servlet stream on every row.
+     */
+    private static long afterRow(long rows, Flushable flushable) throws IOException {
+        long written = rows + 1;
+        if (written == 1 || written % UserRepository.EXPORT_FETCH_SIZE == 0) {
+            flushable.flush();
+        }
+        return written;
+    }
+
+    public static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,115 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.datasource.DataSourceRouting;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Exact bitmap of existing user ids, one bit per id, split into lazily created pages of
+ * {@value #PAGE_SIZE} ids. Ids come from a sequence, so they are dense and the whole table costs
+ * about 1 MB per 8 million users. Lookups are lock-free.
+ * <p>
+ * The bitmap may claim an id exists when it does not (the caller then asks the database), but never
+ * the opposite for the ids it has seen: ids are added as soon as they are inserted and only removed once
+ * a delete commits. Until the startup scan finishes every id is reported as possibly present.
+ * <p>
+ * Only this JVM's own writes reach the bitmap; other instances, the reactive application and manual SQL
+ * insert behind its back. Ids above the highest one the scan found are left to the database. Below it, other
+ * instances may still be filling blocks of ids reserved before the scan, however long ago, so a miss is only
+ * a hint: it is confirmed with a primary key lookup on the primary, and ids found that way are added.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserIdFilter {
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final long OFFSET_MASK = PAGE_SIZE - 1;
+
+    private final UserRepository userRepository;
+    private final ConcurrentHashMap<Long, AtomicLongArray> pages = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+    private volatile long scannedUpTo;
+
+    public boolean mightContain(Long id) {
+        if (!ready) {
+            return true;
+        }
+        if (id == null || id < 1) {
+            return false;
+        }
+        if (id > scannedUpTo || isSet(id)) {
+            return true;
+        }
+        boolean exists = DataSourceRouting.onPrimary(() -> userRepository.existsById(id));
+        if (exists) {
+            log.debug("mightContain() - id[{}] inserted behind the filter's back, adding it", id);
+            add(id);
+        }
+        return exists;
+    }
+
+    public void add(long id) {
+        if (id < 1) {
+            return;
+        }
+        AtomicLongArray page = pages.computeIfAbsent(id >>> PAGE_BITS, key -> new AtomicLongArray(PAGE_SIZE / 64));
+        int offset = (int) (id & OFFSET_MASK);
+        long bit = 1L << offset;
+        page.getAndAccumulate(offset >>> 6, bit, (word, mask) -> word | mask);
+    }
+
+    public void remove(long id) {
+        AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        if (page == null) {
+            return;
+        }
+        int offset = (int) (id & OFFSET_MASK);
+        long bit = 1L << offset;
+        page.getAndAccumulate(offset >>> 6, bit, (word, mask) -> word & ~mask);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        log.info("rebuild() - INIT - loading user ids");
+
+        LongAdder count = new LongAdder();
+        LongAccumulator highest = new LongAccumulator(Math::max, 0);
+        DataSourceRouting.onPrimary(() -> {
+            try (Stream<Long> ids = userRepository.streamAllIds()) {
+                ids.forEach(id -> {
+                    add(id);
+                    count.increment();
+                    highest.accumulate(id);
+                });
+            }
+        });
+        scannedUpTo = highest.get();
+        ready = true;
+
+        log.info("rebuild() - END - loaded user ids[{}] into pages[{}], ids above[{}] left to the database",
+                count, pages.size(), scannedUpTo);
+    }
+
+    private boolean isSet(long id) {
+        AtomicLongArray page = pages.get(id >>> PAGE_BITS);
+        if (page == null) {
+            return false;
+        }
+        int offset = (int) (id & OFFSET_MASK);
+        return (page.get(offset >>> 6) & (1L << offset)) != 0;
+    }
+}
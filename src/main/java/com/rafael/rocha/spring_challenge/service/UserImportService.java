@@ -0,0 +1,408 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.rocha.spring_challenge.config.ImportProperties;
+import com.rafael.rocha.spring_challenge.dto.ImportJobResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.exceptions.BusinessException;
+import com.rafael.rocha.spring_challenge.exceptions.ResourceNotFoundException;
+import com.rafael.rocha.spring_challenge.mapper.ImportJobMapper;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import com.rafael.rocha.spring_challenge.model.entity.ImportJob;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.model.enums.ImportJobStatus;
+import com.rafael.rocha.spring_challenge.repository.ImportJobRepository;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * CSV import pipeline: the upload is spooled to disk, then read one record at a time, validated in
+ * parallel per chunk, and committed chunk by chunk together with the job progress. A failed job
+ * restarts after its last committed chunk.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    static final List<String> COLUMNS = List.of("fullName", "email", "phone", "birthDate", "userType");
+
+    private final ImportJobRepository importJobRepository;
+    private final UserRepository userRepository;
+    private final UserMapper userMapper;
+    private final ImportJobMapper importJobMapper;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ImportProperties importProperties;
+    private final ExecutorService jobExecutor;
+    private final ExecutorService validationExecutor;
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    public UserImportService(ImportJobRepository importJobRepository,
+                             UserRepository userRepository,
+                             UserMapper userMapper,
+                             ImportJobMapper importJobMapper,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             ImportProperties importProperties) {
+        this.importJobRepository = importJobRepository;
+        this.userRepository = userRepository;
+        this.userMapper = userMapper;
+        this.importJobMapper = importJobMapper;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.importProperties = importProperties;
+        this.jobExecutor = Executors.newFixedThreadPool(importProperties.getConcurrentJobs(),
+                new CustomizableThreadFactory("user-import-"));
+        this.validationExecutor = Executors.newFixedThreadPool(importProperties.getValidationThreads(),
+                new CustomizableThreadFactory("user-import-validation-"));
+    }
+
+    public ImportJobResponseDTO startImport(MultipartFile file, Integer chunkSize) {
+        log.info("startImport() - INIT - importing file[{}], size[{}]", file.getOriginalFilename(), file.getSize());
+
+        if (file.isEmpty()) {
+            throw new BusinessException("Import file is empty");
+        }
+
+        ImportJob job = new ImportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setFileName(file.getOriginalFilename() == null ? "upload.csv" : file.getOriginalFilename());
+        job.setStatus(ImportJobStatus.PENDING);
+        job.setChunkSize(resolveChunkSize(chunkSize));
+        job.setCreatedAt(LocalDateTime.now());
+        job.setUpdatedAt(job.getCreatedAt());
+
+        try {
+            Files.createDirectories(importProperties.getWorkDir());
+            file.transferTo(uploadPath(job.getId()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store import file", e);
+        }
+
+        ImportJob savedJob = importJobRepository.save(job);
+        submit(savedJob.getId());
+
+        log.info("startImport() - END - created import job with id[{}]", savedJob.getId());
+        return importJobMapper.toDTO(savedJob);
+    }
+
+    public ImportJobResponseDTO getImportJob(String id) {
+        return importJobMapper.toDTO(findJob(id));
+    }
+
+    public ImportJobResponseDTO resumeImport(String id) {
+        log.info("resumeImport() - INIT - resuming import job with id[{}]", id);
+
+        ImportJob job = findJob(id);
+        if (job.getStatus() != ImportJobStatus.FAILED || activeJobs.contains(id)) {
+            throw new BusinessException("Only failed import jobs can be resumed, job is " + job.getStatus());
+        }
+        if (!Files.exists(uploadPath(id))) {
+            throw new BusinessException("Upload for import job " + id + " is no longer available");
+        }
+
+        job.setStatus(ImportJobStatus.PENDING);
+        job.setUpdatedAt(LocalDateTime.now());
+        ImportJob savedJob = importJobRepository.save(job);
+        submit(id);
+
+        log.info("resumeImport() - END - import job with id[{}] resumes after row[{}]", id, job.getProcessedRows());
+        return importJobMapper.toDTO(savedJob);
+    }
+
+    public Path getErrorFile(String id) {
+        findJob(id);
+        Path errors = errorPath(id);
+        if (!Files.exists(errors)) {
+            throw new ResourceNotFoundException("No error file for import job with id: " + id);
+        }
+        return errors;
+    }
+
+    /**
+     * Jobs that were running when the application stopped are marked failed, so they can be resumed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        for (ImportJob job : importJobRepository.findByStatusIn(List.of(ImportJobStatus.PENDING, ImportJobStatus.RUNNING))) {
+            log.warn("failInterruptedJobs() - import job with id[{}] was interrupted after row[{}]",
+                    job.getId(), job.getProcessedRows());
+            job.setStatus(ImportJobStatus.FAILED);
+            job.setMessage("Interrupted by a restart, resume to continue");
+            job.setUpdatedAt(LocalDateTime.now());
+            importJobRepository.save(job);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        validationExecutor.shutdownNow();
+    }
+
+    private void submit(String id) {
+        if (activeJobs.add(id)) {
+            jobExecutor.execute(() -> run(id));
+        }
+    }
+
+    private void run(String id) {
+        try {
+            ImportJob job = findJob(id);
+            job.setStatus(ImportJobStatus.RUNNING);
+            job.setMessage(null);
+            job.setUpdatedAt(LocalDateTime.now());
+            job = importJobRepository.save(job);
+            log.info("runImport() - INIT - processing import job with id[{}] from row[{}]", id, job.getProcessedRows());
+
+            process(job);
+
+            job.setStatus(ImportJobStatus.COMPLETED);
+            job.setUpdatedAt(LocalDateTime.now());
+            importJobRepository.save(job);
+            Files.deleteIfExists(uploadPath(id));
+            log.info("runImport() - END - import job with id[{}] imported[{}], rejected[{}]",
+                    id, job.getImportedRows(), job.getRejectedRows());
+        } catch (Exception e) {
+            log.error("runImport() - ERROR - import job with id[{}] failed", id, e);
+            importJobRepository.findById(id).ifPresent(job -> {
+                job.setStatus(ImportJobStatus.FAILED);
+                job.setMessage(abbreviate(e.getMessage()));
+                job.setUpdatedAt(LocalDateTime.now());
+                importJobRepository.save(job);
+            });
+        } finally {
+            activeJobs.remove(id);
+        }
+    }
+
+    private void process(ImportJob job) throws IOException {
+        try (CsvRecordReader csv = new CsvRecordReader(Files.newBufferedReader(uploadPath(job.getId()), StandardCharsets.UTF_8));
+             FileChannel errorFile = FileChannel.open(errorPath(job.getId()), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            // Anything past the last committed chunk belongs to a chunk that will be redone
+            errorFile.truncate(job.getErrorFileBytes());
+            errorFile.position(job.getErrorFileBytes());
+
+            List<String> header = csv.next();
+            if (header == null) {
+                throw new BusinessException("Import file is empty");
+            }
+            Map<String, Integer> columns = indexColumns(header);
+
+            StringBuilder errorLines = new StringBuilder();
+            if (job.getErrorFileBytes() == 0) {
+                errorLines.append("row,").append(toCsvLine(header)).append(",errors\n");
+            }
+
+            long row = 0;
+            while (row < job.getProcessedRows() && csv.next() != null) {
+                row++;
+            }
+
+            List<ImportRow> chunk = new ArrayList<>(job.getChunkSize());
+            List<String> record;
+            while ((record = csv.next()) != null) {
+                chunk.add(new ImportRow(++row, record));
+                if (chunk.size() == job.getChunkSize()) {
+                    commitChunk(job, chunk, columns, errorFile, errorLines);
+                    chunk.clear();
+                }
+            }
+            commitChunk(job, chunk, columns, errorFile, errorLines);
+        }
+    }
+
+    private void commitChunk(ImportJob job, List<ImportRow> chunk, Map<String, Integer> columns,
+                             FileChannel errorFile, StringBuilder errorLines) throws IOException {
+        List<RowResult> results = validateInParallel(chunk, columns);
+
+        Map<String, RowResult> candidates = new LinkedHashMap<>();
+        for (RowResult result : results) {
+            if (result.isValid() && candidates.putIfAbsent(UserEmailIndex.normalize(result.user().getEmail()), result) != null) {
+                result.errors().put("email", "Email is repeated in this file");
+            }
+        }
+        if (!candidates.isEmpty()) {
+            List<String> emails = candidates.values().stream().map(r -> r.user().getEmail()).collect(Collectors.toList());
+            for (String existing : userRepository.findExistingEmails(emails)) {
+                candidates.get(UserEmailIndex.normalize(existing)).errors().put("email", "Email already registered");
+            }
+        }
+
+        List<User> users = new ArrayList<>(results.size());
+        for (RowResult result : results) {
+            if (result.isValid()) {
+                users.add(userMapper.toEntity(result.user()));
+            } else {
+                errorLines.append(result.row().number()).append(',')
+                        .append(toCsvLine(result.row().values())).append(',')
+                        .append(UserExportService.csv(describe(result.errors()))).append('\n');
+            }
+        }
+
+        byte[] errorBytes = errorLines.toString().getBytes(StandardCharsets.UTF_8);
+        errorLines.setLength(0);
+        errorFile.write(ByteBuffer.wrap(errorBytes));
+        errorFile.force(false);
+
+        int imported = users.size();
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.saveAll(users);
+            job.setProcessedRows(job.getProcessedRows() + chunk.size());
+            job.setImportedRows(job.getImportedRows() + imported);
+            job.setRejectedRows(job.getRejectedRows() + chunk.size() - imported);
+            job.setErrorFileBytes(job.getErrorFileBytes() + errorBytes.length);
+            job.setUpdatedAt(LocalDateTime.now());
+            importJobRepository.save(job);
+        });
+    }
+
+    private List<RowResult> validateInParallel(List<ImportRow> chunk, Map<String, Integer> columns) {
+        if (chunk.isEmpty()) {
+            return List.of();
+        }
+        int sliceSize = Math.max(1, (chunk.size() + importProperties.getValidationThreads() - 1)
+                / importProperties.getValidationThreads());
+
+        List<CompletableFuture<List<RowResult>>> slices = new ArrayList<>();
+        for (int from = 0; from < chunk.size(); from += sliceSize) {
+            List<ImportRow> slice = chunk.subList(from, Math.min(from + sliceSize, chunk.size()));
+            slices.add(CompletableFuture.supplyAsync(
+                    () -> slice.stream().map(row -> validate(row, columns)).collect(Collectors.toList()),
+                    validationExecutor));
+        }
+
+        List<RowResult> results = new ArrayList<>(chunk.size());
+        slices.forEach(slice -> results.addAll(slice.join()));
+        return results;
+    }
+
+    private RowResult validate(ImportRow row, Map<String, Integer> columns) {
+        Map<String, String> values = new HashMap<>();
+        columns.forEach((column, index) -> {
+            String value = index < row.values().size() ? row.values().get(index).trim() : "";
+            values.put(column, value.isEmpty() ? null : value);
+        });
+
+        UserRequestDTO user;
+        try {
+            user = objectMapper.convertValue(values, UserRequestDTO.class);
+        } catch (IllegalArgumentException e) {
+            String field = e.getCause() instanceof JsonMappingException mapping && !mapping.getPath().isEmpty()
+                    ? mapping.getPath().get(0).getFieldName()
+                    : "row";
+            Map<String, String> errors = new HashMap<>();
+            errors.put(field, "Invalid value");
+            return new RowResult(row, null, errors);
+        }
+
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<UserRequestDTO> violation : validator.validate(user)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return new RowResult(row, user, errors);
+    }
+
+    private Map<String, Integer> indexColumns(List<String> header) {
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim();
+            if (COLUMNS.contains(name)) {
+                columns.put(name, i);
+            }
+        }
+        if (columns.size() != COLUMNS.size()) {
+            Set<String> missing = new HashSet<>(COLUMNS);
+            missing.removeAll(columns.keySet());
+            throw new BusinessException("Import file is missing columns: " + missing);
+        }
+        return columns;
+    }
+
+    private int resolveChunkSize(Integer chunkSize) {
+        if (chunkSize == null) {
+            return importProperties.getChunkSize();
+        }
+        if (chunkSize < 1 || chunkSize > importProperties.getMaxChunkSize()) {
+            throw new BusinessException("Chunk size must be between 1 and " + importProperties.getMaxChunkSize());
+        }
+        return chunkSize;
+    }
+
+    private ImportJob findJob(String id) {
+        return importJobRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job not found with id: " + id));
+    }
+
+    private Path uploadPath(String id) {
+        return importProperties.getWorkDir().resolve(id + ".csv");
+    }
+
+    private Path errorPath(String id) {
+        return importProperties.getWorkDir().resolve(id + ".errors.csv");
+    }
+
+    private static String toCsvLine(List<String> values) {
+        return values.stream().map(UserExportService::csv).collect(Collectors.joining(","));
+    }
+
+    private static String describe(Map<String, String> errors) {
+        return errors.entrySet().stream()
+                .map(error -> error.getKey() + ": " + error.getValue())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static String abbreviate(String message) {
+        if (message == null || message.length() <= 1000) {
+            return message;
+        }
+        return message.substring(0, 1000);
+    }
+
+    private record ImportRow(long number, List<String> values) {
+    }
+
+    private record RowResult(ImportRow row, UserRequestDTO user, Map<String, String> errors) {
+
+        boolean isValid() {
+            return errors.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.repository.UserField;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+
+/**
+ * Keeps {@link UserIdFilter} and {@link UserEmailIndex} in sync with every insert and delete that
+ * goes through JPA, including batch creates and imports. Inserted keys are added right away and
+ * taken back if the transaction rolls back; deleted keys are only dropped once the delete commits.
+ * {@link UserSearchIndex} only ever shows committed data, so all of its changes wait for the commit;
+ * so does {@link UserChangeFeed}, which publishes every change to its subscribers, and the dropping of
+ * stored responses from {@link UserResponseCache}.
+ * Single-statement updates and deletes bypass JPA, so {@code UserService} reports them through
+ * {@link #updated} and {@link #removed}.
+ * <p>
+ * Hibernate resolves this listener as a Spring bean while the entity manager factory is being
+ * built, hence the indexes are only looked up on first use (they need a repository themselves). Object providers
+ * rather than {@code @Lazy} proxies, which AOT processing cannot generate for classes that are proxied already.
+ */
+@Component
+public class UserIndexListener {
+
+    private final ObjectProvider<UserIdFilter> userIdFilter;
+    private final ObjectProvider<UserEmailIndex> userEmailIndex;
+    private final ObjectProvider<UserSearchIndex> userSearchIndex;
+    private final ObjectProvider<UserChangeFeed> userChangeFeed;
+    private final ObjectProvider<UserResponseCache> userResponseCache;
+
+    public UserIndexListener(ObjectProvider<UserIdFilter> userIdFilter, ObjectProvider<UserEmailIndex> userEmailIndex,
+                             ObjectProvider<UserSearchIndex> userSearchIndex, ObjectProvider<UserChangeFeed> userChangeFeed,
+                             ObjectProvider<UserResponseCache> userResponseCache) {
+        this.userIdFilter = userIdFilter;
+        this.userEmailIndex = userEmailIndex;
+        this.userSearchIndex = userSearchIndex;
+        this.userChangeFeed = userChangeFeed;
+        this.userResponseCache = userResponseCache;
+    }
+
+    @PostPersist
+    void afterPersist(User user) {
+        long id = user.getId();
+        String email = user.getEmail();
+        userIdFilter.getObject().add(id);
+        userEmailIndex.getObject().add(email);
+        afterRollback(() -> userEmailIndex.getObject().remove(email));
+        indexForSearch(user);
+        userChangeFeed.getObject().created(user);
+    }
+
+    @PostUpdate
+    void afterUpdate(User user) {
+        long id = user.getId();
+        afterCommit(() -> userResponseCache.getObject().invalidate(id));
+        indexForSearch(user);
+        userChangeFeed.getObject().updated(user);
+    }
+
+    @PostRemove
+    void afterRemove(User user) {
+        removed(user.getId(), user.getEmail());
+    }
+
+    /**
+     * Fields written without loading the entity; {@code version} is the new one, or {@code null} if unknown.
+     */
+    void updated(long id, Map<UserField, Object> changes, Long version) {
+        String fullName = (String) changes.get(UserField.FULL_NAME);
+        String email = (String) changes.get(UserField.EMAIL);
+        if (fullName != null || email != null) {
+            afterCommit(() -> userSearchIndex.getObject().update(id, fullName, email));
+        }
+        afterCommit(() -> userResponseCache.getObject().invalidate(id));
+        userChangeFeed.getObject().updated(id, changes, version);
+    }
+
+    void removed(long id, String email) {
+        afterCommit(() -> {
+            userIdFilter.getObject().remove(id);
+            userEmailIndex.getObject().remove(email);
+            userSearchIndex.getObject().remove(id);
+            userResponseCache.getObject().invalidate(id);
+        });
+        userChangeFeed.getObject().deleted(id);
+    }
+
+    private void indexForSearch(User user) {
+        long id = user.getId();
+        String fullName = user.getFullName();
+        String email = user.getEmail();
+        afterCommit(() -> userSearchIndex.getObject().put(id, fullName, email));
+    }
+
+    static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    static void afterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
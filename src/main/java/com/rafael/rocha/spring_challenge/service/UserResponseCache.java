@@ -0,0 +1,216 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rafael.rocha.spring_challenge.config.ResponseCacheProperties;
+import com.rafael.rocha.spring_challenge.dto.UserPageResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Users already encoded in each response format, so a read is answered by writing stored bytes instead of
+ * mapping and serializing again. Entries carry the version they were encoded at: pages reuse an entry only when
+ * the row they read is at that version, and {@link UserIndexListener} drops a user's entries once a write to it
+ * commits. An entry is never replaced by an older version, and a user read before an invalidation is not stored
+ * after it, since the write that caused it may have been missed by the read. Users whose version is unknown are
+ * encoded every time.
+ * <p>
+ * The encoders are the ones the message converters use, so the bytes are the same as a regular response.
+ */
+@Slf4j
+@Component
+public class UserResponseCache {
+
+    @Getter
+    @RequiredArgsConstructor
+    public enum Format {
+        JSON(MediaType.APPLICATION_JSON),
+        CBOR(MediaType.APPLICATION_CBOR),
+        SMILE(new MediaType("application", "x-jackson-smile"));
+
+        private final MediaType mediaType;
+
+        /**
+         * @return the format the Accept header prefers, JSON when there is none, or {@code null} when it asks
+         * for none of them or cannot be parsed
+         */
+        public static Format negotiate(String accept) {
+            if (accept == null || accept.isBlank()) {
+                return JSON;
+            }
+            List<MediaType> acceptable;
+            try {
+                acceptable = new ArrayList<>(MediaType.parseMediaTypes(accept));
+            } catch (InvalidMediaTypeException e) {
+                return null;
+            }
+            MimeTypeUtils.sortBySpecificity(acceptable);
+            for (MediaType mediaType : acceptable) {
+                for (Format format : values()) {
+                    if (mediaType.isCompatibleWith(format.mediaType)) {
+                        return format;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    public record EncodedUser(Long version, byte[] bytes) {
+    }
+
+    private final Map<Format, ObjectMapper> objectMappers = new EnumMap<>(Format.class);
+    private final Map<Format, Cache<Long, EncodedUser>> caches = new EnumMap<>(Format.class);
+    private final ObjectProvider<UserService> userService;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserResponseCache(ObjectProvider<UserService> userService, HttpMessageConverters httpMessageConverters,
+                             ResponseCacheProperties responseCacheProperties,
+                             ObjectProvider<MeterRegistry> meterRegistry) {
+        this.userService = userService;
+        for (Format format : Format.values()) {
+            objectMappers.put(format, objectMapper(httpMessageConverters, format));
+            Cache<Long, EncodedUser> cache = Caffeine.newBuilder()
+                    .maximumWeight(responseCacheProperties.getMaximumSize().toBytes())
+                    .weigher((Long id, EncodedUser encoded) -> encoded.bytes().length)
+                    .expireAfterWrite(responseCacheProperties.getExpireAfterWrite())
+                    .recordStats()
+                    .build();
+            caches.put(format, cache);
+            meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, "user-responses",
+                    "format", format.name().toLowerCase(Locale.ROOT)));
+        }
+    }
+
+    /**
+     * The full representation of a user, loaded through {@link UserService#getUserById(Long)}, from the primary,
+     * when not stored.
+     */
+    public EncodedUser get(Long id, Format format) {
+        Cache<Long, EncodedUser> cache = caches.get(format);
+        EncodedUser encoded = cache.getIfPresent(id);
+        if (encoded != null) {
+            return encoded;
+        }
+        log.debug("get() - encoding user with id[{}] as {}", id, format);
+        long seen = invalidations.get();
+        return store(userService.getObject().getUserById(id), format, seen);
+    }
+
+    /**
+     * A JSON page whose users are copied in from their stored bytes; only users not stored, or stored at another
+     * version, are serialized. The page is loaded here, so that users it read before an invalidation are not
+     * stored.
+     */
+    public byte[] encodePage(Supplier<UserPageResponseDTO> pageLoader) {
+        long seen = invalidations.get();
+        UserPageResponseDTO page = pageLoader.get();
+        ObjectMapper objectMapper = objectMappers.get(Format.JSON);
+        Cache<Long, EncodedUser> cache = caches.get(Format.JSON);
+        List<UserResponseDTO> users = page.getContent() != null ? page.getContent() : List.of();
+
+        byte[][] fragments = new byte[users.size()][];
+        int length = 0;
+        for (int i = 0; i < fragments.length; i++) {
+            UserResponseDTO user = users.get(i);
+            EncodedUser encoded = user.getVersion() != null ? cache.getIfPresent(user.getId()) : null;
+            fragments[i] = encoded != null && user.getVersion().equals(encoded.version())
+                    ? encoded.bytes()
+                    : store(user, Format.JSON, seen).bytes();
+            length += fragments[i].length;
+        }
+
+        // The envelope with no users; content is its first property, so its first "[" opens the user array
+        byte[] envelope = encode(objectMapper, new UserPageResponseDTO(Collections.emptyList(), page.getSize(),
+                page.getNextCursor()));
+        int split = indexOf(envelope, (byte) '[') + 1;
+
+        byte[] body = new byte[envelope.length + length + Math.max(0, fragments.length - 1)];
+        System.arraycopy(envelope, 0, body, 0, split);
+        int position = split;
+        for (int i = 0; i < fragments.length; i++) {
+            if (i > 0) {
+                body[position++] = ',';
+            }
+            System.arraycopy(fragments[i], 0, body, position, fragments[i].length);
+            position += fragments[i].length;
+        }
+        System.arraycopy(envelope, split, body, position, envelope.length - split);
+        return body;
+    }
+
+    void invalidate(long id) {
+        invalidations.incrementAndGet();
+        caches.values().forEach(cache -> cache.invalidate(id));
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        caches.values().forEach(Cache::invalidateAll);
+    }
+
+    /**
+     * Stores the user unless an invalidation happened since {@code seen} or a newer version is stored. Checked
+     * inside the compute, so an invalidation of the same user either finds the entry or is seen here.
+     */
+    private EncodedUser store(UserResponseDTO user, Format format, long seen) {
+        EncodedUser encoded = new EncodedUser(user.getVersion(), encode(objectMappers.get(format), user));
+        if (user.getVersion() != null) {
+            caches.get(format).asMap().compute(user.getId(), (id, stored) ->
+                    invalidations.get() != seen || stored != null && stored.version() >= encoded.version()
+                            ? stored : encoded);
+        }
+        return encoded;
+    }
+
+    private static byte[] encode(ObjectMapper objectMapper, Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ObjectMapper objectMapper(HttpMessageConverters httpMessageConverters, Format format) {
+        for (HttpMessageConverter<?> converter : httpMessageConverters.getConverters()) {
+            if (converter instanceof AbstractJackson2HttpMessageConverter jacksonConverter
+                    && jacksonConverter.canWrite(UserResponseDTO.class, format.mediaType)) {
+                return jacksonConverter.getObjectMapper();
+            }
+        }
+        throw new IllegalStateException("No message converter writes " + format.mediaType);
+    }
+
+    private static int indexOf(byte[] bytes, byte target) {
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == target) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Page envelope has no user array");
+    }
+}
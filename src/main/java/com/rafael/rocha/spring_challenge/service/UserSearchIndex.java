@@ -0,0 +1,382 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.datasource.DataSourceRouting;
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-memory typeahead index over user names and emails. Text is lower-cased and stripped of accents.
+ * Results come in three tiers, each read only as far as the requested limit:
+ * <ol>
+ *     <li>names starting with the query, alphabetically (an exact match sorts first);</li>
+ *     <li>names with a later word starting with the query, alphabetically from that word on;</li>
+ *     <li>any other name or email containing the query, or all of its words in any order, by id.</li>
+ * </ol>
+ * The first two are range scans over sorted maps. The third walks the shortest trigram posting list (a sorted
+ * {@code long[]} of ids), probes the others in place from where the previous probe stopped, and checks
+ * candidates against the text until the limit is reached, without copying any list; queries shorter than
+ * a trigram stop after the prefix tiers.
+ * <p>
+ * Until the startup scan finishes the index is empty and callers fall back to the database. The scan reads a
+ * snapshot while writes keep committing, so changes reported meanwhile are queued and replayed over the
+ * snapshot, in commit order, before the index is marked ready.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSearchIndex {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+    private static final long GRAM_MIX = 0x9E3779B97F4A7C15L;
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final UserRepository userRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final NavigableMap<String, Document> names = new TreeMap<>();
+    private final NavigableMap<String, Document> wordSuffixes = new TreeMap<>();
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+    private List<Runnable> changesDuringScan = new ArrayList<>();
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * @return up to {@code limit} users matching {@code query}, best match first
+     */
+    public List<UserSearchResultDTO> search(String query, int limit) {
+        String normalizedQuery = normalize(query);
+        if (normalizedQuery.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        Map<Long, Document> hits = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            collectPrefixMatches(names, normalizedQuery, hits, limit);
+            collectPrefixMatches(wordSuffixes, normalizedQuery, hits, limit);
+            collectSubstringMatches(normalizedQuery, hits, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return hits.values().stream()
+                .map(document -> new UserSearchResultDTO(document.id(), document.fullName(), document.email()))
+                .toList();
+    }
+
+    /**
+     * Adds the user, or re-indexes it when the id is already known.
+     */
+    public void put(long id, String fullName, String email) {
+        change(() -> index(id, fullName, email));
+    }
+
+    /**
+     * Re-indexes a user after a partial update; a {@code null} name or email keeps the indexed one.
+     * Users not indexed, e.g. created by another instance, are left out.
+     */
+    public void update(long id, String fullName, String email) {
+        change(() -> {
+            Document current = documents.get(id);
+            if (current != null) {
+                index(id, fullName != null ? fullName : current.fullName(), email != null ? email : current.email());
+            }
+        });
+    }
+
+    /**
+     * @return the committed email of the user, or {@code null} when the user is not indexed or the
+     * startup scan is still running
+     */
+    public String emailOf(long id) {
+        if (!ready) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Document document = documents.get(id);
+            return document != null ? document.email() : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        change(() -> {
+            Document previous = documents.remove(id);
+            if (previous != null) {
+                unindex(previous);
+            }
+        });
+    }
+
+    private void change(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringScan != null) {
+                changesDuringScan.add(change);
+            } else {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        log.info("rebuild() - INIT - indexing user names and emails");
+
+        // Read from the primary: a lagging replica would leave out the latest users for good
+        DataSourceRouting.onPrimary(() -> {
+            try (Stream<UserSearchResultDTO> users = userRepository.streamAllSearchFields()) {
+                users.forEach(user -> {
+                    lock.writeLock().lock();
+                    try {
+                        index(user.getId(), user.getFullName(), user.getEmail());
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                });
+            }
+        });
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            replayed = changesDuringScan.size();
+            changesDuringScan.forEach(Runnable::run);
+            changesDuringScan = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        log.info("rebuild() - END - indexed users[{}], trigrams[{}], replayed changes[{}]",
+                documents.size(), trigrams.size(), replayed);
+    }
+
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text.trim(), Normalizer.Form.NFD);
+        String stripped = MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return WHITESPACE.matcher(stripped).replaceAll(" ");
+    }
+
+    private void index(long id, String fullName, String email) {
+        Document document = new Document(id, fullName, email, normalize(fullName), normalize(email));
+        Document previous = documents.put(id, document);
+        if (previous != null) {
+            unindex(previous);
+        }
+        names.put(key(document.normalizedName(), id), document);
+        for (String suffix : wordSuffixes(document.normalizedName())) {
+            wordSuffixes.put(key(suffix, id), document);
+        }
+        for (long gram : grams(document)) {
+            trigrams.computeIfAbsent(gram, key -> new Postings()).add(id);
+        }
+    }
+
+    private void unindex(Document document) {
+        names.remove(key(document.normalizedName(), document.id()));
+        for (String suffix : wordSuffixes(document.normalizedName())) {
+            wordSuffixes.remove(key(suffix, document.id()));
+        }
+        for (long gram : grams(document)) {
+            Postings postings = trigrams.get(gram);
+            if (postings != null && postings.remove(document.id()) && postings.size() == 0) {
+                trigrams.remove(gram);
+            }
+        }
+    }
+
+    private static void collectPrefixMatches(NavigableMap<String, Document> index, String prefix,
+                                             Map<Long, Document> hits, int limit) {
+        for (Document document : index.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (hits.size() >= limit) {
+                return;
+            }
+            hits.putIfAbsent(document.id(), document);
+        }
+    }
+
+    private void collectSubstringMatches(String query, Map<Long, Document> hits, int limit) {
+        if (hits.size() >= limit) {
+            return;
+        }
+        String[] words = words(query);
+        long[] queryGrams = Arrays.stream(words)
+                .flatMapToLong(word -> Arrays.stream(grams(word)))
+                .distinct()
+                .toArray();
+        if (queryGrams.length == 0) {
+            return;
+        }
+
+        Postings[] lists = new Postings[queryGrams.length];
+        for (int i = 0; i < queryGrams.length; i++) {
+            lists[i] = trigrams.get(queryGrams[i]);
+            if (lists[i] == null) {
+                return;
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+        Postings shortest = lists[0];
+        int[] from = new int[lists.length];
+        candidates:
+        for (int c = 0; c < shortest.size() && hits.size() < limit; c++) {
+            long id = shortest.get(c);
+            for (int i = 1; i < lists.length; i++) {
+                int index = lists[i].indexOf(id, from[i]);
+                if (index < 0) {
+                    from[i] = -index - 1;
+                    continue candidates;
+                }
+                from[i] = index + 1;
+            }
+            Document document = documents.get(id);
+            if (!hits.containsKey(id) && matches(document, query, words)) {
+                hits.put(id, document);
+            }
+        }
+    }
+
+    /**
+     * Trigram candidates can be false positives: the grams are all there, but not next to each other.
+     */
+    private static boolean matches(Document document, String query, String[] words) {
+        if (document.normalizedName().contains(query) || document.normalizedEmail().contains(query)) {
+            return true;
+        }
+        for (String word : words) {
+            if (!document.normalizedName().contains(word) && !document.normalizedEmail().contains(word)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String key(String text, long id) {
+        return text + KEY_SEPARATOR + id;
+    }
+
+    /**
+     * "lebron raymone james" gives "raymone james" and "james".
+     */
+    private static List<String> wordSuffixes(String normalizedName) {
+        List<String> suffixes = new ArrayList<>();
+        for (int i = 1; i < normalizedName.length(); i++) {
+            if (Character.isLetterOrDigit(normalizedName.charAt(i))
+                    && !Character.isLetterOrDigit(normalizedName.charAt(i - 1))) {
+                suffixes.add(normalizedName.substring(i));
+            }
+        }
+        return suffixes;
+    }
+
+    private static String[] words(String normalized) {
+        return Arrays.stream(NON_WORD.split(normalized))
+                .filter(word -> !word.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static long[] grams(Document document) {
+        return Stream.of(words(document.normalizedName()), words(document.normalizedEmail()))
+                .flatMap(Arrays::stream)
+                .flatMapToLong(word -> Arrays.stream(grams(word)))
+                .distinct()
+                .toArray();
+    }
+
+    private static long[] grams(String word) {
+        if (word.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[word.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            long packed = ((long) word.charAt(i) << 32) | ((long) word.charAt(i + 1) << 16) | word.charAt(i + 2);
+            // Long.hashCode folds the high chars onto the low ones; an odd multiplier keeps keys unique and spread
+            grams[i] = packed * GRAM_MIX;
+        }
+        return grams;
+    }
+
+    private record Document(long id, String fullName, String email, String normalizedName, String normalizedEmail) {
+    }
+
+    /**
+     * Sorted, duplicate-free list of ids. Ids come from a sequence, so adds are nearly always appends.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        long get(int index) {
+            return ids[index];
+        }
+
+        /**
+         * Binary search from {@code from} on; candidates come in ascending order, so each probe starts where
+         * the previous one stopped.
+         */
+        int indexOf(long id, int from) {
+            return Arrays.binarySearch(ids, from, size, id);
+        }
+
+        void add(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -1,48 +1,156 @@
 package com.rafael.rocha.spring_challenge.service;
 
+import com.rafael.rocha.spring_challenge.config.BatchProperties;
+import com.rafael.rocha.spring_challenge.config.CacheConfig;
+import com.rafael.rocha.spring_challenge.config.PaginationProperties;
+import com.rafael.rocha.spring_challenge.datasource.DataSourceRouting;
+import com.rafael.rocha.spring_challenge.dto.UserBatchItemResultDTO;
+import com.rafael.rocha.spring_challenge.dto.UserBatchResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPageResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
 import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
 import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.exceptions.BusinessException;
+import com.rafael.rocha.spring_challenge.exceptions.ConflictException;
+import com.rafael.rocha.spring_challenge.exceptions.PreconditionFailedException;
 import com.rafael.rocha.spring_challenge.exceptions.ResourceNotFoundException;
 import com.rafael.rocha.spring_challenge.mapper.UserMapper;
 import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.repository.UserField;
 import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.repository.UserSpecifications;
+import com.rafael.rocha.spring_challenge.repository.UserWriteState;
+import io.micrometer.core.annotation.Timed;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @Validated
 @RequiredArgsConstructor
+@Timed(value = "techmanage.user.service", histogram = true)
 public class UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final PaginationProperties paginationProperties;
+    private final BatchProperties batchProperties;
+    private final Validator validator;
+    private final UserIdFilter userIdFilter;
+    private final UserEmailIndex userEmailIndex;
+    private final UserSearchIndex userSearchIndex;
+    private final UserIndexListener userIndexListener;
+    private final UserCreateCoalescer userCreateCoalescer;
+    private final TransactionTemplate transactionTemplate;
+    /** This bean's proxy, so the unprojected read below goes through {@code @Cacheable}. */
+    private final ObjectProvider<UserService> self;
 
     @Transactional(readOnly = true)
-    public List<UserResponseDTO> findAllUsers() {
-        log.info("getAllUsers() - INIT - fetching all users");
+    public UserPageResponseDTO findAllUsers(UserFilterDTO filter, String cursor, Integer limit, String fields) {
+        log.info("getAllUsers() - INIT - fetching users page after cursor[{}], limit[{}], filter[{}], fields[{}]",
+                cursor, limit, filter, fields);
 
-        List<User> users = userRepository.findAll();
-        List<UserResponseDTO> userDTOs = users.stream()
+        long afterId = CursorCodec.decode(cursor);
+        int pageSize = resolvePageSize(limit);
+        Set<UserField> selectedFields = UserField.parse(fields);
+        validateFilter(filter);
+
+        // Read one extra row so we know whether a next page exists without a second query
+        int fetchSize = pageSize + 1;
+        List<UserResponseDTO> userDTOs;
+        if (selectedFields != null) {
+            userDTOs = userRepository.findProjected(keyset(afterId, filter), fetchSize, selectedFields);
+        } else {
+            List<User> users = filter == null || filter.isEmpty()
+                    ? userRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(fetchSize))
+                    : userRepository.findBy(keyset(afterId, filter),
+                            query -> query.sortBy(Sort.by(UserField.ID.getAttribute())).limit(fetchSize).all());
+            userDTOs = users.stream()
+                    .map(userMapper::toDTO)
+                    .collect(Collectors.toList());
+        }
+        boolean hasNext = userDTOs.size() > pageSize;
+        if (hasNext) {
+            userDTOs = userDTOs.subList(0, pageSize);
+        }
+
+        String nextCursor = hasNext ? CursorCodec.encode(userDTOs.get(userDTOs.size() - 1).getId()) : null;
+
+        log.info("getAllUsers() - END - retrieved users[{}], hasNext[{}]", userDTOs.size(), hasNext);
+        return new UserPageResponseDTO(userDTOs, userDTOs.size(), nextCursor);
+    }
+
+    public UserResponseDTO getUserByEmail(String email) {
+        log.info("getUserByEmail() - INIT - fetching user with email[{}]", email);
+
+        UserResponseDTO responseDTO = userRepository.findByEmail(email.trim())
                 .map(userMapper::toDTO)
-                .collect(Collectors.toList());
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+
+        log.info("getUserByEmail() - END - successfully retrieved user with id[{}]", responseDTO.getId());
+        return responseDTO;
+    }
 
-        log.info("getAllUsers() - END - retrieved total users[{}]", userDTOs.size());
-        return userDTOs;
+    public List<UserSearchResultDTO> searchUsers(String query, Integer limit) {
+        log.info("searchUsers() - INIT - searching users for query[{}], limit[{}]", query, limit);
+
+        if (query == null || query.isBlank()) {
+            throw new BusinessException("Search query must not be blank");
+        }
+        int resultSize = resolvePageSize(limit);
+
+        List<UserSearchResultDTO> results = userSearchIndex.isReady()
+                ? userSearchIndex.search(query, resultSize)
+                : userRepository.searchByFullNameOrEmail(query.trim(), Limit.of(resultSize));
+
+        log.info("searchUsers() - END - found users[{}]", results.size());
+        return results;
     }
 
+    /**
+     * Read from the primary: the result is cached for every client, and a replica's copy may predate a write
+     * whose eviction has already happened.
+     */
+    @Cacheable(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     @Transactional(readOnly = true)
     public UserResponseDTO getUserById(Long id) {
         log.info("getUserById() - INIT - fetching user with id[{}]", id);
 
-        UserResponseDTO responseDTO = userRepository.findById(id)
+        if (!userIdFilter.mightContain(id)) {
+            log.debug("getUserById() - END - id[{}] rejected by id filter", id);
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        }
+
+        UserResponseDTO responseDTO = DataSourceRouting.onPrimary(() -> userRepository.findById(id))
                 .map(userMapper::toDTO)
                 .orElseThrow(() -> {
                     log.error("getUserById() - ERROR - user not found with id[{}]", id);
@@ -53,48 +161,311 @@ public class UserService {
         return responseDTO;
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    public UserResponseDTO getUserById(Long id, String fields) {
+        Set<UserField> selectedFields = UserField.parse(fields);
+        if (selectedFields == null) {
+            return self.getObject().getUserById(id);
+        }
+        log.info("getUserById() - INIT - fetching fields[{}] of user with id[{}]", fields, id);
+
+        if (!userIdFilter.mightContain(id)) {
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        }
+
+        UserResponseDTO responseDTO = userRepository.findProjectedById(id, selectedFields)
+                .orElseThrow(() -> {
+                    log.error("getUserById() - ERROR - user not found with id[{}]", id);
+                    return new ResourceNotFoundException("User not found with id: " + id);
+                });
+
+        log.info("getUserById() - END - successfully retrieved fields of user with id[{}]", id);
+        return responseDTO;
+    }
+
+    /**
+     * Not {@code @Transactional}: a duplicate email is rejected from the in-memory index before any
+     * transaction (and pooled connection) is taken. The unique index still guards concurrent signups.
+     * With write coalescing on, the insert joins concurrent creates in one transaction written by
+     * {@link UserCreateCoalescer}, outside any transaction of the caller.
+     */
     public UserResponseDTO createUser(@Valid UserRequestDTO userRequestDTO) {
         log.info("createUser() - INIT - creating user with email[{}]", userRequestDTO.getEmail());
 
-        User user = userMapper.toEntity(userRequestDTO);
-        User savedUser = userRepository.save(user);
-        UserResponseDTO responseDTO = userMapper.toDTO(savedUser);
+        if (userEmailIndex.contains(userRequestDTO.getEmail())) {
+            log.warn("createUser() - ERROR - email[{}] already registered", userRequestDTO.getEmail());
+            throw new ConflictException("Email already registered: " + userRequestDTO.getEmail());
+        }
+
+        UserResponseDTO responseDTO = userCreateCoalescer.isEnabled()
+                ? userCreateCoalescer.create(userRequestDTO)
+                : transactionTemplate.execute(status -> {
+                    User user = userMapper.toEntity(userRequestDTO);
+                    User savedUser = userRepository.save(user);
+                    return userMapper.toDTO(savedUser);
+                });
 
         log.info("createUser() - END - successfully created user with id[{}], email[{}]",
-                savedUser.getId(), savedUser.getEmail());
+                responseDTO.getId(), responseDTO.getEmail());
         return responseDTO;
     }
 
     @Transactional
-    public UserResponseDTO updateUserById(Long id, @Valid UserRequestDTO userRequestDTO) {
+    public UserBatchResponseDTO createUsers(List<UserRequestDTO> userRequestDTOs) {
+        log.info("createUsers() - INIT - creating batch of users[{}]", userRequestDTOs.size());
+
+        if (userRequestDTOs.isEmpty()) {
+            throw new BusinessException("Batch must contain at least one user");
+        }
+        if (userRequestDTOs.size() > batchProperties.getMaxSize()) {
+            throw new BusinessException("Batch size exceeds the maximum of " + batchProperties.getMaxSize() + " users");
+        }
+
+        UserBatchItemResultDTO[] results = new UserBatchItemResultDTO[userRequestDTOs.size()];
+        Map<String, Integer> candidates = new LinkedHashMap<>();
+
+        for (int i = 0; i < userRequestDTOs.size(); i++) {
+            UserRequestDTO userRequestDTO = userRequestDTOs.get(i);
+            Map<String, String> errors = validate(userRequestDTO);
+            if (!errors.isEmpty()) {
+                results[i] = new UserBatchItemResultDTO(i, UserBatchItemResultDTO.Status.INVALID,
+                        null, "Validation error", errors);
+            } else if (candidates.putIfAbsent(UserEmailIndex.normalize(userRequestDTO.getEmail()), i) != null) {
+                results[i] = new UserBatchItemResultDTO(i, UserBatchItemResultDTO.Status.DUPLICATE_EMAIL,
+                        null, "Email is repeated in this batch: " + userRequestDTO.getEmail(), null);
+            }
+        }
+
+        Set<String> existingEmails = new HashSet<>();
+        if (!candidates.isEmpty()) {
+            List<String> requestedEmails = candidates.values().stream()
+                    .map(i -> userRequestDTOs.get(i).getEmail())
+                    .collect(Collectors.toList());
+            userRepository.findExistingEmails(requestedEmails)
+                    .forEach(email -> existingEmails.add(UserEmailIndex.normalize(email)));
+        }
+
+        List<User> usersToSave = new ArrayList<>(candidates.size());
+        List<Integer> savedIndexes = new ArrayList<>(candidates.size());
+        candidates.forEach((email, i) -> {
+            if (existingEmails.contains(email)) {
+                results[i] = new UserBatchItemResultDTO(i, UserBatchItemResultDTO.Status.DUPLICATE_EMAIL,
+                        null, "Email already registered: " + userRequestDTOs.get(i).getEmail(), null);
+            } else {
+                usersToSave.add(userMapper.toEntity(userRequestDTOs.get(i)));
+                savedIndexes.add(i);
+            }
+        });
+
+        // Ids come from the pooled sequence, so Hibernate can group these into JDBC batches
+        List<User> savedUsers = userRepository.saveAll(usersToSave);
+        for (int j = 0; j < savedUsers.size(); j++) {
+            int i = savedIndexes.get(j);
+            results[i] = new UserBatchItemResultDTO(i, UserBatchItemResultDTO.Status.CREATED,
+                    userMapper.toDTO(savedUsers.get(j)), null, null);
+        }
+
+        int created = savedUsers.size();
+        int failed = results.length - created;
+        log.info("createUsers() - END - created users[{}], failed[{}]", created, failed);
+        return new UserBatchResponseDTO(created, failed, Arrays.asList(results));
+    }
+
+    /**
+     * Replaces the user's fields with a single {@code UPDATE}, without loading the row. With an
+     * {@code expectedVersion} (the client's If-Match) nothing is written unless the row is still at that
+     * version. The response carries the new version, and refreshes the cache, only when it is known without
+     * reading the row back; otherwise the cache entry is evicted.
+     */
+    @Caching(put = @CachePut(cacheNames = CacheConfig.USERS_CACHE, key = "#id", unless = "#result.version == null"),
+            evict = @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id", condition = "#result.version == null"))
+    @Transactional
+    public UserResponseDTO updateUserById(Long id, @Valid UserRequestDTO userRequestDTO, Long expectedVersion) {
         log.info("updateUser() - INIT - updating user with id[{}]", id);
 
-        User existingUser = userRepository.findById(id)
-                .orElseThrow(() -> {
-                    log.error("updateUser() - ERROR - user not found with id[{}]", id);
-                    return new ResourceNotFoundException("User not found with id: " + id);
-                });
+        Map<UserField, Object> changes = new EnumMap<>(UserField.class);
+        changes.put(UserField.FULL_NAME, userRequestDTO.getFullName());
+        changes.put(UserField.EMAIL, userRequestDTO.getEmail());
+        changes.put(UserField.PHONE, userRequestDTO.getPhone());
+        changes.put(UserField.BIRTH_DATE, userRequestDTO.getBirthDate());
+        changes.put(UserField.USER_TYPE, userRequestDTO.getUserType());
+        Long version = applyChanges(id, changes, expectedVersion);
 
-        userMapper.updateUserFromDTO(userRequestDTO, existingUser);
-        User updatedUser = userRepository.save(existingUser);
+        User updatedUser = userMapper.toEntity(userRequestDTO);
+        updatedUser.setId(id);
+        updatedUser.setVersion(version);
         UserResponseDTO responseDTO = userMapper.toDTO(updatedUser);
 
-        log.info("updateUser() - END - successfully updated user with id[{}]", id);
+        log.info("updateUser() - END - successfully updated user with id[{}], version[{}]", id, version);
         return responseDTO;
     }
 
+    /**
+     * Writes only the fields present in the patch, in a single {@code UPDATE}.
+     *
+     * @return the new version, or {@code null} when it is not known without reading the row back
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
+    @Transactional
+    public Long patchUserById(Long id, @Valid UserPatchDTO userPatchDTO, Long expectedVersion) {
+        log.info("patchUser() - INIT - patching user with id[{}]", id);
+
+        Map<UserField, Object> changes = new EnumMap<>(UserField.class);
+        putIfPresent(changes, UserField.FULL_NAME, userPatchDTO.getFullName());
+        putIfPresent(changes, UserField.EMAIL, userPatchDTO.getEmail());
+        putIfPresent(changes, UserField.PHONE, userPatchDTO.getPhone());
+        putIfPresent(changes, UserField.BIRTH_DATE, userPatchDTO.getBirthDate());
+        putIfPresent(changes, UserField.USER_TYPE, userPatchDTO.getUserType());
+        if (changes.isEmpty()) {
+            throw new BusinessException("Patch must contain at least one field");
+        }
+        Long version = applyChanges(id, changes, expectedVersion);
+
+        log.info("patchUser() - END - successfully patched fields{} of user with id[{}]", changes.keySet(), id);
+        return version;
+    }
+
+    /**
+     * A single {@code DELETE ... WHERE id = ? AND email = ?}. The email, needed to keep the email index
+     * right, comes from the search index; only when that is missing or stale is it read from the row.
+     */
+    @CacheEvict(cacheNames = CacheConfig.USERS_CACHE, key = "#id")
     @Transactional
     public void deleteUserById(Long id) {
         log.info("Attempting to delete user with id: {}", id);
 
-        User userToDelete = userRepository.findById(id)
+        if (!userIdFilter.mightContain(id)) {
+            throw notFound(id);
+        }
+        String email = userSearchIndex.emailOf(id);
+        if (email == null || userRepository.deleteByIdAndEmail(id, email) == 0) {
+            email = userRepository.findWriteStateById(id)
+                    .orElseThrow(() -> notFound(id))
+                    .email();
+            if (userRepository.deleteByIdAndEmail(id, email) == 0) {
+                throw notFound(id);
+            }
+        }
+        userIndexListener.removed(id, email);
+        log.info("Successfully deleted user with id: {}", id);
+    }
+
+    /**
+     * Runs the update as one statement in the common case. When the email changes, the statement is also
+     * guarded by the current email (taken from the search index) so the email index can be kept exact; the
+     * row is only read when that hint is missing or stale, or to tell a missing user from a stale version.
+     *
+     * @return the new version, or {@code null} when it is not known without reading the row back
+     */
+    private Long applyChanges(Long id, Map<UserField, Object> changes, Long expectedVersion) {
+        if (!userIdFilter.mightContain(id)) {
+            throw notFound(id);
+        }
+        String newEmail = (String) changes.get(UserField.EMAIL);
+        String previousEmail = newEmail != null ? userSearchIndex.emailOf(id) : null;
+        Long guardVersion = expectedVersion;
+        boolean stateRead = false;
+
+        if (newEmail != null && previousEmail == null) {
+            UserWriteState state = readWriteState(id, expectedVersion);
+            previousEmail = state.email();
+            guardVersion = state.version();
+            stateRead = true;
+        }
+        rejectTakenEmail(newEmail, previousEmail);
+
+        if (userRepository.updateById(id, changes, guardVersion, previousEmail) == 0) {
+            if (stateRead) {
+                throw new ObjectOptimisticLockingFailureException(User.class, id);
+            }
+            UserWriteState state = readWriteState(id, expectedVersion);
+            if (newEmail == null) {
+                throw new ObjectOptimisticLockingFailureException(User.class, id);
+            }
+            log.debug("updateUser() - email hint for id[{}] was stale, retrying", id);
+            previousEmail = state.email();
+            guardVersion = state.version();
+            rejectTakenEmail(newEmail, previousEmail);
+            if (userRepository.updateById(id, changes, guardVersion, previousEmail) == 0) {
+                throw new ObjectOptimisticLockingFailureException(User.class, id);
+            }
+        }
+
+        if (newEmail != null && !UserEmailIndex.normalize(previousEmail).equals(UserEmailIndex.normalize(newEmail))) {
+            String removedEmail = previousEmail;
+            userEmailIndex.add(newEmail);
+            UserIndexListener.afterRollback(() -> userEmailIndex.remove(newEmail));
+            UserIndexListener.afterCommit(() -> userEmailIndex.remove(removedEmail));
+        }
+        Long version = guardVersion != null ? guardVersion + 1 : null;
+        userIndexListener.updated(id, changes, version);
+        return version;
+    }
+
+    private UserWriteState readWriteState(Long id, Long expectedVersion) {
+        UserWriteState state = userRepository.findWriteStateById(id)
                 .orElseThrow(() -> {
-                    log.error("User not found with id: {}", id);
-                    return new ResourceNotFoundException("User not found with id: " + id);
+                    log.error("updateUser() - ERROR - user not found with id[{}]", id);
+                    return notFound(id);
                 });
+        if (expectedVersion != null && expectedVersion != state.version()) {
+            log.warn("updateUser() - ERROR - user with id[{}] is at version[{}], expected[{}]",
+                    id, state.version(), expectedVersion);
+            throw new PreconditionFailedException("User with id " + id + " has been modified");
+        }
+        return state;
+    }
 
-        userRepository.delete(userToDelete);
-        log.info("Successfully deleted user with id: {}", id);
+    private void rejectTakenEmail(String newEmail, String previousEmail) {
+        if (newEmail == null) {
+            return;
+        }
+        boolean emailChanged = !UserEmailIndex.normalize(previousEmail).equals(UserEmailIndex.normalize(newEmail));
+        if (emailChanged && userEmailIndex.contains(newEmail)) {
+            log.warn("updateUser() - ERROR - email[{}] already registered", newEmail);
+            throw new ConflictException("Email already registered: " + newEmail);
+        }
+    }
+
+    private static void putIfPresent(Map<UserField, Object> changes, UserField field, Object value) {
+        if (value != null) {
+            changes.put(field, value);
+        }
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("User not found with id: " + id);
+    }
+
+    private Map<String, String> validate(UserRequestDTO userRequestDTO) {
+        if (userRequestDTO == null) {
+            return Map.of("user", "User is required");
+        }
+        Map<String, String> errors = new HashMap<>();
+        for (ConstraintViolation<UserRequestDTO> violation : validator.validate(userRequestDTO)) {
+            errors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return errors;
+    }
+
+    private static Specification<User> keyset(long afterId, UserFilterDTO filter) {
+        return UserSpecifications.idGreaterThan(afterId).and(UserSpecifications.matching(filter));
+    }
+
+    private static void validateFilter(UserFilterDTO filter) {
+        if (filter != null && filter.getBornFrom() != null && filter.getBornTo() != null
+                && filter.getBornFrom().after(filter.getBornTo())) {
+            throw new BusinessException("bornFrom must not be after bornTo");
+        }
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null) {
+            return paginationProperties.getDefaultSize();
+        }
+        if (limit < 1) {
+            throw new BusinessException("Page limit must be greater than zero");
+        }
+        return Math.min(limit, paginationProperties.getMaxSize());
     }
 }
\ No newline at end of file
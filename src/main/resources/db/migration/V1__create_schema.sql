@@ -0,0 +1,51 @@
+-- Idempotent, like the schema.sql it replaces, so the startup benchmark can still run it on every boot
+
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    full_name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    phone VARCHAR(20) NOT NULL,
+    birth_date DATE NOT NULL,
+    user_type VARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT chk_user_type CHECK (user_type IN ('ADMIN', 'EDITOR', 'VIEWER')),
+    -- Filtered listing (GET /api/users?userType=&bornFrom=&bornTo=&namePrefix=); InnoDB appends id to each
+    INDEX idx_users_user_type_birth_date (user_type, birth_date),
+    INDEX idx_users_birth_date (birth_date),
+    INDEX idx_users_full_name (full_name)
+);
+
+-- MySQL has no sequences: Hibernate emulates users_seq with a single-row table and hands out
+-- blocks of 50 ids (pooled-lo), which is what lets inserts be grouped into JDBC batches.
+CREATE TABLE IF NOT EXISTS users_seq (
+    next_val BIGINT NOT NULL
+);
+
+INSERT INTO users_seq (next_val)
+SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM users_seq);
+
+CREATE TABLE IF NOT EXISTS import_jobs (
+    id VARCHAR(36) PRIMARY KEY,
+    file_name VARCHAR(255) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    chunk_size INT NOT NULL,
+    processed_rows BIGINT NOT NULL,
+    imported_rows BIGINT NOT NULL,
+    rejected_rows BIGINT NOT NULL,
+    error_file_bytes BIGINT NOT NULL,
+    message VARCHAR(1000),
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
+
+-- Idempotency-Key reservations and stored responses (techmanage.idempotency.store=DATABASE)
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(255) PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    status INT,
+    content_type VARCHAR(255),
+    entity_tag VARCHAR(255),
+    body MEDIUMBLOB,
+    expires_at DATETIME(6) NOT NULL,
+    INDEX idx_idempotency_keys_expires_at (expires_at)
+);
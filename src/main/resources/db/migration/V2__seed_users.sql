@@ -4,4 +4,6 @@ VALUES
     ('Stephen Curry', 'stephen.curry@nba.com', '+1 23 98765-4322', '1988-03-14', 'EDITOR'),
     ('Kevin Durant', 'kevin.durant@nba.com', '+1 23 98765-4323', '1988-09-29', 'VIEWER'),
     ('Giannis Antetokounmpo', 'giannis.antetokounmpo@nba.com', '+1 23 98765-4324', '1994-12-06', 'EDITOR'),
-    ('Damian Lillard', 'damian.lillard@nba.com', '+1 23 98765-4325', '1999-02-28', 'VIEWER');
\ No newline at end of file
+    ('Damian Lillard', 'damian.lillard@nba.com', '+1 23 98765-4325', '1999-02-28', 'VIEWER');
+
+UPDATE users_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 1 FROM users));
@@ -0,0 +1,4 @@
+-- Filtered pages are read as WHERE <filter> AND id > ? ORDER BY id LIMIT n. With user_type fixed this index
+-- returns the matches already in id order, so a page stops after n rows; through (user_type, birth_date)
+-- every match of the filter had to be sorted on each page.
+CREATE INDEX idx_users_user_type_id ON users (user_type, id);
@@ -0,0 +1,25 @@
+package com.rafael.rocha.spring_challenge;
+
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+
+import java.util.Date;
+
+/**
+ * Valid user requests for tests that only care about the name and email.
+ */
+public final class UserRequests {
+
+    private UserRequests() {
+    }
+
+    public static UserRequestDTO userRequest(String fullName, String email) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setFullName(fullName);
+        request.setEmail(email);
+        request.setPhone("+1 23 98765-4321");
+        request.setBirthDate(new Date(0));
+        request.setUserType(UserType.VIEWER);
+        return request;
+    }
+}
@@ -0,0 +1,127 @@
+package com.rafael.rocha.spring_challenge.admission;
+
+import com.rafael.rocha.spring_challenge.admission.AdmissionControlFilter.EndpointClass;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "techmanage.admission.enabled=true",
+        "techmanage.admission.requests-per-second=1",
+        "techmanage.admission.burst=2",
+        "techmanage.admission.write.max-concurrent=1",
+        "techmanage.admission.write.max-queued=0",
+        "management.endpoints.web.exposure.include=admission"
+})
+@AutoConfigureMockMvc
+class AdmissionIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AdmissionControlFilter filter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        filter.getRateLimiter().setRate(1, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        filter.getRateLimiter().setRate(1, 2);
+        filter.getLimiter(EndpointClass.WRITE).setLimits(1, 0);
+    }
+
+    @Test
+    void clientOverItsRate_GetsTooManyRequests() throws Exception {
+        double shedBefore = shed("read", "rate_limited");
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/users").with(from("10.0.0.1")).header("X-API-Key", "greedy-" + i))
+                    .andExpect(status().isOk());
+        }
+        // A header of its own choosing does not get the client a fresh bucket
+        mockMvc.perform(get("/api/users").with(from("10.0.0.1")).header("X-API-Key", "greedy-2"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.message").value("Rate limit exceeded, please slow down"));
+
+        // Another client still has its own bucket
+        mockMvc.perform(get("/api/users").with(from("10.0.0.2")))
+                .andExpect(status().isOk());
+        assertEquals(shedBefore + 1, shed("read", "rate_limited"));
+    }
+
+    @Test
+    void writesOverConcurrencyLimit_AreShedWithServiceUnavailable() throws Exception {
+        double shedBefore = shed("write", "overloaded");
+        ConcurrencyLimiter writes = filter.getLimiter(EndpointClass.WRITE);
+        assertTrue(writes.acquire(Duration.ZERO));
+        try {
+            mockMvc.perform(delete("/api/users/{id}", 1L).with(from("10.0.0.3")))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "1"))
+                    .andExpect(jsonPath("$.status").value(503))
+                    .andExpect(jsonPath("$.message").value("Service is busy, please retry"));
+        } finally {
+            writes.release();
+        }
+
+        assertEquals(shedBefore + 1, shed("write", "overloaded"));
+        assertEquals(0, writes.getInFlight());
+    }
+
+    @Test
+    void limitsChangedThroughActuator_ApplyToTheNextRequest() throws Exception {
+        mockMvc.perform(post("/actuator/admission")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"requestsPerSecond\":1000,\"burst\":500,\"writeMaxConcurrent\":4}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.burst").value(500))
+                .andExpect(jsonPath("$.write.maxConcurrent").value(4))
+                .andExpect(jsonPath("$.write.maxQueued").value(0));
+
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(get("/api/users").with(from("10.0.0.4")))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/actuator/admission"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requestsPerSecond").value(1000.0))
+                .andExpect(jsonPath("$.read.inFlight").value(0));
+    }
+
+    private static RequestPostProcessor from(String address) {
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+
+    private double shed(String endpoint, String reason) {
+        return meterRegistry.get("techmanage.admission.shed")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .counter()
+                .count();
+    }
+}
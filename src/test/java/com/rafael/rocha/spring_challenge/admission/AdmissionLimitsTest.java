@@ -0,0 +1,77 @@
+package com.rafael.rocha.spring_challenge.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionLimitsTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tokenBucket_AllowsBurstThenRefillsAtRate() {
+        long nanosPerToken = SECOND / 10;
+        TokenBucket bucket = new TokenBucket(0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryTake(0, nanosPerToken, 3));
+        }
+        assertEquals(nanosPerToken, bucket.tryTake(0, nanosPerToken, 3));
+
+        assertEquals(0, bucket.tryTake(nanosPerToken, nanosPerToken, 3));
+        assertTrue(bucket.tryTake(nanosPerToken, nanosPerToken, 3) > 0);
+
+        // Idle for longer than a refill: back to a full bucket, never more
+        long later = 10 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, bucket.tryTake(later, nanosPerToken, 3));
+        }
+        assertTrue(bucket.tryTake(later, nanosPerToken, 3) > 0);
+    }
+
+    @Test
+    void clientRateLimiter_KeepsABucketPerClient() {
+        ClientRateLimiter rateLimiter = new ClientRateLimiter(100, 1, 1);
+
+        assertEquals(0, rateLimiter.tryAcquire("key:a"));
+        assertTrue(rateLimiter.tryAcquire("key:a") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("key:b"));
+        assertEquals(2, rateLimiter.getTrackedClients());
+
+        assertThrows(IllegalArgumentException.class, () -> rateLimiter.setRate(0, 1));
+    }
+
+    @Test
+    void concurrencyLimiter_QueuesUpToLimitThenSheds() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1);
+        assertTrue(limiter.acquire(Duration.ZERO));
+
+        CompletableFuture<Boolean> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire(Duration.ofSeconds(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        while (limiter.getQueued() == 0) {
+            Thread.sleep(5);
+        }
+
+        assertFalse(limiter.acquire(Duration.ofSeconds(10)), "Line is full, so no waiting");
+
+        limiter.release();
+        assertTrue(waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(0, limiter.getQueued());
+
+        assertFalse(limiter.acquire(Duration.ofMillis(20)), "Times out waiting in line");
+        limiter.setLimits(2, 0);
+        assertTrue(limiter.acquire(Duration.ZERO));
+        assertEquals(2, limiter.getInFlight());
+    }
+}
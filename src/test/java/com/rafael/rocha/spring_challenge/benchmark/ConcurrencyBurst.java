@@ -0,0 +1,167 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Sends a burst of requests that are all in flight at once, one connection each, while sampling what the server
+ * holds to serve them: live threads, threads of its request pool, and database connections in use or awaited.
+ * Client and server share the JVM, so the process needs two file descriptors per request ({@code ulimit -n}).
+ */
+final class ConcurrencyBurst {
+
+    private static final long SAMPLE_INTERVAL_MILLIS = 5;
+    private static final Duration TIMEOUT = Duration.ofMinutes(5);
+
+    /**
+     * Connection pool gauges of the server under test.
+     */
+    interface PoolProbe {
+        int inUse();
+
+        int pending();
+    }
+
+    private ConcurrencyBurst() {
+    }
+
+    /**
+     * @param requestThreadPrefix name prefix of the server's request threads (Tomcat workers, Netty event loops)
+     */
+    static Report run(int requests, Function<ThreadLocalRandom, URI> uris, String requestThreadPrefix,
+                      PoolProbe pool) throws Exception {
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(2);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(TIMEOUT)
+                .executor(clientExecutor)
+                .build();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Sampler sampler = new Sampler(requestThreadPrefix, pool);
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[requests];
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[requests];
+
+        threads.resetPeakThreadCount();
+        Thread samplerThread = new Thread(sampler, "burst-sampler");
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < requests; i++) {
+                int slot = i;
+                HttpRequest request = HttpRequest.newBuilder(uris.apply(ThreadLocalRandom.current()))
+                        .timeout(TIMEOUT)
+                        .GET()
+                        .build();
+                long sent = System.nanoTime();
+                responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, failure) -> {
+                            latencies[slot] = System.nanoTime() - sent;
+                            if (failure != null || response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        });
+            }
+            CompletableFuture.allOf(responses).exceptionally(failure -> null)
+                    .get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+        } finally {
+            sampler.stop();
+            samplerThread.join();
+            clientExecutor.shutdownNow();
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        Arrays.sort(latencies);
+        return new Report(requests, errors.get(), elapsed,
+                millis(latencies, 0.50), millis(latencies, 0.99), millis(latencies, 1.0),
+                threads.getPeakThreadCount(), sampler.peakRequestThreads, sampler.peakInUse, sampler.peakPending);
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    record Report(int requests, int errors, Duration elapsed, double p50Millis, double p99Millis, double maxMillis,
+                  int peakJvmThreads, int peakRequestThreads, int peakConnectionsInUse, int peakPendingAcquires) {
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d errors=%d elapsed=%dms throughput=%.0f/s p50=%.1fms p99=%.1fms "
+                            + "max=%.1fms peakJvmThreads=%d peakRequestThreads=%d peakConnectionsInUse=%d "
+                            + "peakPendingAcquires=%d",
+                    requests, errors, elapsed.toMillis(), requests / (elapsed.toNanos() / 1e9),
+                    p50Millis, p99Millis, maxMillis, peakJvmThreads, peakRequestThreads,
+                    peakConnectionsInUse, peakPendingAcquires);
+        }
+    }
+
+    private static final class Sampler implements Runnable {
+
+        private final String requestThreadPrefix;
+        private final PoolProbe pool;
+        private final ThreadGroup root = rootThreadGroup();
+        private volatile boolean running = true;
+        private int peakRequestThreads;
+        private int peakInUse;
+        private int peakPending;
+
+        private Sampler(String requestThreadPrefix, PoolProbe pool) {
+            this.requestThreadPrefix = requestThreadPrefix;
+            this.pool = pool;
+        }
+
+        @Override
+        public void run() {
+            do {
+                sample();
+                try {
+                    Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } while (running);
+            sample();
+        }
+
+        private void sample() {
+            Thread[] live = new Thread[root.activeCount() * 2];
+            int requestThreads = 0;
+            for (int i = root.enumerate(live, true) - 1; i >= 0; i--) {
+                if (live[i].getName().startsWith(requestThreadPrefix)) {
+                    requestThreads++;
+                }
+            }
+            peakRequestThreads = Math.max(peakRequestThreads, requestThreads);
+            peakInUse = Math.max(peakInUse, pool.inUse());
+            peakPending = Math.max(peakPending, pool.pending());
+        }
+
+        void stop() {
+            running = false;
+        }
+
+        private static ThreadGroup rootThreadGroup() {
+            ThreadGroup group = Thread.currentThread().getThreadGroup();
+            while (group.getParent() != null) {
+                group = group.getParent();
+            }
+            return group;
+        }
+    }
+}
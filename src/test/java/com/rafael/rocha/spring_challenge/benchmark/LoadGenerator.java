@@ -0,0 +1,183 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load: a fixed number of clients, each sending its next request as soon as the
+ * previous one completes. Every client picks an operation by weight and records latencies in its own
+ * buffers; buffers are merged at the end, so measuring adds no contention of its own.
+ */
+final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    /**
+     * One kind of request. Returns the HTTP status; anything outside 2xx counts as an error.
+     */
+    @FunctionalInterface
+    interface Operation {
+        int execute(HttpClient httpClient, ThreadLocalRandom random) throws Exception;
+    }
+
+    record WeightedOperation(String name, int weight, Operation operation) {
+    }
+
+    /**
+     * Single-operation load, every request built by {@code requests}.
+     */
+    static Result run(int clients, Duration warmup, Duration duration,
+                      Function<ThreadLocalRandom, HttpRequest> requests) throws Exception {
+        Operation operation = (httpClient, random) ->
+                httpClient.send(requests.apply(random), HttpResponse.BodyHandlers.discarding()).statusCode();
+        return run(clients, warmup, duration, List.of(new WeightedOperation("request", 1, operation))).overall();
+    }
+
+    static Report run(int clients, Duration warmup, Duration duration,
+                      List<WeightedOperation> operations) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        int[] cumulativeWeights = new int[operations.size()];
+        int totalWeight = 0;
+        for (int i = 0; i < operations.size(); i++) {
+            totalWeight += operations.get(i).weight();
+            cumulativeWeights[i] = totalWeight;
+        }
+        int weightSum = totalWeight;
+
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        try {
+            long start = System.nanoTime();
+            long measureFrom = start + warmup.toNanos();
+            long stopAt = measureFrom + duration.toNanos();
+
+            List<Future<Recorder[]>> futures = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                futures.add(executor.submit(() -> {
+                    Recorder[] recorders = newRecorders(operations.size());
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    long now;
+                    while ((now = System.nanoTime()) < stopAt) {
+                        int index = pick(cumulativeWeights, random.nextInt(weightSum));
+                        int status = execute(operations.get(index).operation(), httpClient, random);
+                        long latency = System.nanoTime() - now;
+                        if (now >= measureFrom) {
+                            recorders[index].record(latency, status);
+                        }
+                    }
+                    return recorders;
+                }));
+            }
+
+            Recorder[] merged = newRecorders(operations.size());
+            for (Future<Recorder[]> future : futures) {
+                Recorder[] recorders = future.get();
+                for (int i = 0; i < recorders.length; i++) {
+                    merged[i].merge(recorders[i]);
+                }
+            }
+
+            Recorder overall = new Recorder();
+            Map<String, Result> byOperation = new LinkedHashMap<>();
+            for (int i = 0; i < merged.length; i++) {
+                overall.merge(merged[i]);
+                byOperation.put(operations.get(i).name(), merged[i].toResult(duration));
+            }
+            return new Report(overall.toResult(duration), byOperation);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static int pick(int[] cumulativeWeights, int value) {
+        int index = Arrays.binarySearch(cumulativeWeights, value + 1);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private static int execute(Operation operation, HttpClient httpClient, ThreadLocalRandom random) {
+        try {
+            return operation.execute(httpClient, random);
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    private static Recorder[] newRecorders(int count) {
+        Recorder[] recorders = new Recorder[count];
+        Arrays.setAll(recorders, i -> new Recorder());
+        return recorders;
+    }
+
+    record Report(Result overall, Map<String, Result> operations) {
+    }
+
+    record Result(long requests, long errors, double throughput, double p50Millis, double p90Millis,
+                  double p99Millis, double p999Millis, double maxMillis) {
+
+        @Override
+        public String toString() {
+            return String.format("requests=%d errors=%d throughput=%.0f/s p50=%.2fms p90=%.2fms p99=%.2fms "
+                    + "p99.9=%.2fms max=%.2fms", requests, errors, throughput, p50Millis, p90Millis, p99Millis,
+                    p999Millis, maxMillis);
+        }
+    }
+
+    private static final class Recorder {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private long errors;
+
+        void record(long latency, int status) {
+            add(latency);
+            if (status < 200 || status >= 300) {
+                errors++;
+            }
+        }
+
+        void merge(Recorder other) {
+            for (int i = 0; i < other.count; i++) {
+                add(other.latencies[i]);
+            }
+            errors += other.errors;
+        }
+
+        Result toResult(Duration duration) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            return new Result(count, errors, count / (duration.toNanos() / 1e9),
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1e6);
+        }
+
+        private void add(long latency) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latency;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.reactive.ReactiveUserApplication;
+import com.rafael.rocha.spring_challenge.reactive.service.ReactiveUserService;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Threads and database connections the reactive variant holds with {@code burst.requests} (10k by default)
+ * requests in flight at once. Compare with {@link ServletConcurrencyBenchmarkTest}:
+ * <pre>
+ * ulimit -n 65536
+ * mvn test -Dtest='*ConcurrencyBenchmarkTest' -Dbenchmark=true
+ * </pre>
+ * Every request is a projected read, so neither stack answers from a cache. H2's R2DBC driver wraps the blocking
+ * engine, so point both tests at MySQL for realistic latencies, e.g. {@code -Dspring.r2dbc.url=r2dbc:mysql://...}
+ * and {@code -Dspring.datasource.url=jdbc:mysql://...}; thread and connection counts hold either way.
+ */
+@SpringBootTest(classes = ReactiveUserApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.main.web-application-type=reactive",
+                // Queue for connections as long as Hikari does on the servlet side, rather than shed load
+                "spring.r2dbc.pool.max-acquire-time=30s",
+                "logging.level.com.rafael.rocha.spring_challenge=WARN"})
+@ActiveProfiles("reactive")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReactiveConcurrencyBenchmarkTest {
+
+    private static final int USERS = 10_000;
+    private static final int REQUESTS = Integer.getInteger("burst.requests", 10_000);
+    private static final int WARMUP_REQUESTS = 1_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ReactiveUserService userService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM users").then().block();
+        ids = new ArrayList<>(USERS);
+        for (int batch = 0; batch < USERS / 1_000; batch++) {
+            List<UserRequestDTO> requests = new ArrayList<>(1_000);
+            for (int i = 0; i < 1_000; i++) {
+                int n = batch * 1_000 + i;
+                UserRequestDTO request = new UserRequestDTO();
+                request.setFullName("Load User " + n);
+                request.setEmail("load" + n + "@example.com");
+                request.setPhone("+1 23 98765-4321");
+                request.setBirthDate(new Date(0));
+                request.setUserType(UserType.values()[n % UserType.values().length]);
+                requests.add(request);
+            }
+            userService.createUsers(requests).block().getResults()
+                    .forEach(result -> ids.add(result.getUser().getId()));
+        }
+    }
+
+    @Test
+    void concurrentReads() throws Exception {
+        String base = "http://localhost:" + port + "/api/users/";
+        ConnectionPool pool = (ConnectionPool) connectionFactory;
+        ConcurrencyBurst.PoolProbe probe = new ConcurrencyBurst.PoolProbe() {
+            @Override
+            public int inUse() {
+                return pool.getMetrics().map(PoolMetrics::acquiredSize).orElse(0);
+            }
+
+            @Override
+            public int pending() {
+                return pool.getMetrics().map(PoolMetrics::pendingAcquireSize).orElse(0);
+            }
+        };
+
+        ConcurrencyBurst.run(WARMUP_REQUESTS, random -> uri(base, random.nextInt(ids.size())),
+                "reactor-http-", probe);
+        ConcurrencyBurst.Report report = ConcurrencyBurst.run(REQUESTS,
+                random -> uri(base, random.nextInt(ids.size())), "reactor-http-", probe);
+
+        System.out.printf("concurrency benchmark: stack=webflux-r2dbc poolMax=%d %s%n",
+                pool.getMetrics().map(PoolMetrics::getMaxAllocatedSize).orElse(0), report);
+        assertEquals(0, report.errors());
+    }
+
+    private URI uri(String base, int index) {
+        return URI.create(base + ids.get(index) + "?fields=fullName,email");
+    }
+}
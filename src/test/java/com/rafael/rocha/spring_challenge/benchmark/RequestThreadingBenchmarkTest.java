@@ -0,0 +1,98 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Request throughput and tail latency of one threading mode. Run it once per mode and compare:
+ * <pre>
+ * mvn test -Dtest=RequestThreadingBenchmarkTest -Dbenchmark=true
+ * mvn test -Pjava21 -Dtest=RequestThreadingBenchmarkTest -Dbenchmark=true -Dspring.profiles.active=virtual-threads
+ * </pre>
+ * Clients outnumber Tomcat's platform threads, and every request blocks on the database
+ * (projected reads skip the cache), which is where the two modes differ.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"server.tomcat.threads.max=50", "logging.level.com.rafael.rocha.spring_challenge=WARN"})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RequestThreadingBenchmarkTest {
+
+    private static final int USERS = 10_000;
+    private static final int CLIENTS = 400;
+    private static final Duration WARMUP = Duration.ofSeconds(10);
+    private static final Duration DURATION = Duration.ofSeconds(30);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAllInBatch();
+        ids = new ArrayList<>(USERS);
+        for (int batch = 0; batch < USERS / 1_000; batch++) {
+            List<UserRequestDTO> requests = new ArrayList<>(1_000);
+            for (int i = 0; i < 1_000; i++) {
+                int n = batch * 1_000 + i;
+                UserRequestDTO request = new UserRequestDTO();
+                request.setFullName("Load User " + n);
+                request.setEmail("load" + n + "@example.com");
+                request.setPhone("+1 23 98765-4321");
+                request.setBirthDate(new Date(0));
+                request.setUserType(UserType.values()[n % UserType.values().length]);
+                requests.add(request);
+            }
+            userService.createUsers(requests).getResults()
+                    .forEach(result -> ids.add(result.getUser().getId()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void readMix() throws Exception {
+        String base = "http://localhost:" + port + "/api/users";
+        LoadGenerator.Result result = LoadGenerator.run(CLIENTS, WARMUP, DURATION, random -> {
+            String uri = random.nextInt(4) == 0
+                    ? base + "?limit=20&userType=EDITOR&cursor="
+                    : base + "/" + ids.get(random.nextInt(ids.size())) + "?fields=fullName,email";
+            return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+        });
+
+        String mode = virtualThreads && Runtime.version().feature() >= 21 ? "virtual" : "platform";
+        System.out.printf("threading benchmark: mode=%s clients=%d %s%n", mode, CLIENTS, result);
+        assertEquals(0, result.errors());
+    }
+}
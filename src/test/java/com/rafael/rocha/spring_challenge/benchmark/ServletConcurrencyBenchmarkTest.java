@@ -0,0 +1,107 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * The servlet baseline for {@link ReactiveConcurrencyBenchmarkTest}: the same burst against Tomcat and JPA with
+ * their default thread and connection pools.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.rafael.rocha.spring_challenge=WARN")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ServletConcurrencyBenchmarkTest {
+
+    private static final int USERS = 10_000;
+    private static final int REQUESTS = Integer.getInteger("burst.requests", 10_000);
+    private static final int WARMUP_REQUESTS = 1_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findAll().forEach(user -> userService.deleteUserById(user.getId()));
+        ids = new ArrayList<>(USERS);
+        for (int batch = 0; batch < USERS / 1_000; batch++) {
+            List<UserRequestDTO> requests = new ArrayList<>(1_000);
+            for (int i = 0; i < 1_000; i++) {
+                int n = batch * 1_000 + i;
+                UserRequestDTO request = new UserRequestDTO();
+                request.setFullName("Load User " + n);
+                request.setEmail("load" + n + "@example.com");
+                request.setPhone("+1 23 98765-4321");
+                request.setBirthDate(new Date(0));
+                request.setUserType(UserType.values()[n % UserType.values().length]);
+                requests.add(request);
+            }
+            userService.createUsers(requests).getResults()
+                    .forEach(result -> ids.add(result.getUser().getId()));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        ids.forEach(userService::deleteUserById);
+    }
+
+    @Test
+    void concurrentReads() throws Exception {
+        String base = "http://localhost:" + port + "/api/users/";
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+        ConcurrencyBurst.PoolProbe probe = new ConcurrencyBurst.PoolProbe() {
+            @Override
+            public int inUse() {
+                return pool.getActiveConnections();
+            }
+
+            @Override
+            public int pending() {
+                return pool.getThreadsAwaitingConnection();
+            }
+        };
+
+        ConcurrencyBurst.run(WARMUP_REQUESTS, random -> uri(base, random.nextInt(ids.size())),
+                "http-nio-", probe);
+        ConcurrencyBurst.Report report = ConcurrencyBurst.run(REQUESTS,
+                random -> uri(base, random.nextInt(ids.size())), "http-nio-", probe);
+
+        System.out.printf("concurrency benchmark: stack=mvc-jpa poolMax=%d %s%n",
+                dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize(), report);
+        assertEquals(0, report.errors());
+    }
+
+    private URI uri(String base, int index) {
+        return URI.create(base + ids.get(index) + "?fields=fullName,email");
+    }
+}
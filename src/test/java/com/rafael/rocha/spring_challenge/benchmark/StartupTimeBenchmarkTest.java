@@ -0,0 +1,177 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Time from JVM start to the first successful {@code GET /api/users}, for the packaged application started the way
+ * the startup profile builds it and the way it used to be. Each mode is started in a new JVM several times after a
+ * warmup start, whose first-boot work (creating or baselining the schema) is not counted. Needs the jars built by
+ * the startup profile and a database the application can reach:
+ * <pre>
+ * mvn -Pstartup package -DskipTests
+ * mvn test -Dtest=StartupTimeBenchmarkTest -Dbenchmark=true -Dstartup.runs=5
+ * </pre>
+ * Properties: {@code startup.runs}, {@code startup.datasource.url}, {@code startup.datasource.username},
+ * {@code startup.datasource.password} (the application's own datasource when not set), {@code startup.jvmArgs}
+ * added to every start, {@code startup.output} and an optional {@code startup.label} copied into the report.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StartupTimeBenchmarkTest {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+    private static final Duration TIMEOUT = Duration.ofMinutes(2);
+    private static final Path TARGET = Path.of("target");
+    private static final Path JAR = TARGET.resolve("spring-challenge-0.0.1-SNAPSHOT.jar");
+    private static final Path STARTUP = TARGET.resolve("startup");
+    private static final Path OUTPUT = Path.of(System.getProperty("startup.output", "target/startup-benchmark/startup.json"));
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    private record Mode(String name, Path workingDirectory, List<String> jvmArgs, List<String> args) {
+    }
+
+    private record Result(long minMillis, long medianMillis, long maxMillis, List<Long> runs) {
+    }
+
+    @Test
+    void startupToFirstRequest() throws Exception {
+        assertTrue(Files.exists(JAR) && Files.exists(STARTUP.resolve("application.jsa")),
+                "Build with mvn -Pstartup package first");
+
+        // The migrations go first and create the schema; Hibernate's update cannot create users_seq as MySQL needs it
+        List<Mode> modes = List.of(
+                new Mode("migrations", TARGET, List.of(), List.of()),
+                new Mode("migrations-aot-cds", STARTUP, List.of(
+                        "-XX:SharedArchiveFile=application.jsa",
+                        "-Xlog:cds=error",
+                        "-Dspring.aot.enabled=true"), List.of()),
+                // schema.sql, Hibernate schema diffing and data.sql on every boot, as before the migrations
+                new Mode("update-and-seed", TARGET, List.of(), List.of(
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=update",
+                        "--spring.sql.init.mode=always",
+                        "--spring.sql.init.schema-locations=classpath:db/migration/V1__create_schema.sql",
+                        "--spring.sql.init.data-locations=classpath:db/migration/V2__seed_users.sql",
+                        "--spring.jpa.defer-datasource-initialization=true")));
+
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (Mode mode : modes) {
+            startToFirstRequest(mode);
+            List<Long> runs = new ArrayList<>(RUNS);
+            for (int run = 0; run < RUNS; run++) {
+                runs.add(startToFirstRequest(mode));
+            }
+            long[] sorted = runs.stream().mapToLong(Long::longValue).sorted().toArray();
+            Result result = new Result(sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1], runs);
+            results.put(mode.name(), result);
+            System.out.printf("startup %-20s min=%dms median=%dms max=%dms%n",
+                    mode.name(), result.minMillis(), result.medianMillis(), result.maxMillis());
+        }
+        writeReport(results);
+    }
+
+    /**
+     * @return milliseconds from launching the JVM to the first 200 from {@code GET /api/users}
+     */
+    private long startToFirstRequest(Mode mode) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(mode.jvmArgs());
+        String jvmArgs = System.getProperty("startup.jvmArgs", "");
+        if (!jvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        command.add("-jar");
+        command.add(JAR.getFileName().toString());
+        command.add("--server.port=" + port);
+        command.add("--logging.level.root=WARN");
+        datasourceArgs(command);
+        command.addAll(mode.args());
+
+        Path log = OUTPUT.toAbsolutePath().getParent().resolve(mode.name() + ".log");
+        Files.createDirectories(log.getParent());
+        ProcessBuilder processBuilder = new ProcessBuilder(command)
+                .directory(mode.workingDirectory().toFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+
+        long started = System.nanoTime();
+        Process process = processBuilder.start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users"))
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            while (System.nanoTime() - started < TIMEOUT.toNanos()) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException(mode.name() + " exited with " + process.exitValue()
+                            + ", see " + log);
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+                    }
+                } catch (IOException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(5);
+            }
+            throw new IllegalStateException(mode.name() + " did not answer within " + TIMEOUT + ", see " + log);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static void datasourceArgs(List<String> command) {
+        for (String property : List.of("url", "username", "password")) {
+            String value = System.getProperty("startup.datasource." + property);
+            if (value != null) {
+                command.add("--spring.datasource." + property + "=" + value);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void writeReport(Map<String, Result> results) throws IOException {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("label", System.getProperty("startup.label"));
+        document.put("runs", RUNS);
+        document.put("java", System.getProperty("java.version"));
+        document.put("modes", results);
+
+        Files.createDirectories(OUTPUT.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(OUTPUT.toFile(), document);
+        System.out.println("startup report written to " + OUTPUT.toAbsolutePath());
+    }
+}
@@ -0,0 +1,221 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * End-to-end load against every {@code /api/users} endpoint: the full context on the embedded H2
+ * database (MySQL mode), a seeded table, and a weighted mix of reads and writes from concurrent clients.
+ * Throughput and per-endpoint latency percentiles are written as JSON so runs can be compared across commits:
+ * <pre>
+ * mvn test -Dtest=UserApiLoadTest -Dbenchmark=true -Dloadtest.users=50000 -Dloadtest.clients=64
+ * </pre>
+ * Properties: {@code loadtest.users}, {@code loadtest.clients}, {@code loadtest.warmupSeconds},
+ * {@code loadtest.durationSeconds}, {@code loadtest.output} and an optional {@code loadtest.label}
+ * (e.g. the commit id) copied into the report.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.rafael.rocha.spring_challenge=WARN")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserApiLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 10_000);
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 32);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("loadtest.warmupSeconds", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.durationSeconds", 30));
+    private static final Path OUTPUT = Path.of(System.getProperty("loadtest.output", "target/loadtest/user-api.json"));
+    private static final int SEED_BATCH = 1_000;
+    private static final int WRITE_BATCH = 10;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong emailSequence = new AtomicLong();
+    private final Queue<Long> deletable = new ConcurrentLinkedQueue<>();
+    private List<Long> ids;
+    private List<String> emails;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAllInBatch();
+        ids = new ArrayList<>(USERS);
+        emails = new ArrayList<>(USERS);
+        // Rows past USERS feed DELETE, so deletes never touch the rows that reads and updates pick from.
+        int disposable = USERS / 10;
+        for (int from = 0; from < USERS + disposable; from += SEED_BATCH) {
+            List<UserRequestDTO> requests = new ArrayList<>(SEED_BATCH);
+            for (int n = from; n < Math.min(from + SEED_BATCH, USERS + disposable); n++) {
+                requests.add(newUser(n, "seed" + n + "@example.com"));
+            }
+            userService.createUsers(requests).getResults().forEach(result -> {
+                if (ids.size() < USERS) {
+                    ids.add(result.getUser().getId());
+                    emails.add(result.getUser().getEmail());
+                } else {
+                    deletable.add(result.getUser().getId());
+                }
+            });
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void mixedWorkload() throws Exception {
+        String base = "http://localhost:" + port + "/api/users";
+        List<LoadGenerator.WeightedOperation> operations = List.of(
+                get("list", 8, random -> base + "?limit=20"),
+                get("listFiltered", 4, random -> base + "?limit=20&userType=" + randomType(random)
+                        + "&namePrefix=Load%20User%20" + random.nextInt(10)),
+                get("getById", 24, random -> base + "/" + randomId(random)),
+                get("getByIdFields", 8, random -> base + "/" + randomId(random) + "?fields=fullName,email"),
+                get("getByEmail", 8, random -> base + "/by-email?email="
+                        + URLEncoder.encode(emails.get(random.nextInt(emails.size())), StandardCharsets.UTF_8)),
+                get("search", 8, random -> base + "/search?limit=10&q=user%20" + random.nextInt(USERS)),
+                get("export", 1, random -> base + "/export"),
+                new LoadGenerator.WeightedOperation("create", 12, (httpClient, random) -> {
+                    HttpResponse<String> response = httpClient.send(
+                            json(base, "POST", newUser(random.nextInt(USERS), nextEmail())),
+                            HttpResponse.BodyHandlers.ofString());
+                    if (response.statusCode() == 201) {
+                        deletable.add(objectMapper.readTree(response.body()).get("id").asLong());
+                    }
+                    return response.statusCode();
+                }),
+                new LoadGenerator.WeightedOperation("createBatch", 2, (httpClient, random) -> {
+                    List<UserRequestDTO> batch = new ArrayList<>(WRITE_BATCH);
+                    for (int i = 0; i < WRITE_BATCH; i++) {
+                        batch.add(newUser(random.nextInt(USERS), nextEmail()));
+                    }
+                    return discard(httpClient, json(base + "/batch", "POST", batch));
+                }),
+                new LoadGenerator.WeightedOperation("update", 12, (httpClient, random) -> {
+                    int n = random.nextInt(ids.size());
+                    UserRequestDTO request = newUser(random.nextInt(USERS), emails.get(n));
+                    return discard(httpClient, json(base + "/" + ids.get(n), "PUT", request));
+                }),
+                new LoadGenerator.WeightedOperation("patch", 6, (httpClient, random) -> {
+                    UserPatchDTO patch = new UserPatchDTO();
+                    patch.setUserType(randomType(random));
+                    return discard(httpClient, json(base + "/" + randomId(random), "PATCH", patch));
+                }),
+                new LoadGenerator.WeightedOperation("delete", 10, (httpClient, random) -> {
+                    Long id = deletable.poll();
+                    if (id == null) {
+                        return -1;
+                    }
+                    return discard(httpClient, HttpRequest.newBuilder(URI.create(base + "/" + id)).DELETE().build());
+                }));
+
+        LoadGenerator.Report report = LoadGenerator.run(CLIENTS, WARMUP, DURATION, operations);
+
+        System.out.printf("load test: users=%d clients=%d %s%n", USERS, CLIENTS, report.overall());
+        report.operations().forEach((name, result) -> System.out.printf("  %-14s %s%n", name, result));
+        writeReport(report);
+        assertEquals(0, report.overall().errors());
+    }
+
+    private LoadGenerator.WeightedOperation get(String name, int weight,
+                                                Function<ThreadLocalRandom, String> uris) {
+        return new LoadGenerator.WeightedOperation(name, weight, (httpClient, random) ->
+                discard(httpClient, HttpRequest.newBuilder(URI.create(uris.apply(random))).GET().build()));
+    }
+
+    private HttpRequest json(String uri, String method, Object body) throws Exception {
+        return HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private static int discard(HttpClient httpClient, HttpRequest request) throws Exception {
+        return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private long randomId(ThreadLocalRandom random) {
+        return ids.get(random.nextInt(ids.size()));
+    }
+
+    private static UserType randomType(ThreadLocalRandom random) {
+        return UserType.values()[random.nextInt(UserType.values().length)];
+    }
+
+    private String nextEmail() {
+        return "load" + emailSequence.incrementAndGet() + "@example.com";
+    }
+
+    private static UserRequestDTO newUser(int n, String email) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setFullName("Load User " + n);
+        request.setEmail(email);
+        request.setPhone("+1 23 98765-4321");
+        request.setBirthDate(new Date(86_400_000L * (n % 20_000)));
+        request.setUserType(UserType.values()[n % UserType.values().length]);
+        return request;
+    }
+
+    private void writeReport(LoadGenerator.Report report) throws Exception {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("timestamp", Instant.now().toString());
+        document.put("label", System.getProperty("loadtest.label"));
+        document.put("javaVersion", Runtime.version().toString());
+        document.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        document.put("users", USERS);
+        document.put("clients", CLIENTS);
+        document.put("warmupSeconds", WARMUP.toSeconds());
+        document.put("durationSeconds", DURATION.toSeconds());
+        document.put("overall", report.overall());
+        document.put("operations", report.operations());
+
+        Files.createDirectories(OUTPUT.toAbsolutePath().getParent());
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(OUTPUT.toFile(), document);
+        System.out.println("load test report written to " + OUTPUT.toAbsolutePath());
+    }
+}
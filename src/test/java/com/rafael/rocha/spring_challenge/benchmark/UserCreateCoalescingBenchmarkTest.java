@@ -0,0 +1,149 @@
+package com.rafael.rocha.spring_challenge.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.service.UserCreateCoalescer;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * {@code POST /api/users} from one client and from many concurrent clients, with every create in its own
+ * transaction, then with creates coalesced into group-committed batches, reporting the throughput gained and the
+ * latency the wait for a batch adds. Point it at the production database for numbers that include a real commit:
+ * <pre>
+ * mvn test -Dtest=UserCreateCoalescingBenchmarkTest -Dbenchmark=true -Dcoalescing.clients=64
+ * </pre>
+ * Properties: {@code coalescing.clients}, {@code coalescing.warmupSeconds}, {@code coalescing.durationSeconds},
+ * {@code coalescing.output} and an optional {@code coalescing.label} copied into the report; the coalescer itself
+ * is tuned with the usual {@code techmanage.write-coalescing.*} properties.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "logging.level.com.rafael.rocha.spring_challenge=WARN")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UserCreateCoalescingBenchmarkTest {
+
+    private static final int CLIENTS = Integer.getInteger("coalescing.clients", 32);
+    private static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("coalescing.warmupSeconds", 10));
+    private static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("coalescing.durationSeconds", 30));
+    private static final Path OUTPUT = Path.of(System.getProperty("coalescing.output",
+            "target/loadtest/user-create-coalescing.json"));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserCreateCoalescer userCreateCoalescer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong emailSequence = new AtomicLong();
+
+    @AfterEach
+    void tearDown() {
+        userCreateCoalescer.setEnabled(false);
+        userRepository.deleteAllInBatch();
+    }
+
+    /**
+     * A lone client pays the full {@code max-wait} on every create, so it shows the latency added; many clients show
+     * the throughput gained.
+     */
+    @Test
+    void singleCreates_AloneAndCoalesced() throws Exception {
+        Map<String, Object> modes = new LinkedHashMap<>();
+        for (int clients : new int[]{1, CLIENTS}) {
+            userCreateCoalescer.setEnabled(false);
+            LoadGenerator.Result alone = create(clients);
+            modes.put("transactionPerCreate-" + clients, alone);
+            System.out.printf("create clients=%-3d %-22s %s%n", clients, "transaction-per-create", alone);
+
+            userCreateCoalescer.setEnabled(true);
+            DistributionSummary batches = meterRegistry.get("techmanage.user.create.batch").summary();
+            long batchesBefore = batches.count();
+            double usersBefore = batches.totalAmount();
+            LoadGenerator.Result coalesced = create(clients);
+            double meanBatch = (batches.totalAmount() - usersBefore) / Math.max(1, batches.count() - batchesBefore);
+            modes.put("coalesced-" + clients, Map.of("result", coalesced, "meanBatch", meanBatch));
+            System.out.printf("create clients=%-3d %-22s %s meanBatch=%.1f%n", clients, "coalesced", coalesced,
+                    meanBatch);
+            System.out.printf("coalescing clients=%d: throughput x%.2f, p50 %+.2fms, p99 %+.2fms%n", clients,
+                    coalesced.throughput() / alone.throughput(),
+                    coalesced.p50Millis() - alone.p50Millis(), coalesced.p99Millis() - alone.p99Millis());
+
+            assertEquals(0, alone.errors());
+            assertEquals(0, coalesced.errors());
+        }
+        writeReport(modes);
+    }
+
+    private LoadGenerator.Result create(int clients) throws Exception {
+        String base = "http://localhost:" + port + "/api/users";
+        return LoadGenerator.run(clients, WARMUP, DURATION, random -> json(base, newUser(random.nextInt(1_000))));
+    }
+
+    private HttpRequest json(String uri, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(uri))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private UserRequestDTO newUser(int n) {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setFullName("Coalesced User " + n);
+        request.setEmail("coalesced" + emailSequence.incrementAndGet() + "@example.com");
+        request.setPhone("+1 23 98765-4321");
+        request.setBirthDate(new Date(86_400_000L * n));
+        request.setUserType(UserType.values()[n % UserType.values().length]);
+        return request;
+    }
+
+    private void writeReport(Map<String, Object> modes) throws Exception {
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("timestamp", Instant.now().toString());
+        document.put("label", System.getProperty("coalescing.label"));
+        document.put("javaVersion", Runtime.version().toString());
+        document.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        document.put("clients", CLIENTS);
+        document.put("warmupSeconds", WARMUP.toSeconds());
+        document.put("durationSeconds", DURATION.toSeconds());
+        document.put("modes", modes);
+
+        Files.createDirectories(OUTPUT.toAbsolutePath().getParent());
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(OUTPUT.toFile(), document);
+        System.out.println("coalescing report written to " + OUTPUT.toAbsolutePath());
+    }
+}
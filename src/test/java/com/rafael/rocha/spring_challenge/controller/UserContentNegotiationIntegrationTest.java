@@ -0,0 +1,154 @@
+package com.rafael.rocha.spring_challenge.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.compression.enabled=true",
+        "server.compression.min-response-size=2KB",
+        "server.compression.mime-types=application/json,application/cbor,application/x-jackson-smile"
+})
+class UserContentNegotiationIntegrationTest {
+
+    private static final ObjectMapper CBOR = new ObjectMapper(new CBORFactory());
+    private static final ObjectMapper SMILE = new ObjectMapper(new SmileFactory());
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findAll().forEach(user -> userService.deleteUserById(user.getId()));
+        List<UserRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            UserRequestDTO request = new UserRequestDTO();
+            request.setFullName("Negotiated User " + i);
+            request.setEmail("negotiated" + i + "@example.com");
+            request.setPhone("+1 23 98765-4321");
+            request.setBirthDate(new Date(86_400_000L * i));
+            request.setUserType(UserType.values()[i % UserType.values().length]);
+            requests.add(request);
+        }
+        userService.createUsers(requests);
+    }
+
+    @Test
+    void listUsers_DefaultsToJson() throws Exception {
+        HttpResponse<byte[]> response = get("/api/users?limit=50", "*/*", false);
+
+        assertEquals(200, response.statusCode());
+        assertTrue(contentType(response).startsWith("application/json"));
+        JsonNode page = objectMapper.readTree(response.body());
+        assertEquals(50, page.get("content").size());
+        assertTrue(page.get("content").get(0).get("birthDate").isTextual());
+    }
+
+    @Test
+    void listUsers_InCborAndSmileAreSmallerThanJson() throws Exception {
+        int json = get("/api/users?limit=50", "application/json", false).body().length;
+
+        HttpResponse<byte[]> cbor = get("/api/users?limit=50", "application/cbor", false);
+        assertEquals("application/cbor", contentType(cbor));
+        JsonNode cborPage = CBOR.readTree(cbor.body());
+        assertEquals(50, cborPage.get("content").size());
+        assertTrue(cborPage.get("content").get(0).get("birthDate").canConvertToLong());
+
+        HttpResponse<byte[]> smile = get("/api/users?limit=50", "application/x-jackson-smile", false);
+        assertEquals("application/x-jackson-smile", contentType(smile));
+        assertEquals(50, SMILE.readTree(smile.body()).get("content").size());
+
+        assertTrue(cbor.body().length < json, "CBOR " + cbor.body().length + " vs JSON " + json);
+        assertTrue(smile.body().length < json, "Smile " + smile.body().length + " vs JSON " + json);
+    }
+
+    @Test
+    void createUser_AcceptsCborBody() throws Exception {
+        UserRequestDTO request = new UserRequestDTO();
+        request.setFullName("Binary Client");
+        request.setEmail("binary.client@example.com");
+        request.setPhone("+1 23 98765-4321");
+        request.setBirthDate(new Date(0));
+        request.setUserType(UserType.EDITOR);
+
+        HttpResponse<byte[]> response = httpClient.send(HttpRequest.newBuilder(uri("/api/users"))
+                        .header("Content-Type", "application/cbor")
+                        .header("Accept", "application/cbor")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(CBOR.writeValueAsBytes(request)))
+                        .build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals(201, response.statusCode());
+        JsonNode created = CBOR.readTree(response.body());
+        assertEquals("binary.client@example.com", created.get("email").asText());
+        assertEquals(0L, created.get("birthDate").asLong());
+    }
+
+    @Test
+    void largeResponses_AreGzippedWhenAccepted_SmallOnesAreNot() throws Exception {
+        HttpResponse<byte[]> large = get("/api/users?limit=50", "application/json", true);
+        assertEquals("gzip", large.headers().firstValue("Content-Encoding").orElse(null));
+        assertEquals(50, objectMapper.readTree(gunzip(large.body())).get("content").size());
+
+        HttpResponse<byte[]> small = get("/api/users?limit=1", "application/json", true);
+        assertTrue(small.headers().firstValue("Content-Encoding").isEmpty());
+        assertTrue(small.headers().firstValue("Content-Length").isPresent());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, boolean gzip) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).header("Accept", accept);
+        if (gzip) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        return httpClient.send(request.GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static String contentType(HttpResponse<?> response) {
+        return response.headers().firstValue("Content-Type").orElse("");
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
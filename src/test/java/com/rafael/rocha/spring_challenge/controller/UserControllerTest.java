@@ -1,29 +1,56 @@
 package com.rafael.rocha.spring_challenge.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.rocha.spring_challenge.config.ResponseCacheProperties;
+import com.rafael.rocha.spring_challenge.dto.ExportFormat;
+import com.rafael.rocha.spring_challenge.dto.UserBatchItemResultDTO;
+import com.rafael.rocha.spring_challenge.dto.UserBatchResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPageResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
 import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
 import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.exceptions.ConflictException;
+import com.rafael.rocha.spring_challenge.exceptions.PreconditionFailedException;
 import com.rafael.rocha.spring_challenge.exceptions.ResourceNotFoundException;
+import com.rafael.rocha.spring_challenge.model.entity.User;
 import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.service.UserChangeStreamService;
+import com.rafael.rocha.spring_challenge.service.UserExportService;
+import com.rafael.rocha.spring_challenge.service.UserResponseCache;
 import com.rafael.rocha.spring_challenge.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(UserController.class)
+@Import({UserResponseCache.class, ResponseCacheProperties.class})
 class UserControllerTest {
     @Autowired
     private MockMvc mockMvc;
@@ -34,11 +61,22 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserExportService userExportService;
+
+    @MockBean
+    private UserChangeStreamService userChangeStreamService;
+
+    @Autowired
+    private UserResponseCache userResponseCache;
+
     private UserRequestDTO userRequestDTO;
     private UserResponseDTO userResponseDTO;
 
     @BeforeEach
     void setUp() {
+        userResponseCache.invalidateAll();
+
         userRequestDTO = new UserRequestDTO();
         userRequestDTO.setFullName("LeBron James");
         userRequestDTO.setEmail("lebron.james@nba.com");
@@ -53,6 +91,7 @@ class UserControllerTest {
         userResponseDTO.setPhone("+1 23 98765-4321");
         userResponseDTO.setBirthDate(new Date());
         userResponseDTO.setUserType(UserType.ADMIN);
+        userResponseDTO.setVersion(3L);
     }
 
     @Test
@@ -65,6 +104,18 @@ class UserControllerTest {
                 .andExpect(status().isCreated());
     }
 
+    @Test
+    void createUser_DuplicateEmail() throws Exception {
+        when(userService.createUser(any(UserRequestDTO.class)))
+                .thenThrow(new ConflictException("Email already registered: lebron.james@nba.com"));
+
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequestDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
     @Test
     void createUser_InvalidData() throws Exception {
         userRequestDTO.setEmail("invalid-email");
@@ -75,12 +126,119 @@ class UserControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createUsers_AllCreated() throws Exception {
+        UserBatchItemResultDTO item = new UserBatchItemResultDTO(0, UserBatchItemResultDTO.Status.CREATED,
+                userResponseDTO, null, null);
+        when(userService.createUsers(anyList())).thenReturn(new UserBatchResponseDTO(1, 0, List.of(item)));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(userRequestDTO))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"));
+    }
+
+    @Test
+    void createUsers_PartialFailure() throws Exception {
+        UserBatchItemResultDTO item = new UserBatchItemResultDTO(0, UserBatchItemResultDTO.Status.DUPLICATE_EMAIL,
+                null, "Email already registered: lebron.james@nba.com", null);
+        when(userService.createUsers(anyList())).thenReturn(new UserBatchResponseDTO(0, 1, List.of(item)));
+
+        mockMvc.perform(post("/api/users/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(userRequestDTO))))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.results[0].status").value("DUPLICATE_EMAIL"));
+    }
+
     @Test
     void getAllUsers_Success() throws Exception {
-        when(userService.findAllUsers()).thenReturn(Arrays.asList(userResponseDTO));
+        when(userService.findAllUsers(any(UserFilterDTO.class), isNull(), isNull(), isNull()))
+                .thenReturn(new UserPageResponseDTO(Arrays.asList(userResponseDTO), 1, null));
 
         mockMvc.perform(get("/api/users"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1));
+    }
+
+    @Test
+    void getAllUsers_WithCursor() throws Exception {
+        when(userService.findAllUsers(any(UserFilterDTO.class), eq("aWQ6MQ"), eq(10), isNull()))
+                .thenReturn(new UserPageResponseDTO(Arrays.asList(userResponseDTO), 1, "aWQ6Mg"));
+
+        mockMvc.perform(get("/api/users").param("cursor", "aWQ6MQ").param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("aWQ6Mg"));
+    }
+
+    @Test
+    void getAllUsers_WithFilter() throws Exception {
+        when(userService.findAllUsers(any(UserFilterDTO.class), isNull(), isNull(), isNull()))
+                .thenReturn(new UserPageResponseDTO(Arrays.asList(userResponseDTO), 1, null));
+
+        mockMvc.perform(get("/api/users")
+                        .param("userType", "EDITOR")
+                        .param("bornFrom", "1990-01-01")
+                        .param("namePrefix", "Le"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1));
+
+        verify(userService).findAllUsers(argThat(filter -> filter.getUserType() == UserType.EDITOR
+                        && filter.getBornFrom() != null
+                        && filter.getBornTo() == null
+                        && "Le".equals(filter.getNamePrefix())),
+                isNull(), isNull(), isNull());
+    }
+
+    @Test
+    void searchUsers_Success() throws Exception {
+        when(userService.searchUsers("lebr", null))
+                .thenReturn(List.of(new UserSearchResultDTO(1L, "LeBron James", "lebron.james@nba.com")));
+
+        mockMvc.perform(get("/api/users/search").param("q", "lebr"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].fullName").value("LeBron James"));
+    }
+
+    @Test
+    void exportUsers_StreamsCsv() throws Exception {
+        when(userExportService.exportUsers(eq(ExportFormat.CSV), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("id,fullName\n1,LeBron James\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        MvcResult result = mockMvc.perform(get("/api/users/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("id,fullName\n1,LeBron James\n"));
+    }
+
+    @Test
+    void streamChanges_ResumesFromLastEventId() throws Exception {
+        when(userChangeStreamService.subscribe(anyLong())).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/api/users/changes").param("after", "7").header("Last-Event-ID", "41"))
+                .andExpect(request().asyncStarted());
+        mockMvc.perform(get("/api/users/changes").param("after", "7"))
+                .andExpect(request().asyncStarted());
+
+        verify(userChangeStreamService).subscribe(41L);
+        verify(userChangeStreamService).subscribe(7L);
+    }
+
+    @Test
+    void exportUsers_UnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/api/users/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(userExportService);
     }
 
     @Test
@@ -88,7 +246,87 @@ class UserControllerTest {
         when(userService.getUserById(1L)).thenReturn(userResponseDTO);
 
         mockMvc.perform(get("/api/users/1"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void getUserById_RepeatedReadsAreWrittenFromStoredBytes() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userResponseDTO);
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/api/users/1"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                    .andExpect(jsonPath("$.fullName").value("LeBron James"));
+        }
+        mockMvc.perform(get("/api/users/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().string("ETag", "\"3\""));
+
+        // Once for JSON, once for CBOR
+        verify(userService, times(2)).getUserById(1L);
+    }
+
+    @Test
+    void getUserById_NotModified() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userResponseDTO);
+
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void getUserById_ModifiedSinceETag() throws Exception {
+        when(userService.getUserById(1L)).thenReturn(userResponseDTO);
+
+        mockMvc.perform(get("/api/users/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void getUserByEmail_Success() throws Exception {
+        when(userService.getUserByEmail("lebron.james@nba.com")).thenReturn(userResponseDTO);
+
+        mockMvc.perform(get("/api/users/by-email").param("email", "lebron.james@nba.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void getUserByEmail_NotFound() throws Exception {
+        when(userService.getUserByEmail(anyString())).thenThrow(new ResourceNotFoundException("User not found"));
+
+        mockMvc.perform(get("/api/users/by-email").param("email", "nobody@nba.com"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getUserById_ConnectionPoolExhausted() throws Exception {
+        when(userService.getUserById(1L))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available, request timed out"));
+
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void getUserById_WithFields() throws Exception {
+        UserResponseDTO projected = new UserResponseDTO();
+        projected.setId(1L);
+        projected.setFullName("LeBron James");
+        when(userService.getUserById(1L, "fullName")).thenReturn(projected);
+
+        mockMvc.perform(get("/api/users/1").param("fields", "fullName"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullName").value("LeBron James"))
+                .andExpect(jsonPath("$.email").doesNotExist());
     }
 
     @Test
@@ -96,22 +334,108 @@ class UserControllerTest {
         when(userService.getUserById(anyLong())).thenThrow(new ResourceNotFoundException("User not found"));
 
         mockMvc.perform(get("/api/users/1"))  // Corrigido o path
-                .andExpect(status().isNotFound());
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.message").value("Resource not found"));
     }
 
     @Test
     void updateUser_Success() throws Exception {
-        when(userService.updateUserById(anyLong(), any(UserRequestDTO.class))).thenReturn(userResponseDTO);
+        when(userService.updateUserById(anyLong(), any(UserRequestDTO.class), isNull())).thenReturn(userResponseDTO);
 
         mockMvc.perform(put("/api/users/1")  // Corrigido o path
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(userRequestDTO)))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void updateUser_IfMatch() throws Exception {
+        when(userService.updateUserById(eq(1L), any(UserRequestDTO.class), eq(2L))).thenReturn(userResponseDTO);
+
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequestDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void updateUser_IfMatchStale() throws Exception {
+        when(userService.updateUserById(eq(1L), any(UserRequestDTO.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("User with id 1 has been modified"));
+
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequestDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void updateUser_ConcurrentModification() throws Exception {
+        when(userService.updateUserById(anyLong(), any(UserRequestDTO.class), isNull()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(User.class, 1L));
+
+        mockMvc.perform(put("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(userRequestDTO)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void patchUser_IfMatch() throws Exception {
+        when(userService.patchUserById(eq(1L), any(UserPatchDTO.class), eq(2L))).thenReturn(3L);
+
+        mockMvc.perform(patch("/api/users/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType("application/merge-patch+json")
+                        .content("{\"userType\":\"VIEWER\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string("ETag", "\"3\""));
+
+        verify(userService).patchUserById(eq(1L), argThat(patch -> patch.getUserType() == UserType.VIEWER
+                && patch.getFullName() == null && patch.getEmail() == null), eq(2L));
+    }
+
+    @Test
+    void patchUser_WithoutIfMatch() throws Exception {
+        when(userService.patchUserById(eq(1L), any(UserPatchDTO.class), isNull())).thenReturn(null);
+
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fullName\":\"King James\"}"))
+                .andExpect(status().isNoContent())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    void patchUser_InvalidEmail() throws Exception {
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"not-an-email\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors.email").exists());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void patchUser_NotFound() throws Exception {
+        when(userService.patchUserById(eq(1L), any(UserPatchDTO.class), isNull()))
+                .thenThrow(new ResourceNotFoundException("User not found"));
+
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"phone\":\"+1 23 91234-5678\"}"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
     void deleteUser_Success() throws Exception {
-        doNothing().when(userService).deleteUser(1L);
+        doNothing().when(userService).deleteUserById(1L);
 
         mockMvc.perform(delete("/api/users/1"))
                 .andExpect(status().isOk());
@@ -119,7 +443,7 @@ class UserControllerTest {
 
     @Test
     void deleteUser_NotFound() throws Exception {
-        doThrow(new ResourceNotFoundException("User not found")).when(userService).deleteUser(1L);
+        doThrow(new ResourceNotFoundException("User not found")).when(userService).deleteUserById(1L);
 
         mockMvc.perform(delete("/api/users/1"))
                 .andExpect(status().isNotFound());
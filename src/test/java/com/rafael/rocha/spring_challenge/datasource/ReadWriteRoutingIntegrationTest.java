@@ -0,0 +1,125 @@
+package com.rafael.rocha.spring_challenge.datasource;
+
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.service.UserService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static com.rafael.rocha.spring_challenge.UserRequests.userRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Two in-memory databases of its own: a primary, and a replica holding a differently named copy of the same user,
+ * so every response shows which of them served it. Sharing the usual database would drop it under the other
+ * test contexts' in-memory indexes.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:db_techmanage_primary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE",
+        "techmanage.datasource.replicas[0].url=jdbc:h2:mem:db_techmanage_replica;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE",
+        "techmanage.datasource.replicas[0].username=sa",
+        "techmanage.datasource.replicas[0].password=",
+        "techmanage.datasource.read-your-writes=1m"
+})
+@AutoConfigureMockMvc
+class ReadWriteRoutingIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReplicaPool replicaPool;
+
+    private JdbcTemplate replica;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        DataSourceRouting.onPrimary(() -> userRepository.findAll()
+                .forEach(user -> userService.deleteUserById(user.getId())));
+        id = userService.createUser(userRequest("Primary User", "routed@example.com")).getId();
+
+        // The replica gets the primary's schema and a copy of the user that has drifted
+        replica = new JdbcTemplate(replicaPool.getReplicas().get("replica-1"));
+        replica.execute("DROP ALL OBJECTS");
+        new JdbcTemplate(primaryDataSource).queryForList("SCRIPT NODATA TABLE users", String.class)
+                .stream()
+                .filter(statement -> !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+        Map<String, Object> row = new JdbcTemplate(primaryDataSource)
+                .queryForMap("SELECT * FROM users WHERE id = ?", id);
+        row.put("full_name", "Replica User");
+        new SimpleJdbcInsert(replica).withTableName("users").execute(row);
+    }
+
+    @Test
+    void readOnlyTransactions_AreServedByTheReplica() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", id).param("fields", "id,fullName").header("X-API-Key", "reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullName").value("Replica User"));
+
+        assertEquals("Primary User",
+                DataSourceRouting.onPrimary(() -> userService.getUserById(id, "id,fullName")).getFullName());
+    }
+
+    @Test
+    void cachedReads_AreLoadedFromThePrimary() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", id).header("X-API-Key", "reader"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.fullName").value("Primary User"));
+        mockMvc.perform(get("/api/users/{id}", id).header("X-API-Key", "reader").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk());
+
+        assertEquals("Primary User", userService.getUserById(id).getFullName());
+    }
+
+    @Test
+    void writes_GoToThePrimary() throws Exception {
+        mockMvc.perform(patch("/api/users/{id}", id)
+                        .header("X-API-Key", "other-writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fullName\": \"Patched User\"}"))
+                .andExpect(status().isNoContent());
+
+        assertEquals("Patched User", new JdbcTemplate(primaryDataSource)
+                .queryForObject("SELECT full_name FROM users WHERE id = ?", String.class, id));
+        assertEquals("Replica User", replica
+                .queryForObject("SELECT full_name FROM users WHERE id = ?", String.class, id));
+    }
+
+    @Test
+    void clientThatWrote_ReadsItsWriteWhileOthersStayOnTheReplica() throws Exception {
+        mockMvc.perform(patch("/api/users/{id}", id)
+                        .header("X-API-Key", "writer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fullName\": \"Patched User\"}"))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/users/{id}", id).param("fields", "id,fullName").header("X-API-Key", "writer"))
+                .andExpect(jsonPath("$.fullName").value("Patched User"));
+        mockMvc.perform(get("/api/users/{id}", id).param("fields", "id,fullName").header("X-API-Key", "reader"))
+                .andExpect(jsonPath("$.fullName").value("Replica User"));
+    }
+}
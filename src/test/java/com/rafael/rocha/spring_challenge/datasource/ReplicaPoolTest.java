@@ -0,0 +1,73 @@
+package com.rafael.rocha.spring_challenge.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReplicaPoolTest {
+
+    private DataSource first;
+    private DataSource second;
+    private ReplicaPool replicaPool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        first = healthy();
+        second = healthy();
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-1", first);
+        replicas.put("replica-2", second);
+        replicaPool = new ReplicaPool(replicas);
+    }
+
+    @Test
+    void next_AlternatesBetweenReplicas() {
+        assertEquals("replica-1", replicaPool.next());
+        assertEquals("replica-2", replicaPool.next());
+        assertEquals("replica-1", replicaPool.next());
+    }
+
+    @Test
+    void checkHealth_SkipsAReplicaUntilItIsValidAgain() throws SQLException {
+        when(second.getConnection()).thenThrow(new SQLException("Connection refused"));
+        replicaPool.checkHealth();
+
+        assertEquals(1, replicaPool.getHealthyCount());
+        assertEquals("replica-1", replicaPool.next());
+        assertEquals("replica-1", replicaPool.next());
+
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        doReturn(connection).when(second).getConnection();
+        replicaPool.checkHealth();
+
+        assertEquals(2, replicaPool.getHealthyCount());
+    }
+
+    @Test
+    void next_IsNullWhenNoReplicaIsHealthy() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+        Connection invalid = mock(Connection.class);
+        when(second.getConnection()).thenReturn(invalid);
+        replicaPool.checkHealth();
+
+        assertEquals(0, replicaPool.getHealthyCount());
+        assertNull(replicaPool.next());
+    }
+
+    private static DataSource healthy() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(connection.isValid(anyInt())).thenReturn(true);
+        when(dataSource.getConnection()).thenReturn(connection);
+        return dataSource;
+    }
+}
@@ -0,0 +1,254 @@
+package com.rafael.rocha.spring_challenge.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyFilter filter(Duration waitTimeout) {
+        return new IdempotencyFilter(new InMemoryIdempotencyStore(100, Duration.ofMinutes(1)), objectMapper,
+                waitTimeout);
+    }
+
+    @Test
+    void retry_GetsStoredResponseWithoutRunningAgain() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(1));
+        FilterChain chain = created();
+
+        MockHttpServletResponse first = send(filter, post("key-1", "{\"fullName\":\"LeBron James\"}"), chain);
+        MockHttpServletResponse retry = send(filter, post("key-1", "{\"fullName\":\"LeBron James\"}"), chain);
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals("\"0\"", retry.getHeader("ETag"));
+        assertEquals("true", retry.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+        assertNull(first.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+    }
+
+    @Test
+    void reusedKey_DifferentRequestIsRejected() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(1));
+        FilterChain chain = created();
+
+        send(filter, post("key-1", "{\"fullName\":\"LeBron James\"}"), chain);
+        MockHttpServletResponse reused = send(filter, post("key-1", "{\"fullName\":\"Bronny James\"}"), chain);
+
+        assertEquals(1, executions.get());
+        assertEquals(422, reused.getStatus());
+        assertTrue(reused.getContentAsString().contains("Idempotency-Key was already used for a different request"));
+    }
+
+    @Test
+    void serverError_IsNotStored() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(1));
+        FilterChain chain = (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(503);
+        };
+
+        send(filter, post("key-1", "{}"), chain);
+        MockHttpServletResponse retry = send(filter, post("key-1", "{}"), chain);
+
+        assertEquals(2, executions.get());
+        assertEquals(503, retry.getStatus());
+    }
+
+    @Test
+    void concurrentDuplicate_WaitsForTheFirstResult() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = (request, response) -> {
+            started.countDown();
+            await(release);
+            created().doFilter(request, response);
+        };
+
+        CompletableFuture<MockHttpServletResponse> first =
+                CompletableFuture.supplyAsync(() -> sendUnchecked(filter, post("key-1", "{}"), chain));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MockHttpServletResponse> duplicate =
+                CompletableFuture.supplyAsync(() -> sendUnchecked(filter, post("key-1", "{}"), chain));
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+
+        release.countDown();
+
+        assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(201, replayed.getStatus());
+        assertEquals("true", replayed.getHeader(IdempotencyFilter.IDEMPOTENT_REPLAYED));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void concurrentDuplicate_GetsConflictAfterWaitTimeout() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = (request, response) -> {
+            await(release);
+            created().doFilter(request, response);
+        };
+
+        CompletableFuture<MockHttpServletResponse> first =
+                CompletableFuture.supplyAsync(() -> sendUnchecked(filter, post("key-1", "{}"), chain));
+        Thread.sleep(50);
+        MockHttpServletResponse duplicate = send(filter, post("key-1", "{}"), chain);
+        release.countDown();
+
+        assertEquals(409, duplicate.getStatus());
+        assertEquals("1", duplicate.getHeader("Retry-After"));
+        assertEquals(201, first.get(5, TimeUnit.SECONDS).getStatus());
+    }
+
+    @Test
+    void requestWithoutKey_IsPassedThrough() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(1));
+        MockHttpServletRequest request = post("key-1", "{}");
+        request.removeHeader(IdempotencyFilter.IDEMPOTENCY_KEY);
+
+        send(filter, request, created());
+        send(filter, request, created());
+
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void asyncReader_GetsTheCachedBody() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(1));
+        ByteArrayOutputStream read = new ByteArrayOutputStream();
+        AtomicInteger allDataRead = new AtomicInteger();
+        FilterChain chain = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (in.isReady() && !in.isFinished()) {
+                        read.write(in.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+            ((HttpServletResponse) response).setStatus(201);
+        };
+
+        send(filter, post("key-1", "{\"fullName\":\"LeBron James\"}"), chain);
+
+        assertEquals("{\"fullName\":\"LeBron James\"}", read.toString(StandardCharsets.UTF_8));
+        assertEquals(1, allDataRead.get());
+    }
+
+    @Test
+    void asyncReader_IsToldAllDataWasReadOnlyOnceItDrainsTheBody() throws Exception {
+        IdempotencyFilter filter = filter(Duration.ofSeconds(1));
+        AtomicInteger dataAvailable = new AtomicInteger();
+        AtomicInteger allDataRead = new AtomicInteger();
+        FilterChain chain = (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() {
+                    dataAvailable.incrementAndGet();
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    allDataRead.incrementAndGet();
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    fail(t);
+                }
+            });
+            assertEquals(0, allDataRead.get());
+
+            // Read later, outside the callback
+            StreamUtils.copyToByteArray(in);
+            ((HttpServletResponse) response).setStatus(201);
+        };
+
+        send(filter, post("key-1", "{}"), chain);
+
+        assertEquals(1, dataAvailable.get());
+        assertEquals(1, allDataRead.get());
+    }
+
+    /**
+     * Echoes the request body as a created user, like the real controller would.
+     */
+    private FilterChain created() {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+            HttpServletResponse httpResponse = (HttpServletResponse) response;
+            httpResponse.setStatus(201);
+            httpResponse.setContentType("application/json");
+            httpResponse.setHeader("ETag", "\"0\"");
+            httpResponse.getOutputStream().write(body);
+        };
+    }
+
+    private static MockHttpServletRequest post(String key, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletResponse send(IdempotencyFilter filter, MockHttpServletRequest request,
+                                                FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletResponse sendUnchecked(IdempotencyFilter filter, MockHttpServletRequest request,
+                                                         FilterChain chain) {
+        try {
+            return send(filter, request, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.rafael.rocha.spring_challenge.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.model.entity.IdempotencyKey;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.IdempotencyKeyRepository;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "techmanage.idempotency.store=DATABASE")
+@AutoConfigureMockMvc
+class IdempotencyIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    private UserRequestDTO userRequestDTO;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findAll().forEach(user -> userService.deleteUserById(user.getId()));
+        idempotencyKeyRepository.deleteAll();
+
+        userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setFullName("LeBron James");
+        userRequestDTO.setEmail("lebron.james@nba.com");
+        userRequestDTO.setPhone("+1 23 98765-4321");
+        userRequestDTO.setBirthDate(new Date(0));
+        userRequestDTO.setUserType(UserType.ADMIN);
+    }
+
+    @Test
+    void createUser_RetryReturnsTheSameUser() throws Exception {
+        String body = objectMapper.writeValueAsString(userRequestDTO);
+
+        String created = mockMvc.perform(post("/api/users")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "signup-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+
+        String replayed = mockMvc.perform(post("/api/users")
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY, "signup-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isCreated())
+                .andExpect(header().string(IdempotencyFilter.IDEMPOTENT_REPLAYED, "true"))
+                .andExpect(header().string("ETag", "\"0\""))
+                .andReturn().getResponse().getContentAsString();
+
+        assertEquals(created, replayed);
+        assertEquals(1, userRepository.count());
+
+        // Without a key the same request is a new one, and the email is taken
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void deleteUser_RetryIsNotAFailure() throws Exception {
+        Long id = userService.createUser(userRequestDTO).getId();
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(delete("/api/users/{id}", id).header(IdempotencyFilter.IDEMPOTENCY_KEY, "delete-1"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string("Successfuly deleted user with ID: " + id));
+        }
+
+        mockMvc.perform(delete("/api/users/{id}", id).header(IdempotencyFilter.IDEMPOTENCY_KEY, "delete-2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void databaseStore_ReservesOnceAndReusesExpiredKeys() {
+        assertNull(idempotencyStore.reserve("key-1", "fingerprint"));
+        assertNull(idempotencyStore.reserve("key-1", "fingerprint").response());
+
+        idempotencyStore.complete("key-1", new IdempotencyRecord("fingerprint",
+                new IdempotencyRecord.StoredResponse(201, "application/json", "\"0\"", new byte[]{'{', '}'})));
+        IdempotencyRecord stored = idempotencyStore.reserve("key-1", "fingerprint");
+        assertEquals(201, stored.response().status());
+        assertArrayEquals(new byte[]{'{', '}'}, stored.response().body());
+
+        IdempotencyKey row = idempotencyKeyRepository.findById("key-1").orElseThrow();
+        row.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        idempotencyKeyRepository.save(row);
+
+        assertNull(idempotencyStore.reserve("key-1", "other"));
+        idempotencyStore.release("key-1");
+        assertFalse(idempotencyKeyRepository.existsById("key-1"));
+    }
+
+    @Test
+    void databaseStore_RetryTakesOverAnAbandonedReservation() {
+        assertNull(idempotencyStore.reserve("key-2", "fingerprint"));
+        IdempotencyKey reservation = idempotencyKeyRepository.findById("key-2").orElseThrow();
+        assertTrue(reservation.getExpiresAt().isBefore(LocalDateTime.now().plusMinutes(2)), "held for the lease only");
+
+        // The instance running the request died before completing it, and the lease ran out
+        reservation.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        idempotencyKeyRepository.save(reservation);
+
+        assertNull(idempotencyStore.reserve("key-2", "fingerprint"));
+        idempotencyStore.complete("key-2", new IdempotencyRecord("fingerprint",
+                new IdempotencyRecord.StoredResponse(204, null, null, new byte[0])));
+        assertTrue(idempotencyKeyRepository.findById("key-2").orElseThrow().getExpiresAt()
+                .isAfter(LocalDateTime.now().plusHours(23)), "kept for the TTL once completed");
+    }
+
+    @Test
+    void createUser_ValidationErrorIsStoredToo() throws Exception {
+        userRequestDTO.setEmail("not-an-email");
+
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post("/api/users")
+                            .header(IdempotencyFilter.IDEMPOTENCY_KEY, "invalid-1")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(userRequestDTO)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.errors.email").value("Invalid email format"));
+        }
+
+        assertEquals(400, idempotencyKeyRepository.findById("invalid-1").orElseThrow().getStatus());
+    }
+}
@@ -0,0 +1,30 @@
+package com.rafael.rocha.spring_challenge.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryIdempotencyStoreTest {
+
+    // Evicts on the calling thread, so the size limit applies as soon as a call returns
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(2, Duration.ofMinutes(1), Runnable::run);
+
+    @Test
+    void reservation_IsNotEvictedByStoredResponses() {
+        assertNull(store.reserve("running", "fingerprint"));
+
+        for (int i = 0; i < 10; i++) {
+            String key = "done-" + i;
+            assertNull(store.reserve(key, "fingerprint"));
+            store.complete(key, new IdempotencyRecord("fingerprint",
+                    new IdempotencyRecord.StoredResponse(201, null, null, new byte[0])));
+        }
+
+        IdempotencyRecord running = store.reserve("running", "fingerprint");
+        assertNotNull(running, "a retry waits for the running request instead of running it again");
+        assertNull(running.response());
+        assertNull(store.reserve("done-0", "fingerprint"), "older responses are evicted");
+    }
+}
@@ -0,0 +1,104 @@
+package com.rafael.rocha.spring_challenge.metrics;
+
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.service.UserService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Date;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Observability needs its own application context; it also gets its own database, so its rows never reach the
+ * in-memory indexes of the context the other integration tests share.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:db_techmanage_metrics;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE",
+        "management.endpoints.web.exposure.include=prometheus",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true",
+        "management.metrics.distribution.percentiles-histogram.hikaricp.connections=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class RequestMetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long id;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findAll().forEach(user -> userService.deleteUserById(user.getId()));
+
+        UserRequestDTO userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setFullName("LeBron James");
+        userRequestDTO.setEmail("lebron.james@nba.com");
+        userRequestDTO.setPhone("+1 23 98765-4321");
+        userRequestDTO.setBirthDate(new Date(0));
+        userRequestDTO.setUserType(UserType.ADMIN);
+        id = userService.createUser(userRequestDTO).getId();
+    }
+
+    @Test
+    void getUserById_RecordsHibernateWorkPerEndpoint() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", id).param("fields", "fullName"))
+                .andExpect(status().isOk());
+
+        DistributionSummary statements = meterRegistry.get("hibernate.request.statements")
+                .tags("method", "GET", "uri", "/api/users/{id}")
+                .summary();
+        assertTrue(statements.count() >= 1);
+        assertTrue(statements.totalAmount() >= 1);
+        assertNotNull(meterRegistry.get("hibernate.request.entity.loads").tags("uri", "/api/users/{id}").summary());
+        assertNotNull(meterRegistry.get("hibernate.request.flushes").tags("uri", "/api/users/{id}").summary());
+    }
+
+    @Test
+    void getUserByEmail_CountsEntityLoads() throws Exception {
+        mockMvc.perform(get("/api/users/by-email").param("email", "lebron.james@nba.com"))
+                .andExpect(status().isOk());
+
+        DistributionSummary loads = meterRegistry.get("hibernate.request.entity.loads")
+                .tags("method", "GET", "uri", "/api/users/by-email")
+                .summary();
+        assertEquals(1, loads.count());
+        assertEquals(1, loads.totalAmount());
+    }
+
+    @Test
+    void prometheus_ExposesEndpointServicePoolAndHibernateMeters() throws Exception {
+        mockMvc.perform(get("/api/users/{id}", id)).andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("techmanage_user_service_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds_bucket")))
+                .andExpect(content().string(containsString("hibernate_request_statements")))
+                .andExpect(content().string(containsString("hibernate_query_executions")));
+    }
+}
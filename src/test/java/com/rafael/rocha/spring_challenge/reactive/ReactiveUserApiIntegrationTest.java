@@ -0,0 +1,301 @@
+package com.rafael.rocha.spring_challenge.reactive;
+
+import com.rafael.rocha.spring_challenge.dto.UserPageResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static com.rafael.rocha.spring_challenge.UserRequests.userRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+// The web type is decided before profiles are read, so it cannot come from application-reactive.properties
+@SpringBootTest(classes = ReactiveUserApplication.class, properties = "spring.main.web-application-type=reactive")
+@ActiveProfiles("reactive")
+@AutoConfigureWebTestClient
+class ReactiveUserApiIntegrationTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private UserRequestDTO userRequestDTO;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient.sql("DELETE FROM users").then().block();
+
+        userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setFullName("LeBron James");
+        userRequestDTO.setEmail("lebron.james@nba.com");
+        userRequestDTO.setPhone("+1 23 98765-4321");
+        userRequestDTO.setBirthDate(new Date(0));
+        userRequestDTO.setUserType(UserType.ADMIN);
+    }
+
+    @Test
+    void createUser_ThenGetByIdAndEmail() {
+        UserResponseDTO created = create(userRequestDTO);
+
+        webTestClient.get().uri("/api/users/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"0\"")
+                .expectBody()
+                .jsonPath("$.fullName").isEqualTo("LeBron James")
+                .jsonPath("$.birthDate").isEqualTo("1970-01-01T00:00:00.000+00:00")
+                .jsonPath("$.version").doesNotExist();
+
+        webTestClient.get().uri("/api/users/by-email?email={email}", "LEBRON.JAMES@nba.com")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.id").isEqualTo(created.getId());
+
+        webTestClient.get().uri("/api/users/{id}?fields=email", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().doesNotExist(HttpHeaders.ETAG)
+                .expectBody()
+                .jsonPath("$.email").isEqualTo("lebron.james@nba.com")
+                .jsonPath("$.fullName").doesNotExist();
+    }
+
+    @Test
+    void getUserById_NotModifiedWhenETagMatches() {
+        UserResponseDTO created = create(userRequestDTO);
+
+        webTestClient.get().uri("/api/users/{id}", created.getId())
+                .header(HttpHeaders.IF_NONE_MATCH, "\"0\"")
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getUserById_NotFound() {
+        webTestClient.get().uri("/api/users/{id}", 999_999)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(404)
+                .jsonPath("$.message").isEqualTo("Resource not found");
+    }
+
+    @Test
+    void createUser_ValidationErrorsUseTheSameFormat() {
+        userRequestDTO.setEmail("not-an-email");
+        userRequestDTO.setPhone(null);
+
+        webTestClient.post().uri("/api/users")
+                .bodyValue(userRequestDTO)
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.message").isEqualTo("Validation error")
+                .jsonPath("$.errors.email").isEqualTo("Invalid email format")
+                .jsonPath("$.errors.phone").isEqualTo("Phone is required");
+    }
+
+    @Test
+    void createUser_ConflictWhenEmailTaken() {
+        create(userRequestDTO);
+
+        webTestClient.post().uri("/api/users")
+                .bodyValue(userRequestDTO)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT)
+                .expectBody().jsonPath("$.message").isEqualTo("Email already registered: lebron.james@nba.com");
+    }
+
+    @Test
+    void createUsers_ReportsEachItem() {
+        UserRequestDTO invalid = new UserRequestDTO();
+        List<UserRequestDTO> batch = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            batch.add(userRequest("Batch User " + i, "batch" + i + "@example.com"));
+        }
+        batch.add(userRequest("Repeated", "batch0@example.com"));
+        batch.add(invalid);
+
+        webTestClient.post().uri("/api/users/batch")
+                .bodyValue(batch)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.MULTI_STATUS)
+                .expectBody()
+                .jsonPath("$.created").isEqualTo(60)
+                .jsonPath("$.failed").isEqualTo(2)
+                .jsonPath("$.results[60].status").isEqualTo("DUPLICATE_EMAIL")
+                .jsonPath("$.results[61].status").isEqualTo("INVALID");
+
+        UserPageResponseDTO page = webTestClient.get().uri("/api/users?limit=100")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserPageResponseDTO.class)
+                .returnResult().getResponseBody();
+        assertEquals(60, page.getSize());
+        assertEquals(60, page.getContent().stream().map(UserResponseDTO::getId).distinct().count());
+    }
+
+    @Test
+    void findAllUsers_PagesWithCursorAndFilters() {
+        for (int i = 0; i < 5; i++) {
+            UserRequestDTO request = userRequest("Page User " + i, "page" + i + "@example.com");
+            request.setUserType(i % 2 == 0 ? UserType.EDITOR : UserType.VIEWER);
+            create(request);
+        }
+
+        UserPageResponseDTO first = page("/api/users?limit=2&userType=EDITOR");
+        assertEquals(2, first.getSize());
+        assertNotNull(first.getNextCursor());
+
+        UserPageResponseDTO second = page("/api/users?limit=2&userType=EDITOR&cursor=" + first.getNextCursor());
+        assertEquals(1, second.getSize());
+        assertNull(second.getNextCursor());
+        assertEquals("Page User 4", second.getContent().get(0).getFullName());
+
+        assertEquals(5, webTestClient.get().uri("/api/users?namePrefix={prefix}", "page user")
+                .exchange()
+                .expectBody(UserPageResponseDTO.class)
+                .returnResult().getResponseBody().getSize());
+
+        webTestClient.get().uri("/api/users?cursor=not-a-cursor")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void searchUsers_MatchesNameOrEmail() {
+        create(userRequestDTO);
+        create(userRequest("Stephen Curry", "steph@nba.com"));
+
+        webTestClient.get().uri("/api/users/search?q=curry")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].email").isEqualTo("steph@nba.com");
+    }
+
+    @Test
+    void updateUserById_ChecksIfMatch() {
+        UserResponseDTO created = create(userRequestDTO);
+        userRequestDTO.setFullName("Bronny James");
+
+        webTestClient.put().uri("/api/users/{id}", created.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(userRequestDTO)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"")
+                .expectBody().jsonPath("$.fullName").isEqualTo("Bronny James");
+
+        webTestClient.put().uri("/api/users/{id}", created.getId())
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(userRequestDTO)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        webTestClient.put().uri("/api/users/{id}", 999_999)
+                .bodyValue(userRequestDTO)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void patchUserById_WritesOnlyGivenFields() {
+        UserResponseDTO created = create(userRequestDTO);
+        UserResponseDTO other = create(userRequest("Stephen Curry", "steph@nba.com"));
+
+        webTestClient.patch().uri("/api/users/{id}", created.getId())
+                .contentType(MediaType.valueOf("application/merge-patch+json"))
+                .header(HttpHeaders.IF_MATCH, "\"0\"")
+                .bodyValue(Map.of("phone", "+55 11 98765-4321"))
+                .exchange()
+                .expectStatus().isNoContent()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"1\"");
+
+        webTestClient.get().uri("/api/users/{id}", created.getId())
+                .exchange()
+                .expectBody()
+                .jsonPath("$.phone").isEqualTo("+55 11 98765-4321")
+                .jsonPath("$.fullName").isEqualTo("LeBron James");
+
+        webTestClient.patch().uri("/api/users/{id}", other.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of("email", "lebron.james@nba.com"))
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.CONFLICT);
+
+        webTestClient.patch().uri("/api/users/{id}", other.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(Map.of())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Patch must contain at least one field");
+    }
+
+    @Test
+    void deleteUser_ThenNotFound() {
+        UserResponseDTO created = create(userRequestDTO);
+
+        webTestClient.delete().uri("/api/users/{id}", created.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).isEqualTo("Successfuly deleted user with ID: " + created.getId());
+
+        webTestClient.delete().uri("/api/users/{id}", created.getId())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void exportUsers_StreamsCsv() {
+        create(userRequestDTO);
+        create(userRequest("Curry, Stephen", "steph@nba.com"));
+
+        String csv = webTestClient.get().uri("/api/users/export?format=csv")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith("text/csv")
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        String[] lines = csv.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,fullName,email,phone,birthDate,userType", lines[0]);
+        assertTrue(lines[2].contains(",\"Curry, Stephen\",steph@nba.com,"));
+    }
+
+    private UserResponseDTO create(UserRequestDTO request) {
+        return webTestClient.post().uri("/api/users")
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(UserResponseDTO.class)
+                .returnResult().getResponseBody();
+    }
+
+    private UserPageResponseDTO page(String uri) {
+        return webTestClient.get().uri(uri)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserPageResponseDTO.class)
+                .returnResult().getResponseBody();
+    }
+}
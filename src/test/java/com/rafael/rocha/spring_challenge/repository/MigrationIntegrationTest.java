@@ -0,0 +1,112 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The application on a schema built only by the migrations, in a database of its own, with the MySQL dialect the
+ * migrations are written for.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:db_techmanage_migrated;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE",
+        "spring.flyway.enabled=true",
+        // As in the main application.properties, which the test one replaces
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=0",
+        "spring.jpa.hibernate.ddl-auto=none",
+        // Emulates users_seq with the table the migration creates, as on MySQL
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect"
+})
+class MigrationIntegrationTest {
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void migrations_RunOnceAndSeedTheUsers() {
+        List<String> applied = jdbcTemplate.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE version IS NOT NULL ORDER BY installed_rank", String.class);
+        assertEquals(List.of("1", "2", "3", "4"), applied);
+        assertEquals(0, flyway.migrate().migrationsExecuted);
+
+        List<User> users = userRepository.findAll();
+        assertEquals(5, users.size());
+        assertEquals("lebron.james@nba.com", users.get(0).getEmail());
+        assertEquals(0L, users.get(0).getVersion());
+    }
+
+    /**
+     * A database as the schema.sql and data.sql run on every boot before the migrations left it, migrated with the
+     * application's Flyway settings.
+     */
+    @Test
+    void databaseFromBeforeTheMigrations_IsBroughtUpToTheMigratedSchema() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:db_techmanage_premigration;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE",
+                "sa", "");
+        JdbcTemplate database = new JdbcTemplate(dataSource);
+        database.execute("""
+                CREATE TABLE IF NOT EXISTS users (
+                    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+                    full_name VARCHAR(100) NOT NULL,
+                    email VARCHAR(100) NOT NULL UNIQUE,
+                    phone VARCHAR(20) NOT NULL,
+                    birth_date DATE NOT NULL,
+                    user_type VARCHAR(20) NOT NULL,
+                    CONSTRAINT chk_user_type CHECK (user_type IN ('ADMIN', 'EDITOR', 'VIEWER'))
+                )""");
+        database.execute("""
+                INSERT IGNORE INTO users (full_name, email, phone, birth_date, user_type)
+                VALUES
+                    ('LeBron James', 'lebron.james@nba.com', '+1 23 98765-4321', '1984-12-30', 'ADMIN'),
+                    ('Kevin Durant', 'kevin.durant@nba.com', '+1 23 98765-4323', '1988-09-29', 'VIEWER'),
+                    ('Signed Up Later', 'later@example.com', '+1 23 98765-4329', '2000-01-01', 'VIEWER')""");
+
+        Flyway.configure().configuration(flyway.getConfiguration()).dataSource(dataSource).load().migrate();
+
+        assertEquals(List.of("0", "1", "2", "3", "4"), database.queryForList(
+                "SELECT version FROM flyway_schema_history WHERE version IS NOT NULL ORDER BY installed_rank", String.class));
+        assertEquals(List.of(0L), database.queryForList("SELECT DISTINCT version FROM users", Long.class));
+        // The three users kept, plus the seeded ones they did not already include
+        assertEquals(6, database.queryForObject("SELECT COUNT(*) FROM users", Integer.class));
+        assertEquals(database.queryForObject("SELECT MAX(id) + 1 FROM users", Long.class),
+                database.queryForObject("SELECT next_val FROM users_seq", Long.class));
+        assertEquals(List.of("idx_users_birth_date", "idx_users_full_name", "idx_users_user_type_birth_date",
+                "idx_users_user_type_id"), database.queryForList("SELECT index_name FROM information_schema.indexes "
+                + "WHERE table_name = 'users' AND index_name LIKE 'idx_%' ORDER BY index_name", String.class));
+        assertEquals(2, database.queryForObject("SELECT COUNT(*) FROM information_schema.tables "
+                + "WHERE table_name IN ('import_jobs', 'idempotency_keys')", Integer.class));
+    }
+
+    @Test
+    void migratedSchema_AcceptsEntityWrites() {
+        User user = new User();
+        user.setFullName("Migrated User");
+        user.setEmail("migrated@example.com");
+        user.setPhone("+1 23 98765-4321");
+        user.setBirthDate(new Date(0));
+        user.setUserType(UserType.VIEWER);
+
+        User saved = userRepository.saveAndFlush(user);
+
+        assertTrue(saved.getId() > 5, "ids continue after the seeded users");
+        userRepository.delete(saved);
+    }
+}
@@ -0,0 +1,80 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserProjectionRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        users = userRepository.saveAll(List.of(
+                user("LeBron James", "lebron.james@nba.com", UserType.ADMIN),
+                user("Stephen Curry", "stephen.curry@nba.com", UserType.EDITOR),
+                user("Kevin Durant", "kevin.durant@nba.com", UserType.VIEWER)));
+    }
+
+    @Test
+    void findProjected_SelectsOnlyRequestedFields() {
+        List<UserResponseDTO> page = userRepository.findProjected(UserSpecifications.idGreaterThan(users.get(0).getId()), 10,
+                EnumSet.of(UserField.ID, UserField.USER_TYPE));
+
+        assertEquals(2, page.size());
+        assertEquals(users.get(1).getId(), page.get(0).getId());
+        assertEquals(UserType.EDITOR, page.get(0).getUserType());
+        assertNull(page.get(0).getFullName());
+        assertNull(page.get(0).getEmail());
+    }
+
+    @Test
+    void findProjected_RespectsLimit() {
+        List<UserResponseDTO> page = userRepository.findProjected(UserSpecifications.idGreaterThan(0L), 1,
+                EnumSet.of(UserField.ID));
+
+        assertEquals(1, page.size());
+        assertEquals(users.get(0).getId(), page.get(0).getId());
+    }
+
+    @Test
+    void findProjectedById_Success() {
+        Optional<UserResponseDTO> result = userRepository.findProjectedById(users.get(2).getId(),
+                EnumSet.of(UserField.ID, UserField.FULL_NAME));
+
+        assertTrue(result.isPresent());
+        assertEquals("Kevin Durant", result.get().getFullName());
+        assertNull(result.get().getPhone());
+    }
+
+    @Test
+    void findProjectedById_NotFound() {
+        assertTrue(userRepository.findProjectedById(-1L, EnumSet.of(UserField.ID)).isEmpty());
+    }
+
+    private static User user(String fullName, String email, UserType userType) {
+        User user = new User();
+        user.setFullName(fullName);
+        user.setEmail(email);
+        user.setPhone("+1 23 98765-4321");
+        user.setBirthDate(new Date(0));
+        user.setUserType(userType);
+        return user;
+    }
+}
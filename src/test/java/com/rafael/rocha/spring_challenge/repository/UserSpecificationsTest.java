@@ -0,0 +1,108 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserSpecificationsTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private List<User> users;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        users = userRepository.saveAll(List.of(
+                user("LeBron James", "lebron.james@nba.com", UserType.EDITOR, date(1984, 12, 30)),
+                user("Stephen Curry", "stephen.curry@nba.com", UserType.EDITOR, date(1988, 3, 14)),
+                user("Luka Doncic", "luka.doncic@nba.com", UserType.EDITOR, date(1999, 2, 28)),
+                user("Lauri Markkanen", "lauri.markkanen@nba.com", UserType.VIEWER, date(1997, 5, 22)),
+                user("Le_Test 100%", "le.test@nba.com", UserType.ADMIN, date(2000, 1, 1))));
+    }
+
+    @Test
+    void matching_CombinesUserTypeAndBirthDateRange() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setUserType(UserType.EDITOR);
+        filter.setBornFrom(date(1990, 1, 1));
+
+        assertEquals(List.of("Luka Doncic"), names(UserSpecifications.matching(filter)));
+    }
+
+    @Test
+    void matching_BirthDateRangeIsInclusive() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setBornFrom(date(1988, 3, 14));
+        filter.setBornTo(date(1997, 5, 22));
+
+        assertEquals(List.of("Stephen Curry", "Lauri Markkanen"), names(UserSpecifications.matching(filter)));
+    }
+
+    @Test
+    void matching_NamePrefixIsCaseInsensitive() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setNamePrefix("lu");
+
+        assertEquals(List.of("Luka Doncic"), names(UserSpecifications.matching(filter)));
+    }
+
+    @Test
+    void matching_NamePrefixEscapesWildcards() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setNamePrefix("Le_");
+
+        assertEquals(List.of("Le_Test 100%"), names(UserSpecifications.matching(filter)));
+    }
+
+    @Test
+    void matching_EmptyFilterMatchesEverything() {
+        assertEquals(users.size(), names(UserSpecifications.matching(new UserFilterDTO())).size());
+    }
+
+    @Test
+    void idGreaterThan_PagesThroughFilteredRows() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setUserType(UserType.EDITOR);
+
+        Specification<User> secondPage = UserSpecifications.idGreaterThan(users.get(0).getId())
+                .and(UserSpecifications.matching(filter));
+
+        assertEquals(List.of("Stephen Curry", "Luka Doncic"), names(secondPage));
+    }
+
+    private List<String> names(Specification<User> spec) {
+        return userRepository.findAll(spec, Sort.by("id")).stream()
+                .map(User::getFullName)
+                .toList();
+    }
+
+    private static Date date(int year, int month, int day) {
+        return Date.from(LocalDate.of(year, month, day).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static User user(String fullName, String email, UserType userType, Date birthDate) {
+        User user = new User();
+        user.setFullName(fullName);
+        user.setEmail(email);
+        user.setPhone("+1 23 98765-4321");
+        user.setBirthDate(birthDate);
+        user.setUserType(userType);
+        return user;
+    }
+}
@@ -0,0 +1,79 @@
+package com.rafael.rocha.spring_challenge.repository;
+
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class UserWriteRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private long id;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.flush();
+        User user = new User();
+        user.setFullName("LeBron James");
+        user.setEmail("lebron.james@nba.com");
+        user.setPhone("+1 23 98765-4321");
+        user.setBirthDate(new Date(0));
+        user.setUserType(UserType.ADMIN);
+        id = userRepository.saveAndFlush(user).getId();
+    }
+
+    @Test
+    void updateById_WritesChangedColumnsAndBumpsVersion() {
+        int updated = userRepository.updateById(id, Map.of(UserField.USER_TYPE, UserType.VIEWER), null, null);
+
+        assertEquals(1, updated);
+        UserResponseDTO row = userRepository.findProjectedById(id,
+                EnumSet.of(UserField.ID, UserField.FULL_NAME, UserField.USER_TYPE)).orElseThrow();
+        assertEquals(UserType.VIEWER, row.getUserType());
+        assertEquals("LeBron James", row.getFullName());
+        assertEquals(1L, userRepository.findWriteStateById(id).orElseThrow().version());
+    }
+
+    @Test
+    void updateById_GuardedByVersion() {
+        assertEquals(0, userRepository.updateById(id, Map.of(UserField.FULL_NAME, "King James"), 5L, null));
+        assertEquals(1, userRepository.updateById(id, Map.of(UserField.FULL_NAME, "King James"), 0L, null));
+        assertEquals(0, userRepository.updateById(id, Map.of(UserField.FULL_NAME, "LeBron"), 0L, null));
+    }
+
+    @Test
+    void updateById_GuardedByEmail() {
+        Map<UserField, Object> changes = Map.of(UserField.EMAIL, "king.james@nba.com");
+
+        assertEquals(0, userRepository.updateById(id, changes, null, "someone.else@nba.com"));
+        assertEquals(1, userRepository.updateById(id, changes, null, "lebron.james@nba.com"));
+        assertEquals("king.james@nba.com", userRepository.findWriteStateById(id).orElseThrow().email());
+    }
+
+    @Test
+    void updateById_MissingRow() {
+        assertEquals(0, userRepository.updateById(id + 1000, Map.of(UserField.PHONE, "+1 23 91234-5678"), null, null));
+    }
+
+    @Test
+    void deleteByIdAndEmail_RequiresMatchingEmail() {
+        assertEquals(0, userRepository.deleteByIdAndEmail(id, "someone.else@nba.com"));
+        assertEquals(1, userRepository.deleteByIdAndEmail(id, "lebron.james@nba.com"));
+        assertTrue(userRepository.findWriteStateById(id).isEmpty());
+    }
+}
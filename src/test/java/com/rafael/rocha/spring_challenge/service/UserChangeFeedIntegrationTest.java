@@ -0,0 +1,123 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.dto.UserChangeEventDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.exceptions.PreconditionFailedException;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserChangeFeedIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserChangeFeed userChangeFeed;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private UserRequestDTO userRequestDTO;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findAll().forEach(user -> userService.deleteUserById(user.getId()));
+
+        userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setFullName("LeBron James");
+        userRequestDTO.setEmail("lebron.james@nba.com");
+        userRequestDTO.setPhone("+1 23 98765-4321");
+        userRequestDTO.setBirthDate(new Date(0));
+        userRequestDTO.setUserType(UserType.ADMIN);
+    }
+
+    @Test
+    void writes_ArePublishedOnceCommitted() {
+        long start = userChangeFeed.latestSequence();
+
+        Long id = userService.createUser(userRequestDTO).getId();
+        userRequestDTO.setFullName("Bronny James");
+        userService.updateUserById(id, userRequestDTO, 0L);
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUserById(id, userRequestDTO, 0L));
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setPhone("+55 11 98765-4321");
+        userService.patchUserById(id, patch, null);
+        userService.deleteUserById(id);
+
+        List<UserChangeEventDTO> events = userChangeFeed.readAfter(start, 10).events();
+        assertEquals(4, events.size());
+
+        assertEquals(UserChangeEventDTO.Type.CREATED, events.get(0).getType());
+        assertEquals("LeBron James", events.get(0).getUser().getFullName());
+        assertEquals(0L, events.get(0).getVersion());
+
+        assertEquals(UserChangeEventDTO.Type.UPDATED, events.get(1).getType());
+        assertEquals("Bronny James", events.get(1).getUser().getFullName());
+        assertEquals(1L, events.get(1).getVersion());
+
+        assertEquals(UserChangeEventDTO.Type.UPDATED, events.get(2).getType());
+        assertEquals("+55 11 98765-4321", events.get(2).getUser().getPhone());
+        assertNull(events.get(2).getUser().getFullName());
+        assertNull(events.get(2).getVersion());
+
+        assertEquals(UserChangeEventDTO.Type.DELETED, events.get(3).getType());
+        assertNull(events.get(3).getUser());
+        events.forEach(event -> assertEquals(id, event.getUserId()));
+    }
+
+    @Test
+    void streamChanges_ReplaysThenResyncs() throws Exception {
+        long start = userChangeFeed.latestSequence();
+        Long id = userService.createUser(userRequestDTO).getId();
+
+        MvcResult replay = mockMvc.perform(get("/api/users/changes").header("Last-Event-ID", start))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String stream = awaitContent(replay, "\"userId\":" + id);
+        assertTrue(stream.contains("id:" + (start + 1) + "\nevent:user-change\ndata:{\"sequence\":" + (start + 1)));
+        assertTrue(stream.contains("\"type\":\"CREATED\""));
+
+        MvcResult live = mockMvc.perform(get("/api/users/changes"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        userService.deleteUserById(id);
+        assertTrue(awaitContent(live, "\"type\":\"DELETED\"").contains("\"userId\":" + id));
+
+        MvcResult stale = mockMvc.perform(get("/api/users/changes?after=1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertTrue(awaitContent(stale, "event:resync")
+                .contains("data:{\"latestSequence\":" + userChangeFeed.latestSequence() + "}"));
+    }
+
+    private static String awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        String content = result.getResponse().getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            content = result.getResponse().getContentAsString();
+        }
+        assertTrue(content.contains(expected), content);
+        return content;
+    }
+}
@@ -0,0 +1,80 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.config.ChangeFeedProperties;
+import com.rafael.rocha.spring_challenge.dto.UserChangeEventDTO;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import com.rafael.rocha.spring_challenge.repository.UserField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeFeedTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    private UserChangeFeed userChangeFeed;
+
+    @BeforeEach
+    void setUp() {
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setCapacity(3);
+        userChangeFeed = new UserChangeFeed(userMapper, properties);
+    }
+
+    @Test
+    void readAfter_ReplaysInOrderUpToLimit() {
+        long start = userChangeFeed.latestSequence();
+        AtomicInteger notified = new AtomicInteger();
+        userChangeFeed.addListener(notified::incrementAndGet);
+
+        userChangeFeed.updated(1L, Map.of(UserField.PHONE, "+55 11 98765-4321"), 4L);
+        userChangeFeed.deleted(2L);
+
+        assertEquals(2, notified.get());
+        assertEquals(start + 2, userChangeFeed.latestSequence());
+
+        UserChangeFeed.Slice slice = userChangeFeed.readAfter(start, 1);
+        assertFalse(slice.resyncRequired());
+        UserChangeEventDTO updated = slice.events().get(0);
+        assertEquals(start + 1, updated.getSequence());
+        assertEquals(UserChangeEventDTO.Type.UPDATED, updated.getType());
+        assertEquals(4L, updated.getVersion());
+        assertEquals("+55 11 98765-4321", updated.getUser().getPhone());
+        assertNull(updated.getUser().getFullName());
+
+        assertEquals(List.of(UserChangeEventDTO.Type.DELETED), types(userChangeFeed.readAfter(start + 1, 10)));
+        assertTrue(userChangeFeed.readAfter(start + 2, 10).events().isEmpty());
+    }
+
+    @Test
+    void readAfter_RequiresResyncOncePositionIsOverwritten() {
+        long start = userChangeFeed.latestSequence();
+        for (long id = 1; id <= 5; id++) {
+            userChangeFeed.deleted(id);
+        }
+
+        assertTrue(userChangeFeed.readAfter(start, 10).resyncRequired());
+        assertTrue(userChangeFeed.readAfter(start + 1, 10).resyncRequired());
+        assertEquals(3, userChangeFeed.readAfter(start + 2, 10).events().size());
+        assertEquals(5L, userChangeFeed.readAfter(start + 4, 10).events().get(0).getUserId());
+
+        // Positions from before a restart, or never handed out
+        assertTrue(userChangeFeed.readAfter(0, 10).resyncRequired());
+        assertTrue(userChangeFeed.readAfter(start + 6, 10).resyncRequired());
+    }
+
+    private static List<UserChangeEventDTO.Type> types(UserChangeFeed.Slice slice) {
+        return slice.events().stream().map(UserChangeEventDTO::getType).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,144 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.config.ChangeFeedProperties;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserChangeStreamServiceTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    private final CountDownLatch unblock = new CountDownLatch(1);
+    private final Deque<SseEmitter> emitters = new ArrayDeque<>();
+    private UserChangeFeed userChangeFeed;
+    private UserChangeStreamService userChangeStreamService;
+
+    @BeforeEach
+    void setUp() {
+        start(new ChangeFeedProperties());
+    }
+
+    private void start(ChangeFeedProperties properties) {
+        properties.setHeartbeatInterval(Duration.ofMillis(50));
+        properties.setSendTimeout(Duration.ofMillis(200));
+        userChangeFeed = new UserChangeFeed(userMapper, properties);
+        userChangeStreamService = new UserChangeStreamService(userChangeFeed, properties) {
+            @Override
+            SseEmitter newEmitter() {
+                return emitters.removeFirst();
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        unblock.countDown();
+        userChangeStreamService.shutdown();
+    }
+
+    @Test
+    void stalledSubscriber_DoesNotHoldUpOthersAndIsDropped() throws Exception {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        CountDownLatch stalledCompleted = new CountDownLatch(1);
+        emitters.add(stalled(new CountDownLatch(1), stalledCompleted));
+        emitters.add(new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) {
+                builder.build().stream()
+                        .map(part -> part.getData().toString())
+                        .filter(data -> data.contains("event:"))
+                        .forEach(received::add);
+            }
+        });
+        userChangeStreamService.subscribe(null);
+        userChangeStreamService.subscribe(null);
+
+        userChangeFeed.deleted(1L);
+        userChangeFeed.deleted(2L);
+
+        assertTrue(received.poll(2, TimeUnit.SECONDS).contains("event:user-change"));
+        assertTrue(received.poll(2, TimeUnit.SECONDS).contains("event:user-change"));
+
+        // Dropped at the first heartbeat after the send timeout, completed once the blocked write gives up
+        Thread.sleep(400);
+        unblock.countDown();
+        assertTrue(stalledCompleted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void subscriberWithNoSenderFree_IsDroppedInsteadOfGettingAThread() throws Exception {
+        userChangeStreamService.shutdown();
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setSenderThreads(1);
+        properties.setSenderQueueCapacity(1);
+        start(properties);
+
+        CountDownLatch sending = new CountDownLatch(1);
+        emitters.add(stalled(sending, new CountDownLatch(1)));
+        userChangeStreamService.subscribe(null);
+        userChangeFeed.deleted(1L);
+        assertTrue(sending.await(2, TimeUnit.SECONDS));
+
+        CountDownLatch waitingCompleted = new CountDownLatch(1);
+        CountDownLatch rejectedCompleted = new CountDownLatch(1);
+        emitters.add(completed(waitingCompleted));
+        emitters.add(completed(rejectedCompleted));
+        // The only thread is stuck on the first subscriber: the second waits in line, the third finds it full
+        userChangeStreamService.subscribe(null);
+        userChangeStreamService.subscribe(null);
+
+        assertTrue(rejectedCompleted.await(2, TimeUnit.SECONDS));
+        assertEquals(1, waitingCompleted.getCount());
+    }
+
+    /**
+     * Blocks every write until the test ends, then fails it like a client that went away.
+     */
+    private SseEmitter stalled(CountDownLatch sending, CountDownLatch completed) {
+        return new SseEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                sending.countDown();
+                try {
+                    unblock.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Broken pipe");
+            }
+
+            @Override
+            public void complete() {
+                completed.countDown();
+            }
+        };
+    }
+
+    private static SseEmitter completed(CountDownLatch completed) {
+        return new SseEmitter() {
+            @Override
+            public void complete() {
+                completed.countDown();
+            }
+        };
+    }
+}
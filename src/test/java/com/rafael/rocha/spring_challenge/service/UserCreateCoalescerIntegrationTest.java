@@ -0,0 +1,153 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.config.WriteCoalescingProperties;
+import com.rafael.rocha.spring_challenge.exceptions.ConflictException;
+import com.rafael.rocha.spring_challenge.exceptions.ServiceOverloadedException;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.rafael.rocha.spring_challenge.UserRequests.userRequest;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A database of its own, so rows inserted behind the indexes' back do not reach the other test contexts.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:db_techmanage_coalesced;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE",
+        "techmanage.write-coalescing.enabled=true",
+        "techmanage.write-coalescing.max-wait=200ms"
+})
+class UserCreateCoalescerIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WriteCoalescingProperties writeCoalescingProperties;
+
+    @Autowired
+    private UserCreateCoalescer userCreateCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        // Rows inserted behind the indexes' back are unknown to the service
+        jdbcTemplate.update("DELETE FROM users WHERE id < 0");
+        userRepository.findAll().forEach(user -> userService.deleteUserById(user.getId()));
+        jdbcTemplate.update("DELETE FROM users");
+    }
+
+    @Test
+    void concurrentCreates_AreWrittenTogetherWithTheirOwnResults() throws Exception {
+        userService.createUser(userRequest("Coalesced User", "taken@example.com"));
+        DistributionSummary batches = meterRegistry.get("techmanage.user.create.batch").summary();
+        long batchesBefore = batches.count();
+
+        List<String> emails = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            emails.add("signup" + i + "@example.com");
+        }
+        emails.add("signup0@example.com");
+        emails.add("taken@example.com");
+        List<Future<UserResponseDTO>> results = createConcurrently(emails);
+
+        int created = 0;
+        int conflicts = 0;
+        for (int i = 0; i < emails.size(); i++) {
+            try {
+                assertEquals(emails.get(i), results.get(i).get().getEmail());
+                created++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(ConflictException.class, e.getCause());
+                conflicts++;
+            }
+        }
+        // Of the two signup0 creates, whichever the writer took first wins
+        assertEquals(10, created);
+        assertEquals(2, conflicts);
+        ExecutionException taken = assertThrows(ExecutionException.class, () -> results.get(11).get());
+        assertInstanceOf(ConflictException.class, taken.getCause());
+
+        assertEquals(11, userRepository.count());
+        assertTrue(batches.count() - batchesBefore < emails.size(), "creates were coalesced");
+    }
+
+    @Test
+    void batchFailingInTheDatabase_IsRetriedOneByOne() throws Exception {
+        // Registered without going through the email index, like a write from another instance
+        jdbcTemplate.update("INSERT INTO users (id, full_name, email, phone, birth_date, user_type, version) "
+                + "VALUES (-1, 'Elsewhere', 'elsewhere@example.com', '+1 23 98765-4321', DATE '1970-01-01', 'VIEWER', 0)");
+
+        List<Future<UserResponseDTO>> results = createConcurrently(
+                List.of("first@example.com", "elsewhere@example.com", "second@example.com"));
+
+        assertEquals("first@example.com", results.get(0).get().getEmail());
+        ExecutionException duplicate = assertThrows(ExecutionException.class, () -> results.get(1).get());
+        assertInstanceOf(DataIntegrityViolationException.class, duplicate.getCause());
+        assertEquals("second@example.com", results.get(2).get().getEmail());
+        assertEquals(3, userRepository.count());
+    }
+
+    @Test
+    void createNotWrittenInTime_GetsServiceUnavailableAndIsDropped() throws Exception {
+        Duration timeout = writeCoalescingProperties.getTimeout();
+        // Shorter than max-wait, so the batch is still gathering when the caller gives up
+        writeCoalescingProperties.setTimeout(Duration.ofMillis(50));
+        try {
+            assertThrows(ServiceOverloadedException.class,
+                    () -> userCreateCoalescer.create(userRequest("Coalesced User", "impatient@example.com")));
+        } finally {
+            writeCoalescingProperties.setTimeout(timeout);
+        }
+
+        // The next batch is written after the dropped one
+        userService.createUser(userRequest("Coalesced User", "patient@example.com"));
+        assertEquals(List.of("patient@example.com"),
+                jdbcTemplate.queryForList("SELECT email FROM users", String.class));
+    }
+
+    private List<Future<UserResponseDTO>> createConcurrently(List<String> emails) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(emails.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<UserResponseDTO>> results = new ArrayList<>();
+            for (String email : emails) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return userService.createUser(userRequest("Coalesced User", email));
+                }));
+            }
+            start.countDown();
+            return results;
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+}
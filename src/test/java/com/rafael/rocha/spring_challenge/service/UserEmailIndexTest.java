@@ -0,0 +1,72 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserEmailIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserEmailIndex userEmailIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("LeBron.James@nba.com"));
+    }
+
+    @Test
+    void contains_IsCaseInsensitiveOnceBuilt() {
+        assertFalse(userEmailIndex.contains("lebron.james@nba.com"));
+
+        userEmailIndex.rebuild();
+
+        assertTrue(userEmailIndex.contains(" lebron.james@NBA.com"));
+        assertFalse(userEmailIndex.contains("nobody@nba.com"));
+    }
+
+    @Test
+    void remove_KeepsEmailReservedByAnotherWriter() {
+        userEmailIndex.rebuild();
+
+        userEmailIndex.add("stephen.curry@nba.com");
+        userEmailIndex.add("Stephen.Curry@nba.com");
+        userEmailIndex.remove("stephen.curry@nba.com");
+
+        assertTrue(userEmailIndex.contains("stephen.curry@nba.com"));
+
+        userEmailIndex.remove("stephen.curry@nba.com");
+
+        assertFalse(userEmailIndex.contains("stephen.curry@nba.com"));
+    }
+
+    @Test
+    void rebuild_CountsWritesCommittedDuringTheScanOnce() {
+        // The snapshot already holds the user created during the scan, and not the one deleted meanwhile
+        when(userRepository.streamAllEmails()).thenAnswer(invocation -> {
+            userEmailIndex.add("created@nba.com");
+            userEmailIndex.remove("LeBron.James@nba.com");
+            return Stream.of("created@nba.com");
+        });
+        userEmailIndex.rebuild();
+
+        assertTrue(userEmailIndex.contains("created@nba.com"));
+        assertFalse(userEmailIndex.contains("lebron.james@nba.com"));
+
+        userEmailIndex.remove("created@nba.com");
+
+        assertFalse(userEmailIndex.contains("created@nba.com"));
+    }
+}
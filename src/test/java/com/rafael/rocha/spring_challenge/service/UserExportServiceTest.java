@@ -0,0 +1,99 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.rocha.spring_challenge.dto.ExportFormat;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.mapper.UserMapper;
+import com.rafael.rocha.spring_challenge.model.entity.User;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserExportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private UserExportService userExportService;
+
+    private User user;
+    private UserResponseDTO userResponseDTO;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+
+        userResponseDTO = new UserResponseDTO();
+        userResponseDTO.setId(1L);
+        userResponseDTO.setFullName("James, LeBron");
+        userResponseDTO.setEmail("lebron.james@nba.com");
+        userResponseDTO.setPhone("+1 23 98765-4321");
+        userResponseDTO.setUserType(UserType.ADMIN);
+    }
+
+    @Test
+    void exportUsers_Ndjson() {
+        when(userRepository.streamAllOrderById()).thenReturn(Stream.of(user, user));
+        when(userMapper.toDTO(any(User.class))).thenReturn(userResponseDTO);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.exportUsers(ExportFormat.NDJSON, out);
+
+        assertEquals(2, rows);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        verify(entityManager, times(2)).detach(user);
+    }
+
+    @Test
+    void exportUsers_CsvEscapesValues() {
+        when(userRepository.streamAllOrderById()).thenReturn(Stream.of(user));
+        when(userMapper.toDTO(any(User.class))).thenReturn(userResponseDTO);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = userExportService.exportUsers(ExportFormat.CSV, out);
+
+        assertEquals(1, rows);
+        assertEquals(UserExportService.CSV_HEADER + "\n"
+                        + "1,\"James, LeBron\",lebron.james@nba.com,+1 23 98765-4321,,ADMIN\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportUsers_ClosesStream() {
+        Stream<User> users = Stream.<User>empty().onClose(() -> userResponseDTO.setId(null));
+        when(userRepository.streamAllOrderById()).thenReturn(users);
+
+        userExportService.exportUsers(ExportFormat.NDJSON, new ByteArrayOutputStream());
+
+        assertNull(userResponseDTO.getId());
+    }
+}
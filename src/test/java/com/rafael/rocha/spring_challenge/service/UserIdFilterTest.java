@@ -0,0 +1,85 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdFilterTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserIdFilter userIdFilter;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.streamAllIds()).thenReturn(Stream.of(1L, 63L, 64L, 70_000L));
+    }
+
+    @Test
+    void mightContain_AnswersTrueUntilBuilt() {
+        assertTrue(userIdFilter.mightContain(42L));
+
+        userIdFilter.rebuild();
+
+        assertFalse(userIdFilter.mightContain(42L));
+    }
+
+    @Test
+    void mightContain_KnowsLoadedIds() {
+        userIdFilter.rebuild();
+
+        assertTrue(userIdFilter.mightContain(1L));
+        assertTrue(userIdFilter.mightContain(63L));
+        assertTrue(userIdFilter.mightContain(64L));
+        assertTrue(userIdFilter.mightContain(70_000L));
+        assertFalse(userIdFilter.mightContain(2L));
+        assertFalse(userIdFilter.mightContain(-1L));
+        assertFalse(userIdFilter.mightContain(null));
+    }
+
+    @Test
+    void mightContain_LeavesIdsPastTheScanToTheDatabase() {
+        userIdFilter.rebuild();
+
+        assertTrue(userIdFilter.mightContain(70_001L));
+        assertTrue(userIdFilter.mightContain(1_000_000_000L));
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void mightContain_FindsIdsInsertedBelowTheScanElsewhere() {
+        userIdFilter.rebuild();
+        // Another instance filling a block of ids it reserved before the scan
+        when(userRepository.existsById(30L)).thenReturn(true);
+
+        assertTrue(userIdFilter.mightContain(30L));
+        assertTrue(userIdFilter.mightContain(30L));
+        assertFalse(userIdFilter.mightContain(31L));
+
+        verify(userRepository, times(1)).existsById(30L);
+    }
+
+    @Test
+    void addAndRemove_UpdateSingleBits() {
+        userIdFilter.rebuild();
+
+        userIdFilter.add(65L);
+        userIdFilter.remove(64L);
+
+        assertTrue(userIdFilter.mightContain(63L));
+        assertFalse(userIdFilter.mightContain(64L));
+        assertTrue(userIdFilter.mightContain(65L));
+    }
+}
@@ -0,0 +1,134 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.config.ImportProperties;
+import com.rafael.rocha.spring_challenge.dto.ImportJobResponseDTO;
+import com.rafael.rocha.spring_challenge.exceptions.BusinessException;
+import com.rafael.rocha.spring_challenge.model.entity.ImportJob;
+import com.rafael.rocha.spring_challenge.model.enums.ImportJobStatus;
+import com.rafael.rocha.spring_challenge.repository.ImportJobRepository;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "techmanage.import.work-dir=target/import-test")
+class UserImportServiceTest {
+
+    private static final String HEADER = "fullName,email,phone,birthDate,userType\n";
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Autowired
+    private ImportProperties importProperties;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        importJobRepository.deleteAll();
+    }
+
+    @Test
+    void startImport_CommitsValidRowsAndWritesErrorFile() throws Exception {
+        String csv = HEADER
+                + "LeBron James,lebron.james@nba.com,+1 23 98765-4321,1984-12-30,ADMIN\n"
+                + "\"Curry, Stephen\",stephen.curry@nba.com,+1 23 98765-4322,1988-03-14,EDITOR\n"
+                + "Kevin Durant,not-an-email,+1 23 98765-4323,1988-09-29,VIEWER\n"
+                + "Bad Phone,bad.phone@nba.com,123,1988-09-29,VIEWER\n"
+                + "Repeated,LEBRON.JAMES@nba.com,+1 23 98765-4324,1994-12-06,EDITOR\n";
+
+        ImportJobResponseDTO job = userImportService.startImport(file(csv), 2);
+        ImportJobResponseDTO finished = awaitFinished(job.getId());
+
+        assertEquals(ImportJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(5, finished.getProcessedRows());
+        assertEquals(2, finished.getImportedRows());
+        assertEquals(3, finished.getRejectedRows());
+        assertEquals(2, userRepository.count());
+
+        List<String> errors = Files.readAllLines(userImportService.getErrorFile(job.getId()));
+        assertEquals("row,fullName,email,phone,birthDate,userType,errors", errors.get(0));
+        assertEquals(4, errors.size());
+        assertTrue(errors.get(1).startsWith("3,Kevin Durant,not-an-email,"));
+        assertTrue(errors.get(2).contains("phone: Phone number must match"));
+        assertTrue(errors.get(3).endsWith("email: Email already registered"));
+        assertFalse(Files.exists(importProperties.getWorkDir().resolve(job.getId() + ".csv")));
+    }
+
+    @Test
+    void resumeImport_ContinuesAfterLastCommittedChunk() throws Exception {
+        ImportJob job = new ImportJob();
+        job.setId("resume-test");
+        job.setFileName("users.csv");
+        job.setStatus(ImportJobStatus.FAILED);
+        job.setChunkSize(2);
+        job.setProcessedRows(2);
+        job.setImportedRows(2);
+        job.setCreatedAt(LocalDateTime.now());
+        job.setUpdatedAt(LocalDateTime.now());
+        importJobRepository.save(job);
+        Files.createDirectories(importProperties.getWorkDir());
+        Files.writeString(importProperties.getWorkDir().resolve("resume-test.csv"), HEADER
+                + "Already,already.one@nba.com,+1 23 98765-4321,1984-12-30,ADMIN\n"
+                + "Committed,already.two@nba.com,+1 23 98765-4321,1984-12-30,ADMIN\n"
+                + "Giannis Antetokounmpo,giannis@nba.com,+1 23 98765-4324,1994-12-06,EDITOR\n");
+
+        userImportService.resumeImport("resume-test");
+        ImportJobResponseDTO finished = awaitFinished("resume-test");
+
+        assertEquals(ImportJobStatus.COMPLETED, finished.getStatus());
+        assertEquals(3, finished.getProcessedRows());
+        assertEquals(3, finished.getImportedRows());
+        assertEquals(1, userRepository.count());
+    }
+
+    @Test
+    void resumeImport_RejectsCompletedJob() throws Exception {
+        ImportJobResponseDTO job = userImportService.startImport(
+                file(HEADER + "LeBron James,lebron.james@nba.com,+1 23 98765-4321,1984-12-30,ADMIN\n"), null);
+        awaitFinished(job.getId());
+
+        assertThrows(BusinessException.class, () -> userImportService.resumeImport(job.getId()));
+    }
+
+    @Test
+    void startImport_FailsOnMissingColumns() throws Exception {
+        ImportJobResponseDTO job = userImportService.startImport(file("fullName,email\nLeBron,lebron@nba.com\n"), null);
+
+        ImportJobResponseDTO finished = awaitFinished(job.getId());
+
+        assertEquals(ImportJobStatus.FAILED, finished.getStatus());
+        assertTrue(finished.getMessage().startsWith("Import file is missing columns"));
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "users.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ImportJobResponseDTO awaitFinished(String id) throws InterruptedException {
+        for (int i = 0; i < 400; i++) {
+            ImportJobResponseDTO job = userImportService.getImportJob(id);
+            if (job.getStatus() == ImportJobStatus.COMPLETED || job.getStatus() == ImportJobStatus.FAILED) {
+                return job;
+            }
+            Thread.sleep(50);
+        }
+        fail("Import job " + id + " did not finish");
+        return null;
+    }
+}
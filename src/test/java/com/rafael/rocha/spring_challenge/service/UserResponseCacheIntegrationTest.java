@@ -0,0 +1,134 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPageResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.service.UserResponseCache.Format;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.rafael.rocha.spring_challenge.UserRequests.userRequest;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class UserResponseCacheIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserResponseCache userResponseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private List<Long> ids;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findAll().forEach(user -> userService.deleteUserById(user.getId()));
+        userResponseCache.invalidateAll();
+
+        List<UserRequestDTO> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(userRequest("Cached User " + i, "cached" + i + "@example.com"));
+        }
+        ids = userService.createUsers(requests).getResults().stream()
+                .map(result -> result.getUser().getId())
+                .toList();
+    }
+
+    @Test
+    void storedUser_IsDroppedOnceAWriteCommits() throws Exception {
+        Long id = ids.get(0);
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(jsonPath("$.fullName").value("Cached User 0"))
+                .andExpect(header().string("ETag", "\"0\""));
+        assertSame(userResponseCache.get(id, Format.JSON), userResponseCache.get(id, Format.JSON));
+
+        userService.updateUserById(id, userRequest("Renamed User", "cached0@example.com"), 0L);
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(jsonPath("$.fullName").value("Renamed User"))
+                .andExpect(header().string("ETag", "\"1\""));
+
+        userService.deleteUserById(id);
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void page_IsTheSameJsonAsSerializingIt() throws Exception {
+        UserPageResponseDTO page = userService.findAllUsers(new UserFilterDTO(), null, 2, null);
+        byte[] expected = objectMapper.writeValueAsBytes(page);
+
+        assertArrayEquals(expected, userResponseCache.encodePage(() -> page));
+        // Second time round every user comes from its stored bytes
+        assertArrayEquals(expected, userResponseCache.encodePage(() -> page));
+        assertArrayEquals(objectMapper.writeValueAsBytes(new UserPageResponseDTO(List.of(), 0, null)),
+                userResponseCache.encodePage(() -> new UserPageResponseDTO(List.of(), 0, null)));
+    }
+
+    @Test
+    void page_SkipsStoredBytesOfAnOlderVersion() throws Exception {
+        mockMvc.perform(get("/api/users"))
+                .andExpect(jsonPath("$.content[1].phone").value("+1 23 98765-4321"));
+
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setPhone("+55 11 91234-5678");
+        userService.patchUserById(ids.get(1), patch, null);
+
+        mockMvc.perform(get("/api/users"))
+                .andExpect(jsonPath("$.size").value(3))
+                .andExpect(jsonPath("$.content[1].phone").value("+55 11 91234-5678"))
+                .andExpect(jsonPath("$.content[2].fullName").value("Cached User 2"));
+    }
+
+    @Test
+    void olderVersion_DoesNotReplaceTheStoredOne() throws Exception {
+        Long id = ids.get(0);
+        UserPageResponseDTO before = userService.findAllUsers(new UserFilterDTO(), null, 1, null);
+        userService.updateUserById(id, userRequest("Renamed User", "cached0@example.com"), 0L);
+        assertEquals(1L, userResponseCache.get(id, Format.JSON).version());
+
+        // A page read before the update, served late
+        userResponseCache.encodePage(() -> before);
+
+        assertEquals(1L, userResponseCache.get(id, Format.JSON).version());
+    }
+
+    @Test
+    void userReadBeforeAnInvalidation_IsNotStoredAfterIt() throws Exception {
+        Long id = ids.get(0);
+
+        // The update commits, and drops the user, between the page's read and its encoding
+        userResponseCache.encodePage(() -> {
+            UserPageResponseDTO page = userService.findAllUsers(new UserFilterDTO(), null, 1, null);
+            userService.updateUserById(id, userRequest("Renamed User", "cached0@example.com"), 0L);
+            return page;
+        });
+
+        mockMvc.perform(get("/api/users/{id}", id))
+                .andExpect(jsonPath("$.fullName").value("Renamed User"))
+                .andExpect(header().string("ETag", "\"1\""));
+    }
+}
@@ -0,0 +1,138 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserSearchIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserSearchIndex userSearchIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(userRepository.streamAllSearchFields()).thenReturn(Stream.of(
+                new UserSearchResultDTO(1L, "LeBron James", "lebron.james@nba.com"),
+                new UserSearchResultDTO(2L, "James Harden", "james.harden@nba.com"),
+                new UserSearchResultDTO(3L, "Luka Dončić", "luka.doncic@nba.com"),
+                new UserSearchResultDTO(4L, "Jamal Murray", "jamal.murray@nba.com"),
+                new UserSearchResultDTO(5L, "Stephen Curry", "chef@gsw.com")));
+        userSearchIndex.rebuild();
+    }
+
+    @Test
+    void rebuild_MarksIndexReady() {
+        assertTrue(userSearchIndex.isReady());
+    }
+
+    @Test
+    void search_RanksNamePrefixAboveWordPrefixAndSubstring() {
+        userSearchIndex.put(6L, "Mike Jameson", "benjamesjr@nba.com");
+
+        assertEquals(List.of(2L, 1L, 6L), ids(userSearchIndex.search("james", 10)));
+        assertEquals(List.of(6L), ids(userSearchIndex.search("njames", 10)));
+    }
+
+    @Test
+    void search_ShortQueryMatchesWordPrefixesOnly() {
+        assertEquals(List.of(4L, 2L, 1L), ids(userSearchIndex.search("ja", 10)));
+        assertEquals(List.of(), ids(userSearchIndex.search("am", 10)));
+    }
+
+    @Test
+    void search_LongerQueryMatchesAnySubstring() {
+        assertEquals(List.of(4L), ids(userSearchIndex.search("urra", 10)));
+    }
+
+    @Test
+    void search_IgnoresCaseAndAccents() {
+        assertEquals(List.of(3L), ids(userSearchIndex.search("DONCIC", 10)));
+        assertEquals(List.of(3L), ids(userSearchIndex.search("dončić", 10)));
+    }
+
+    @Test
+    void search_MatchesEmailAndWordsInAnyOrder() {
+        assertEquals(List.of(5L), ids(userSearchIndex.search("chef@gsw", 10)));
+        assertEquals(List.of(1L), ids(userSearchIndex.search("james lebron", 10)));
+    }
+
+    @Test
+    void search_RespectsLimit() {
+        assertEquals(List.of(4L), ids(userSearchIndex.search("ja", 1)));
+    }
+
+    @Test
+    void search_DropsTrigramFalsePositives() {
+        userSearchIndex.put(6L, "Banana Split", "banana@split.com");
+
+        // every trigram of "ananan" occurs in "banana", the word itself does not
+        assertEquals(List.of(), ids(userSearchIndex.search("ananan", 10)));
+        assertEquals(List.of(6L), ids(userSearchIndex.search("anana", 10)));
+    }
+
+    @Test
+    void put_ReindexesChangedUser() {
+        userSearchIndex.put(2L, "Kevin Durant", "kevin.durant@nba.com");
+
+        assertEquals(List.of(1L), ids(userSearchIndex.search("james", 10)));
+        assertEquals(List.of(2L), ids(userSearchIndex.search("durant", 10)));
+    }
+
+    @Test
+    void remove_DropsUserFromResults() {
+        userSearchIndex.remove(1L);
+
+        assertEquals(List.of(2L), ids(userSearchIndex.search("james", 10)));
+        assertEquals(List.of(), ids(userSearchIndex.search("lebron", 10)));
+    }
+
+    @Test
+    void search_CommonGramsStopAtTheLimitInIdOrder() {
+        for (long id = 100; id < 10_100; id++) {
+            userSearchIndex.put(id, "Player " + id, "player" + id + "@mail.com");
+        }
+
+        assertEquals(List.of(100L, 101L, 102L), ids(userSearchIndex.search("mail.com", 3)));
+        assertEquals(List.of(9_999L), ids(userSearchIndex.search("r9999@mail", 3)));
+    }
+
+    @Test
+    void rebuild_ReplaysChangesCommittedDuringTheScan() {
+        UserSearchIndex rebuilding = new UserSearchIndex(userRepository);
+        // The snapshot predates the rename of 1 and the delete of 2
+        when(userRepository.streamAllSearchFields()).thenAnswer(invocation -> {
+            rebuilding.update(1L, "Bronny James", "bronny.james@nba.com");
+            rebuilding.remove(2L);
+            return Stream.of(
+                    new UserSearchResultDTO(1L, "LeBron James", "lebron.james@nba.com"),
+                    new UserSearchResultDTO(2L, "James Harden", "james.harden@nba.com"));
+        });
+        assertNull(rebuilding.emailOf(1L));
+
+        rebuilding.rebuild();
+
+        assertEquals(List.of(1L), ids(rebuilding.search("james", 10)));
+        assertEquals(List.of(), ids(rebuilding.search("lebron", 10)));
+        assertEquals("bronny.james@nba.com", rebuilding.emailOf(1L));
+        assertNull(rebuilding.emailOf(2L));
+    }
+
+    private static List<Long> ids(List<UserSearchResultDTO> results) {
+        return results.stream().map(UserSearchResultDTO::getId).toList();
+    }
+}
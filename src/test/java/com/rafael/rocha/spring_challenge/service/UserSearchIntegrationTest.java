@@ -0,0 +1,102 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.exceptions.ResourceNotFoundException;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserSearchIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSearchIndex userSearchIndex;
+
+    private UserRequestDTO userRequestDTO;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.findAll().forEach(user -> userService.deleteUserById(user.getId()));
+
+        userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setFullName("LeBron James");
+        userRequestDTO.setEmail("lebron.james@nba.com");
+        userRequestDTO.setPhone("+1 23 98765-4321");
+        userRequestDTO.setBirthDate(new Date(0));
+        userRequestDTO.setUserType(UserType.ADMIN);
+    }
+
+    @Test
+    void searchUsers_FollowsCreateUpdateAndDelete() {
+        assertTrue(userSearchIndex.isReady());
+        Long id = userService.createUser(userRequestDTO).getId();
+
+        assertEquals(List.of(id), ids(userService.searchUsers("lebr", null)));
+
+        userRequestDTO.setFullName("Bronny James");
+        userRequestDTO.setEmail("bronny.james@nba.com");
+        userService.updateUserById(id, userRequestDTO, null);
+
+        assertTrue(userService.searchUsers("lebr", null).isEmpty());
+        assertEquals(List.of(id), ids(userService.searchUsers("bronny", null)));
+
+        userService.deleteUserById(id);
+
+        assertTrue(userService.searchUsers("bronny", null).isEmpty());
+    }
+
+    @Test
+    void patchUserById_KeepsIndexesInSync() {
+        Long id = userService.createUser(userRequestDTO).getId();
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setEmail("king.james@nba.com");
+
+        userService.patchUserById(id, patch, null);
+
+        assertEquals(id, userService.getUserByEmail("king.james@nba.com").getId());
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserByEmail("lebron.james@nba.com"));
+        assertEquals(List.of(id), ids(userService.searchUsers("king.james", null)));
+
+        patch = new UserPatchDTO();
+        patch.setFullName("Bronny James");
+        userService.patchUserById(id, patch, null);
+
+        assertEquals(List.of(id), ids(userService.searchUsers("bronny", null)));
+        assertEquals(List.of(id), ids(userService.searchUsers("king.james", null)));
+
+        userService.deleteUserById(id);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserByEmail("king.james@nba.com"));
+        assertThrows(ResourceNotFoundException.class, () -> userService.getUserById(id));
+        assertTrue(userService.searchUsers("bronny", null).isEmpty());
+    }
+
+    @Test
+    void searchByFullNameOrEmail_EscapesWildcards() {
+        userService.createUser(userRequestDTO);
+
+        assertEquals(1, userRepository.searchByFullNameOrEmail("bron", Limit.of(10)).size());
+        assertTrue(userRepository.searchByFullNameOrEmail("%", Limit.of(10)).isEmpty());
+    }
+
+    private static List<Long> ids(List<UserSearchResultDTO> results) {
+        return results.stream().map(UserSearchResultDTO::getId).toList();
+    }
+}
@@ -0,0 +1,160 @@
+package com.rafael.rocha.spring_challenge.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.rafael.rocha.spring_challenge.config.CacheConfig;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
+import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
+import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.exceptions.PreconditionFailedException;
+import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class UserServiceCachingTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Cache<Object, Object> nativeCache;
+    private UserRequestDTO userRequestDTO;
+
+    @BeforeEach
+    void setUp() {
+        TransactionAwareCacheDecorator cache = (TransactionAwareCacheDecorator) cacheManager.getCache(CacheConfig.USERS_CACHE);
+        nativeCache = ((CaffeineCache) cache.getTargetCache()).getNativeCache();
+        nativeCache.invalidateAll();
+        userRepository.deleteAll();
+
+        userRequestDTO = new UserRequestDTO();
+        userRequestDTO.setFullName("LeBron James");
+        userRequestDTO.setEmail("lebron.james@nba.com");
+        userRequestDTO.setPhone("+1 23 98765-4321");
+        userRequestDTO.setBirthDate(new Date(0));
+        userRequestDTO.setUserType(UserType.ADMIN);
+    }
+
+    @Test
+    void getUserById_ServesRepeatedReadsFromCache() {
+        Long id = userService.createUser(userRequestDTO).getId();
+        long hitsBefore = nativeCache.stats().hitCount();
+
+        userService.getUserById(id);
+        userService.getUserById(id);
+
+        assertEquals(hitsBefore + 1, nativeCache.stats().hitCount());
+        assertNotNull(nativeCache.getIfPresent(id));
+    }
+
+    @Test
+    void getUserById_WithoutProjection_ReadsThroughCache() {
+        Long id = userService.createUser(userRequestDTO).getId();
+        long hitsBefore = nativeCache.stats().hitCount();
+
+        userService.getUserById(id, null);
+        userService.getUserById(id, null);
+
+        assertEquals(hitsBefore + 1, nativeCache.stats().hitCount());
+        assertNotNull(nativeCache.getIfPresent(id));
+    }
+
+    @Test
+    void updateUserById_RefreshesEntryAfterCommit() {
+        Long id = userService.createUser(userRequestDTO).getId();
+        userService.getUserById(id);
+
+        userRequestDTO.setFullName("King James");
+        userService.updateUserById(id, userRequestDTO, 0L);
+
+        assertEquals("King James", ((UserResponseDTO) nativeCache.getIfPresent(id)).getFullName());
+    }
+
+    @Test
+    void updateUserById_EvictsEntryWhenVersionUnknown() {
+        Long id = userService.createUser(userRequestDTO).getId();
+        userService.getUserById(id);
+
+        userRequestDTO.setFullName("King James");
+        userService.updateUserById(id, userRequestDTO, null);
+
+        assertNull(nativeCache.getIfPresent(id));
+        UserResponseDTO reloaded = userService.getUserById(id);
+        assertEquals("King James", reloaded.getFullName());
+        assertEquals(1L, reloaded.getVersion());
+    }
+
+    @Test
+    void patchUserById_EvictsEntry() {
+        Long id = userService.createUser(userRequestDTO).getId();
+        userService.getUserById(id);
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setUserType(UserType.VIEWER);
+
+        assertEquals(1L, userService.patchUserById(id, patch, 0L));
+
+        assertNull(nativeCache.getIfPresent(id));
+        assertEquals(UserType.VIEWER, userService.getUserById(id).getUserType());
+        assertEquals("LeBron James", userService.getUserById(id).getFullName());
+    }
+
+    @Test
+    void updateUserById_LeavesEntryUntouchedOnRollback() {
+        Long id = userService.createUser(userRequestDTO).getId();
+        userService.getUserById(id);
+
+        userRequestDTO.setFullName("King James");
+        transactionTemplate.executeWithoutResult(status -> {
+            userService.updateUserById(id, userRequestDTO, null);
+            status.setRollbackOnly();
+        });
+
+        assertEquals("LeBron James", ((UserResponseDTO) nativeCache.getIfPresent(id)).getFullName());
+    }
+
+    @Test
+    void updateUserById_BumpsVersionAndRejectsStaleIfMatch() {
+        UserResponseDTO created = userService.createUser(userRequestDTO);
+        assertEquals(0L, created.getVersion());
+
+        userRequestDTO.setFullName("King James");
+        UserResponseDTO updated = userService.updateUserById(created.getId(), userRequestDTO, 0L);
+
+        assertEquals(1L, updated.getVersion());
+        assertEquals(1L, ((UserResponseDTO) nativeCache.getIfPresent(created.getId())).getVersion());
+
+        userRequestDTO.setFullName("LeBron Raymone James");
+        assertThrows(PreconditionFailedException.class,
+                () -> userService.updateUserById(created.getId(), userRequestDTO, 0L));
+        assertEquals("King James", userService.getUserById(created.getId()).getFullName());
+    }
+
+    @Test
+    void deleteUserById_EvictsEntry() {
+        Long id = userService.createUser(userRequestDTO).getId();
+        userService.getUserById(id);
+
+        userService.deleteUserById(id);
+
+        assertNull(nativeCache.getIfPresent(id));
+    }
+}
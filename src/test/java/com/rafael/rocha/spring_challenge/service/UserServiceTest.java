@@ -1,27 +1,57 @@
 package com.rafael.rocha.spring_challenge.service;
 
+import com.rafael.rocha.spring_challenge.config.BatchProperties;
+import com.rafael.rocha.spring_challenge.config.PaginationProperties;
+import com.rafael.rocha.spring_challenge.dto.UserBatchItemResultDTO;
+import com.rafael.rocha.spring_challenge.dto.UserBatchResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserFilterDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPageResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserPatchDTO;
 import com.rafael.rocha.spring_challenge.dto.UserRequestDTO;
 import com.rafael.rocha.spring_challenge.dto.UserResponseDTO;
+import com.rafael.rocha.spring_challenge.dto.UserSearchResultDTO;
+import com.rafael.rocha.spring_challenge.exceptions.BusinessException;
+import com.rafael.rocha.spring_challenge.exceptions.ConflictException;
+import com.rafael.rocha.spring_challenge.exceptions.PreconditionFailedException;
 import com.rafael.rocha.spring_challenge.exceptions.ResourceNotFoundException;
 import com.rafael.rocha.spring_challenge.mapper.UserMapper;
 import com.rafael.rocha.spring_challenge.model.entity.User;
 import com.rafael.rocha.spring_challenge.model.enums.UserType;
+import com.rafael.rocha.spring_challenge.repository.UserField;
 import com.rafael.rocha.spring_challenge.repository.UserRepository;
+import com.rafael.rocha.spring_challenge.repository.UserWriteState;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 
 @ExtendWith(MockitoExtension.class)
 class UserServiceTest {
@@ -32,6 +62,33 @@ class UserServiceTest {
     @Mock
     private UserMapper userMapper;
 
+    @Spy
+    private PaginationProperties paginationProperties = new PaginationProperties();
+
+    @Spy
+    private BatchProperties batchProperties = new BatchProperties();
+
+    @Mock
+    private UserIdFilter userIdFilter;
+
+    @Mock
+    private UserEmailIndex userEmailIndex;
+
+    @Mock
+    private UserSearchIndex userSearchIndex;
+
+    @Mock
+    private UserIndexListener userIndexListener;
+
+    @Mock
+    private UserCreateCoalescer userCreateCoalescer;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private UserService userService;
 
@@ -65,21 +122,120 @@ class UserServiceTest {
         userResponseDTO.setUserType(UserType.ADMIN);
     }
 
+    private static UserRequestDTO copyOf(UserRequestDTO source) {
+        UserRequestDTO copy = new UserRequestDTO();
+        copy.setFullName(source.getFullName());
+        copy.setEmail(source.getEmail());
+        copy.setPhone(source.getPhone());
+        copy.setBirthDate(source.getBirthDate());
+        copy.setUserType(source.getUserType());
+        return copy;
+    }
+
     @Test
     void findAllUsers_Success() {
-        when(userRepository.findAll()).thenReturn(Collections.singletonList(user));
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(Collections.singletonList(user));
         when(userMapper.toDTO(any(User.class))).thenReturn(userResponseDTO);
 
-        List<UserResponseDTO> result = userService.findAllUsers();
+        UserPageResponseDTO result = userService.findAllUsers(null, null, null, null);
 
         assertNotNull(result);
-        assertFalse(result.isEmpty());
-        assertEquals(1, result.size());
-        verify(userRepository).findAll();
+        assertEquals(1, result.getSize());
+        assertNull(result.getNextCursor());
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(21));
+    }
+
+    @Test
+    void findAllUsers_ReturnsNextCursorWhenMoreRowsExist() {
+        User second = new User();
+        second.setId(2L);
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(List.of(user, second));
+        when(userMapper.toDTO(any(User.class))).thenReturn(userResponseDTO);
+
+        UserPageResponseDTO first = userService.findAllUsers(null, null, 1, null);
+
+        assertEquals(1, first.getSize());
+        assertNotNull(first.getNextCursor());
+
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(Collections.emptyList());
+        userService.findAllUsers(null, first.getNextCursor(), 1, null);
+
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(1L, Limit.of(2));
+    }
+
+    @Test
+    void findAllUsers_ClampsLimitToMaxSize() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class)))
+                .thenReturn(Collections.emptyList());
+
+        userService.findAllUsers(null, null, 10_000, null);
+
+        verify(userRepository).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(101));
+    }
+
+    @Test
+    void findAllUsers_WithFieldsUsesProjection() {
+        UserResponseDTO projected = new UserResponseDTO();
+        projected.setId(1L);
+        projected.setFullName("LeBron James");
+        when(userRepository.findProjected(any(), eq(21), eq(EnumSet.of(UserField.ID, UserField.FULL_NAME))))
+                .thenReturn(List.of(projected));
+
+        UserPageResponseDTO result = userService.findAllUsers(null, null, null, "fullName");
+
+        assertEquals(List.of(projected), result.getContent());
+        verify(userRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+        verifyNoInteractions(userMapper);
+    }
+
+    @Test
+    void findAllUsers_UnknownField() {
+        assertThrows(BusinessException.class,
+                () -> userService.findAllUsers(null, null, null, "password"));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findAllUsers_WithFilterUsesSpecification() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setUserType(UserType.ADMIN);
+        when(userRepository.findBy(any(Specification.class), any(Function.class))).thenReturn(List.of(user));
+        when(userMapper.toDTO(user)).thenReturn(userResponseDTO);
+
+        UserPageResponseDTO result = userService.findAllUsers(filter, null, null, null);
+
+        assertEquals(1, result.getSize());
+        assertNull(result.getNextCursor());
+        verify(userRepository, never()).findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class));
+    }
+
+    @Test
+    void findAllUsers_InvalidBirthDateRange() {
+        UserFilterDTO filter = new UserFilterDTO();
+        filter.setBornFrom(new Date(1_000));
+        filter.setBornTo(new Date(0));
+
+        assertThrows(BusinessException.class, () -> userService.findAllUsers(filter, null, null, null));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void findAllUsers_InvalidCursor() {
+        assertThrows(BusinessException.class,
+                () -> userService.findAllUsers(null, "not-a-cursor", null, null));
+
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void getUserById_Success() {
+        when(userIdFilter.mightContain(anyLong())).thenReturn(true);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         when(userMapper.toDTO(any(User.class))).thenReturn(userResponseDTO);
 
@@ -92,14 +248,67 @@ class UserServiceTest {
 
     @Test
     void getUserById_NotFound() {
+        when(userIdFilter.mightContain(anyLong())).thenReturn(true);
         when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> userService.getUserById(1L));
     }
 
+    @Test
+    void searchUsers_UsesIndexWhenReady() {
+        List<UserSearchResultDTO> hits = List.of(new UserSearchResultDTO(1L, "LeBron James", "lebron.james@nba.com"));
+        when(userSearchIndex.isReady()).thenReturn(true);
+        when(userSearchIndex.search("lebron", 20)).thenReturn(hits);
+
+        assertEquals(hits, userService.searchUsers("lebron", null));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void searchUsers_FallsBackToDatabaseWhileIndexLoads() {
+        when(userSearchIndex.isReady()).thenReturn(false);
+        when(userRepository.searchByFullNameOrEmail("lebron", Limit.of(5))).thenReturn(List.of());
+
+        assertTrue(userService.searchUsers(" lebron ", 5).isEmpty());
+
+        verify(userSearchIndex, never()).search(anyString(), anyInt());
+    }
+
+    @Test
+    void searchUsers_BlankQuery() {
+        assertThrows(BusinessException.class, () -> userService.searchUsers(" ", null));
+
+        verifyNoInteractions(userSearchIndex, userRepository);
+    }
+
+    @Test
+    void getUserById_WithFieldsUsesProjection() {
+        when(userIdFilter.mightContain(anyLong())).thenReturn(true);
+        when(userRepository.findProjectedById(1L, EnumSet.of(UserField.ID, UserField.USER_TYPE)))
+                .thenReturn(Optional.of(userResponseDTO));
+
+        UserResponseDTO result = userService.getUserById(1L, "userType");
+
+        assertEquals(userResponseDTO, result);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void getUserById_RejectedByIdFilter() {
+        when(userIdFilter.mightContain(anyLong())).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> userService.getUserById(1L));
+
+        verifyNoInteractions(userRepository);
+    }
+
     @Test
     void createUser_Success() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
         when(userMapper.toEntity(any(UserRequestDTO.class))).thenReturn(user);
         when(userRepository.save(any(User.class))).thenReturn(user);
         when(userMapper.toDTO(any(User.class))).thenReturn(userResponseDTO);
@@ -113,46 +322,245 @@ class UserServiceTest {
     }
 
     @Test
-    void updateUserById_Success() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(user);
+    void createUser_DuplicateEmailRejectedBeforeTransaction() {
+        when(userEmailIndex.contains("lebron.james@nba.com")).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> userService.createUser(userRequestDTO));
+
+        verifyNoInteractions(transactionTemplate, userRepository);
+    }
+
+    @Test
+    void getUserByEmail_Success() {
+        when(userRepository.findByEmail("lebron.james@nba.com")).thenReturn(Optional.of(user));
         when(userMapper.toDTO(any(User.class))).thenReturn(userResponseDTO);
 
-        UserResponseDTO result = userService.updateUserById(1L, userRequestDTO);
+        UserResponseDTO result = userService.getUserByEmail(" lebron.james@nba.com ");
 
-        assertNotNull(result);
         assertEquals(userResponseDTO.getId(), result.getId());
-        verify(userRepository).save(any(User.class));
+    }
+
+    @Test
+    void getUserByEmail_UnknownEmailNotFound() {
+        when(userRepository.findByEmail("nobody@nba.com")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> userService.getUserByEmail("nobody@nba.com"));
+
+        verifyNoInteractions(userEmailIndex);
+    }
+
+    @Test
+    void createUsers_ReportsStatusPerItem() {
+        UserRequestDTO invalid = new UserRequestDTO();
+        invalid.setEmail("invalid-email");
+        UserRequestDTO taken = copyOf(userRequestDTO);
+        taken.setEmail("stephen.curry@nba.com");
+        UserRequestDTO repeated = copyOf(userRequestDTO);
+        repeated.setEmail("LeBron.James@nba.com");
+
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("stephen.curry@nba.com"));
+        when(userMapper.toEntity(any(UserRequestDTO.class))).thenReturn(user);
+        when(userRepository.saveAll(anyList())).thenReturn(List.of(user));
+        when(userMapper.toDTO(any(User.class))).thenReturn(userResponseDTO);
+
+        UserBatchResponseDTO result = userService.createUsers(List.of(userRequestDTO, invalid, taken, repeated));
+
+        assertEquals(1, result.getCreated());
+        assertEquals(3, result.getFailed());
+        assertEquals(UserBatchItemResultDTO.Status.CREATED, result.getResults().get(0).getStatus());
+        assertEquals(UserBatchItemResultDTO.Status.INVALID, result.getResults().get(1).getStatus());
+        assertTrue(result.getResults().get(1).getErrors().containsKey("email"));
+        assertEquals(UserBatchItemResultDTO.Status.DUPLICATE_EMAIL, result.getResults().get(2).getStatus());
+        assertEquals(UserBatchItemResultDTO.Status.DUPLICATE_EMAIL, result.getResults().get(3).getStatus());
+        verify(userRepository).saveAll(List.of(user));
+    }
+
+    @Test
+    void createUsers_RejectsOversizedBatch() {
+        batchProperties.setMaxSize(1);
+
+        assertThrows(BusinessException.class,
+                () -> userService.createUsers(List.of(userRequestDTO, userRequestDTO)));
+
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void updateUserById_SingleStatement() {
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userSearchIndex.emailOf(1L)).thenReturn("lebron.james@nba.com");
+        when(userRepository.updateById(eq(1L), anyMap(), isNull(), eq("lebron.james@nba.com"))).thenReturn(1);
+        when(userMapper.toEntity(userRequestDTO)).thenReturn(user);
+        when(userMapper.toDTO(user)).thenReturn(userResponseDTO);
+
+        UserResponseDTO result = userService.updateUserById(1L, userRequestDTO, null);
+
+        assertNotNull(result);
+        assertNull(user.getVersion());
+        verify(userRepository, never()).findById(anyLong());
+        verify(userRepository, never()).findWriteStateById(anyLong());
+        verify(userIndexListener).updated(eq(1L), argThat(changes -> "LeBron James".equals(changes.get(UserField.FULL_NAME))
+                && "lebron.james@nba.com".equals(changes.get(UserField.EMAIL))), isNull());
+    }
+
+    @Test
+    void updateUserById_MatchingVersion() {
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userSearchIndex.emailOf(1L)).thenReturn("lebron.james@nba.com");
+        when(userRepository.updateById(eq(1L), anyMap(), eq(3L), eq("lebron.james@nba.com"))).thenReturn(1);
+        when(userMapper.toEntity(userRequestDTO)).thenReturn(user);
+        when(userMapper.toDTO(user)).thenReturn(userResponseDTO);
+
+        assertNotNull(userService.updateUserById(1L, userRequestDTO, 3L));
+        assertEquals(4L, user.getVersion());
+    }
+
+    @Test
+    void updateUserById_StaleVersion() {
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userSearchIndex.emailOf(1L)).thenReturn("lebron.james@nba.com");
+        when(userRepository.updateById(eq(1L), anyMap(), eq(3L), eq("lebron.james@nba.com"))).thenReturn(0);
+        when(userRepository.findWriteStateById(1L))
+                .thenReturn(Optional.of(new UserWriteState("lebron.james@nba.com", 4L)));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> userService.updateUserById(1L, userRequestDTO, 3L));
+
+        verify(userRepository, times(1)).updateById(anyLong(), anyMap(), any(), any());
+        verify(userIndexListener, never()).updated(anyLong(), any(), any());
+    }
+
+    @Test
+    void updateUserById_StaleEmailHint() {
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userSearchIndex.emailOf(1L)).thenReturn("king.james@nba.com");
+        when(userRepository.updateById(eq(1L), anyMap(), isNull(), eq("king.james@nba.com"))).thenReturn(0);
+        when(userRepository.findWriteStateById(1L))
+                .thenReturn(Optional.of(new UserWriteState("lebron.james@nba.com", 7L)));
+        when(userRepository.updateById(eq(1L), anyMap(), eq(7L), eq("lebron.james@nba.com"))).thenReturn(1);
+        when(userMapper.toEntity(userRequestDTO)).thenReturn(user);
+        when(userMapper.toDTO(user)).thenReturn(userResponseDTO);
+
+        userService.updateUserById(1L, userRequestDTO, null);
+
+        assertEquals(8L, user.getVersion());
+        verify(userEmailIndex, never()).add(anyString());
+    }
+
+    @Test
+    void updateUserById_EmailTakenByAnotherUser() {
+        userRequestDTO.setEmail("stephen.curry@nba.com");
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userSearchIndex.emailOf(1L)).thenReturn("lebron.james@nba.com");
+        when(userEmailIndex.contains("stephen.curry@nba.com")).thenReturn(true);
+
+        assertThrows(ConflictException.class,
+                () -> userService.updateUserById(1L, userRequestDTO, null));
+
+        verify(userRepository, never()).updateById(anyLong(), anyMap(), any(), any());
+    }
+
+    @Test
+    void updateUserById_ChangesEmail() {
+        userRequestDTO.setEmail("king.james@nba.com");
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userSearchIndex.emailOf(1L)).thenReturn("lebron.james@nba.com");
+        when(userRepository.updateById(eq(1L), anyMap(), isNull(), eq("lebron.james@nba.com"))).thenReturn(1);
+        when(userMapper.toEntity(userRequestDTO)).thenReturn(user);
+        when(userMapper.toDTO(user)).thenReturn(userResponseDTO);
+
+        userService.updateUserById(1L, userRequestDTO, null);
+
+        verify(userEmailIndex).add("king.james@nba.com");
     }
 
     @Test
     void updateUserById_NotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userRepository.findWriteStateById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
-                () -> userService.updateUserById(1L, userRequestDTO));
+                () -> userService.updateUserById(1L, userRequestDTO, null));
+
+        verify(userRepository, never()).updateById(anyLong(), anyMap(), any(), any());
+    }
+
+    @Test
+    void updateUserById_RejectedByIdFilter() {
+        when(userIdFilter.mightContain(1L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> userService.updateUserById(1L, userRequestDTO, null));
+
+        verifyNoInteractions(userRepository);
+    }
 
-        verify(userRepository, never()).save(any(User.class));
+    @Test
+    void patchUserById_WritesOnlyPresentFields() {
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setPhone("+1 23 91234-5678");
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userRepository.updateById(eq(1L), anyMap(), eq(2L), isNull())).thenReturn(1);
+
+        assertEquals(3L, userService.patchUserById(1L, patch, 2L));
+
+        verify(userRepository).updateById(1L, Map.of(UserField.PHONE, "+1 23 91234-5678"), 2L, null);
+        verify(userSearchIndex, never()).emailOf(anyLong());
+    }
+
+    @Test
+    void patchUserById_NotFound() {
+        UserPatchDTO patch = new UserPatchDTO();
+        patch.setUserType(UserType.VIEWER);
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userRepository.updateById(eq(1L), anyMap(), isNull(), isNull())).thenReturn(0);
+        when(userRepository.findWriteStateById(1L)).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.patchUserById(1L, patch, null));
+    }
+
+    @Test
+    void patchUserById_Empty() {
+        assertThrows(BusinessException.class, () -> userService.patchUserById(1L, new UserPatchDTO(), null));
+
+        verifyNoInteractions(userRepository);
     }
 
     @Test
     void deleteUser_Success() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        doNothing().when(userRepository).delete(any(User.class));
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userSearchIndex.emailOf(1L)).thenReturn("lebron.james@nba.com");
+        when(userRepository.deleteByIdAndEmail(1L, "lebron.james@nba.com")).thenReturn(1);
 
         assertDoesNotThrow(() -> userService.deleteUserById(1L));
 
-        verify(userRepository).findById(1L);
-        verify(userRepository).delete(user);
+        verify(userRepository, never()).findWriteStateById(anyLong());
+        verify(userIndexListener).removed(1L, "lebron.james@nba.com");
+    }
+
+    @Test
+    void deleteUser_NotIndexedYet() {
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userRepository.findWriteStateById(1L))
+                .thenReturn(Optional.of(new UserWriteState("lebron.james@nba.com", 0L)));
+        when(userRepository.deleteByIdAndEmail(1L, "lebron.james@nba.com")).thenReturn(1);
+
+        assertDoesNotThrow(() -> userService.deleteUserById(1L));
+
+        verify(userIndexListener).removed(1L, "lebron.james@nba.com");
     }
 
     @Test
     void deleteUser_NotFound() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userIdFilter.mightContain(1L)).thenReturn(true);
+        when(userSearchIndex.emailOf(1L)).thenReturn("lebron.james@nba.com");
+        when(userRepository.deleteByIdAndEmail(1L, "lebron.james@nba.com")).thenReturn(0);
+        when(userRepository.findWriteStateById(1L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> userService.deleteUserById(1L));
 
-        verify(userRepository, never()).delete(any(User.class));
+        verify(userIndexListener, never()).removed(anyLong(), any());
     }
 }
\ No newline at end of file
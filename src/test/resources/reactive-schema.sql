@@ -0,0 +1,23 @@
+-- schema.sql for the reactive tests, which run on H2 over R2DBC: same tables and indexes,
+-- without the MySQL-only CREATE DATABASE / USE and inline index syntax.
+CREATE TABLE IF NOT EXISTS users (
+    id BIGINT PRIMARY KEY,
+    full_name VARCHAR(100) NOT NULL,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    phone VARCHAR(20) NOT NULL,
+    birth_date DATE NOT NULL,
+    user_type VARCHAR(20) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT chk_user_type CHECK (user_type IN ('ADMIN', 'EDITOR', 'VIEWER'))
+    );
+
+CREATE INDEX IF NOT EXISTS idx_users_user_type_birth_date ON users (user_type, birth_date);
+CREATE INDEX IF NOT EXISTS idx_users_birth_date ON users (birth_date);
+CREATE INDEX IF NOT EXISTS idx_users_full_name ON users (full_name);
+
+CREATE TABLE IF NOT EXISTS users_seq (
+    next_val BIGINT NOT NULL
+    );
+
+INSERT INTO users_seq (next_val)
+SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT * FROM users_seq);